@@ -0,0 +1,15 @@
+package com.sj.api_gateway.cache;
+
+import org.springframework.http.HttpHeaders;
+
+public record CachedResponse(String path, HttpHeaders headers, byte[] body, String etag,
+                             long storedAt, long expiresAt) {
+
+    public boolean isFresh(long now) {
+        return expiresAt > now;
+    }
+
+    public long ageSeconds(long now) {
+        return Math.max(0, (now - storedAt) / 1000);
+    }
+}
@@ -0,0 +1,76 @@
+package com.sj.api_gateway.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Every invalidation bumps the generation, so a response fetched before it is not stored afterwards.
+ */
+@Component
+public class GatewayResponseCache {
+
+    private final Map<String, CachedResponse> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final int maxEntries;
+
+    public GatewayResponseCache(ResponseCacheProperties properties) {
+        this.maxEntries = properties.maxEntries();
+    }
+
+    public CachedResponse get(String key) {
+        CachedResponse entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.isFresh(System.currentTimeMillis())) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    // Read before the upstream call and passed to put().
+    public long generation() {
+        return generation.get();
+    }
+
+    public void put(String key, CachedResponse response, long fetchedInGeneration) {
+        if (entries.size() >= maxEntries) {
+            evictExpired();
+        }
+        entries.put(key, response);
+        if (generation.get() != fetchedInGeneration) {
+            // Invalidated while this response was in flight; it may predate the write
+            entries.remove(key, response);
+        }
+    }
+
+    public int invalidate(String pathPrefix) {
+        generation.incrementAndGet();
+        int before = entries.size();
+        if (pathPrefix == null || pathPrefix.isEmpty()) {
+            entries.clear();
+        } else {
+            entries.values().removeIf(entry -> entry.path().startsWith(pathPrefix));
+        }
+        return Math.max(0, before - entries.size());
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> !entry.isFresh(now));
+        Iterator<String> iterator = entries.keySet().iterator();
+        for (int i = maxEntries / 10; entries.size() >= maxEntries && i > 0 && iterator.hasNext(); i--) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.sj.api_gateway.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Invalidation only evicts on the instance that handled it, so {@code maxTtl} bounds how stale
+ * a response can be across instances.
+ */
+@ConfigurationProperties("gateway.response-cache")
+public record ResponseCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue List<String> paths,
+        @DefaultValue({"Accept", "Accept-Encoding", "Accept-Language", "Origin"}) List<String> keyHeaders,
+        @DefaultValue List<String> invalidateOnWrite,
+        @DefaultValue List<String> readOnlyWrites,
+        @DefaultValue("30s") Duration defaultTtl,
+        @DefaultValue("5m") Duration maxTtl,
+        @DefaultValue("10000") int maxEntries,
+        @DefaultValue("262144") int maxBodyBytes) {
+}
@@ -0,0 +1,109 @@
+package com.sj.api_gateway.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gradient-style limit for one route: grows while latency stays near its long-term average,
+ * shrinks as it climbs and backs off after timeouts or 503s.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final double backoff;
+    private final int windowSize;
+
+    private volatile double limit;
+
+    private long windowRttSum;
+    private int windowSamples;
+    private boolean windowDropped;
+    private int windowMaxInFlight;
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+        this.limit = properties.initialLimit();
+        this.minLimit = properties.minLimit();
+        this.maxLimit = properties.maxLimit();
+        this.tolerance = properties.tolerance();
+        this.smoothing = properties.smoothing();
+        this.backoff = properties.backoff();
+        this.windowSize = properties.windowSize();
+    }
+
+    // Returns the requests in flight including this one, or -1 if refused.
+    public int tryAcquire(double share) {
+        int allowed = Math.max(1, (int) (limit * share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    public void release(long rttNanos, int inFlightAtStart, boolean dropped) {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            windowRttSum += rttNanos;
+            windowSamples++;
+            windowDropped |= dropped;
+            windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtStart);
+            if (windowSamples >= windowSize) {
+                update();
+            }
+        }
+    }
+
+    public void abandon() {
+        inFlight.decrementAndGet();
+    }
+
+    public double getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void update() {
+        double shortRtt = (double) windowRttSum / windowSamples;
+        boolean dropped = windowDropped;
+        int maxInFlight = windowMaxInFlight;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowDropped = false;
+        windowMaxInFlight = 0;
+
+        if (longRtt == 0) {
+            longRtt = shortRtt;
+        } else {
+            longRtt = longRtt * 0.95 + shortRtt * 0.05;
+            if (longRtt > shortRtt * 2) {
+                // Latency has improved for good; stop comparing against the slow past
+                longRtt = shortRtt * 2;
+            }
+        }
+
+        double current = limit;
+        double next;
+        if (dropped) {
+            next = current * backoff;
+        } else if (maxInFlight < current / 2) {
+            // Traffic never came near the limit, so this window says nothing about capacity
+            return;
+        } else {
+            double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+            double estimate = current * gradient + Math.sqrt(current);
+            next = current * (1 - smoothing) + estimate * smoothing;
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+}
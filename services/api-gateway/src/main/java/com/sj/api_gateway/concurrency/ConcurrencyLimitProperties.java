@@ -0,0 +1,29 @@
+package com.sj.api_gateway.concurrency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+@ConfigurationProperties("gateway.concurrency-limit")
+public record ConcurrencyLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("20") int initialLimit,
+        @DefaultValue("5") int minLimit,
+        @DefaultValue("500") int maxLimit,
+        @DefaultValue("1.5") double tolerance,
+        @DefaultValue("0.2") double smoothing,
+        @DefaultValue("0.9") double backoff,
+        @DefaultValue("50") int windowSize,
+        @DefaultValue("0.8") double normalShare,
+        @DefaultValue List<PriorityRule> priorities,
+        @DefaultValue List<String> exemptRoutes) {
+
+    public enum Priority {
+        CRITICAL,
+        NORMAL
+    }
+
+    public record PriorityRule(String path, @DefaultValue List<String> methods, Priority priority) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.sj.api_gateway.config;
+
+import com.sj.api_gateway.concurrency.ConcurrencyLimitProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitConfig {
+}
@@ -0,0 +1,10 @@
+package com.sj.api_gateway.config;
+
+import com.sj.api_gateway.loadbalancer.LeastOutstandingRequestsConfiguration;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LeastOutstandingRequestsConfiguration.class)
+public class LoadBalancerConfig {
+}
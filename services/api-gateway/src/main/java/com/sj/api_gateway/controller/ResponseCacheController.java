@@ -0,0 +1,57 @@
+package com.sj.api_gateway.controller;
+
+import com.sj.api_gateway.cache.GatewayResponseCache;
+import com.sj.api_gateway.security.TokenVerifier;
+import com.sj.api_gateway.security.VerifiedClaims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Evicts on this instance only; other instances keep their copy until it expires.
+ */
+@RestController
+@RequestMapping("/internal/cache")
+public class ResponseCacheController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCacheController.class);
+    private static final Set<String> ALLOWED_ROLES = Set.of("ADMIN", "SERVICE");
+
+    private final GatewayResponseCache cache;
+    private final TokenVerifier tokenVerifier;
+
+    public ResponseCacheController(GatewayResponseCache cache, TokenVerifier tokenVerifier) {
+        this.cache = cache;
+        this.tokenVerifier = tokenVerifier;
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Map<String, Integer>> invalidate(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authHeader,
+            @RequestParam(defaultValue = "") String prefix) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        Optional<VerifiedClaims> claims = tokenVerifier.verify(authHeader.substring(7));
+        if (claims.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!ALLOWED_ROLES.contains(claims.get().role())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        int evicted = cache.invalidate(prefix);
+        logger.info("{} invalidated {} cached responses under '{}'", claims.get().subject(), evicted, prefix);
+        return ResponseEntity.ok(Map.of("evicted", evicted));
+    }
+}
@@ -0,0 +1,221 @@
+package com.sj.api_gateway.filter;
+
+import com.sj.api_gateway.security.VerifiedClaims;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Collapses concurrent identical GETs on a route into one upstream call.
+ */
+@Component
+public class CoalesceGatewayFilterFactory extends AbstractGatewayFilterFactory<CoalesceGatewayFilterFactory.Config> {
+
+    public static final int ORDER = ResponseCacheFilter.ORDER + 10;
+
+    // Conditional and range headers change what comes back, so they have to match too
+    private static final List<String> KEY_HEADERS = List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING,
+            HttpHeaders.ACCEPT_LANGUAGE, HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MODIFIED_SINCE, HttpHeaders.RANGE);
+    // Connection-level, or about the leading caller rather than the resource
+    private static final Set<String> UNSHARED_HEADERS = Set.of("content-length", "transfer-encoding",
+            "connection", "keep-alive",
+            "x-ratelimit-limit", "x-ratelimit-remaining", "x-cache");
+
+    private final MeterRegistry meterRegistry;
+
+    public CoalesceGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        List<PathPattern> paths = config.getPaths().stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .collect(Collectors.toList());
+        Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            PathContainer path = request.getPath().pathWithinApplication();
+            if (request.getMethod() != HttpMethod.GET
+                    || (!paths.isEmpty() && paths.stream().noneMatch(pattern -> pattern.matches(path)))) {
+                return chain.filter(exchange);
+            }
+            String key = key(exchange, config.isShareAcrossUsers());
+            Flight flight = new Flight();
+            Flight leading = inFlight.putIfAbsent(key, flight);
+            if (leading != null) {
+                if (leading.waiters.incrementAndGet() > config.getMaxWaiters()) {
+                    leading.waiters.decrementAndGet();
+                    count(exchange, "overflow");
+                    return chain.filter(exchange);
+                }
+                count(exchange, "follower");
+                return leading.result.asMono()
+                        .flatMap(shared -> write(exchange, shared))
+                        .switchIfEmpty(Mono.defer(() -> chain.filter(exchange)))
+                        .doFinally(signal -> leading.waiters.decrementAndGet());
+            }
+            count(exchange, "leader");
+            ServerHttpResponse sharing = new SharingResponse(exchange.getResponse(), flight, config.getMaxBodyBytes());
+            return chain.filter(exchange.mutate().response(sharing).build())
+                    .doOnError(e -> flight.result.tryEmitError(e))
+                    .doFinally(signal -> {
+                        inFlight.remove(key, flight);
+                        // No-op when a response or error was already handed over
+                        flight.result.tryEmitEmpty();
+                    });
+        }, ORDER);
+    }
+
+    private static String key(ServerWebExchange exchange, boolean shareAcrossUsers) {
+        ServerHttpRequest request = exchange.getRequest();
+        StringBuilder key = new StringBuilder(request.getPath().pathWithinApplication().value());
+        String query = request.getURI().getRawQuery();
+        if (query != null) {
+            key.append('?').append(query);
+        }
+        for (String header : KEY_HEADERS) {
+            List<String> values = request.getHeaders().get(header);
+            key.append('|').append(values == null ? "" : String.join(",", values));
+        }
+        if (!shareAcrossUsers) {
+            VerifiedClaims claims = exchange.getAttribute(JwtAuthenticationFilter.CLAIMS_ATTRIBUTE);
+            key.append("|user=").append(claims == null ? "" : claims.subject());
+        }
+        return key.toString();
+    }
+
+    private static Mono<Void> write(ServerWebExchange exchange, SharedResponse shared) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(shared.status());
+        shared.headers().forEach(response.getHeaders()::put);
+        response.getHeaders().setContentLength(shared.body().length);
+        response.getHeaders().set("X-Coalesced", "true");
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.body())));
+    }
+
+    private void count(ServerWebExchange exchange, String outcome) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        meterRegistry.counter("gateway.coalesce.requests",
+                "route", route == null ? "none" : route.getId(),
+                "outcome", outcome).increment();
+    }
+
+    public static class Config {
+
+        private List<String> paths = new ArrayList<>();
+        private boolean shareAcrossUsers = false;
+        private int maxBodyBytes = 1024 * 1024;
+        private int maxWaiters = 10000;
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public boolean isShareAcrossUsers() {
+            return shareAcrossUsers;
+        }
+
+        public void setShareAcrossUsers(boolean shareAcrossUsers) {
+            this.shareAcrossUsers = shareAcrossUsers;
+        }
+
+        public int getMaxBodyBytes() {
+            return maxBodyBytes;
+        }
+
+        public void setMaxBodyBytes(int maxBodyBytes) {
+            this.maxBodyBytes = maxBodyBytes;
+        }
+
+        public int getMaxWaiters() {
+            return maxWaiters;
+        }
+
+        public void setMaxWaiters(int maxWaiters) {
+            this.maxWaiters = maxWaiters;
+        }
+    }
+
+    private static final class Flight {
+
+        private final Sinks.One<SharedResponse> result = Sinks.one();
+        private final AtomicInteger waiters = new AtomicInteger();
+    }
+
+    private record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+
+    private static class SharingResponse extends ServerHttpResponseDecorator {
+
+        private final Flight flight;
+        private final int maxBodyBytes;
+
+        SharingResponse(ServerHttpResponse delegate, Flight flight, int maxBodyBytes) {
+            super(delegate);
+            this.flight = flight;
+            this.maxBodyBytes = maxBodyBytes;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpHeaders headers = getHeaders();
+            if (headers.getContentLength() > maxBodyBytes || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+                flight.result.tryEmitEmpty();
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(body).flatMap(joined -> {
+                byte[] bytes = new byte[joined.readableByteCount()];
+                joined.read(bytes);
+                DataBufferUtils.release(joined);
+                if (bytes.length <= maxBodyBytes) {
+                    HttpHeaders shared = new HttpHeaders();
+                    headers.forEach((name, values) -> {
+                        if (!UNSHARED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                            shared.put(name, List.copyOf(values));
+                        }
+                    });
+                    HttpStatusCode status = getStatusCode() != null ? getStatusCode() : HttpStatus.OK;
+                    flight.result.tryEmitValue(new SharedResponse(status, shared, bytes));
+                } else {
+                    flight.result.tryEmitEmpty();
+                }
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            });
+        }
+    }
+}
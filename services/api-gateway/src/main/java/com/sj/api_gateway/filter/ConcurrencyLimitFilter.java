@@ -0,0 +1,133 @@
+package com.sj.api_gateway.filter;
+
+import com.sj.api_gateway.concurrency.AdaptiveConcurrencyLimiter;
+import com.sj.api_gateway.concurrency.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Answers 503 once a route's adaptive limit is reached; NORMAL requests only get part of it.
+ */
+@Component
+public class ConcurrencyLimitFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = CoalesceGatewayFilterFactory.ORDER + 10;
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    private final ConcurrencyLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+    private final List<MatchedRule> rules;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.rules = properties.priorities().stream()
+                .map(rule -> new MatchedRule(PathPatternParser.defaultInstance.parse(rule.path()),
+                        rule.methods().stream().map(method -> method.toUpperCase(Locale.ROOT)).collect(Collectors.toSet()),
+                        rule.priority()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!properties.enabled() || route == null || properties.exemptRoutes().contains(route.getId())) {
+            return chain.filter(exchange);
+        }
+        AdaptiveConcurrencyLimiter limiter = limiters.computeIfAbsent(route.getId(), this::newLimiter);
+        ConcurrencyLimitProperties.Priority priority = priority(exchange.getRequest());
+        double share = priority == ConcurrencyLimitProperties.Priority.CRITICAL ? 1.0 : properties.normalShare();
+        int inFlight = limiter.tryAcquire(share);
+        if (inFlight < 0) {
+            meterRegistry.counter("gateway.concurrency.rejected",
+                    "route", route.getId(), "priority", priority.name()).increment();
+            logger.debug("Shedding {} request on route {}, limit {}", priority, route.getId(), (int) limiter.getLimit());
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+            return exchange.getResponse().setComplete();
+        }
+
+        long started = System.nanoTime();
+        AtomicBoolean timedOut = new AtomicBoolean();
+        return chain.filter(exchange)
+                .doOnError(e -> timedOut.set(isTimeout(e)))
+                .doFinally(signal -> {
+                    if (signal == SignalType.CANCEL) {
+                        limiter.abandon();
+                        return;
+                    }
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    boolean dropped = timedOut.get() || (status != null
+                            && (status.value() == 503 || status.value() == 504));
+                    limiter.release(System.nanoTime() - started, inFlight, dropped);
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private AdaptiveConcurrencyLimiter newLimiter(String routeId) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+        Gauge.builder("gateway.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("route", routeId)
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    private ConcurrencyLimitProperties.Priority priority(ServerHttpRequest request) {
+        PathContainer path = request.getPath().pathWithinApplication();
+        String method = request.getMethod().name();
+        for (MatchedRule rule : rules) {
+            if ((rule.methods().isEmpty() || rule.methods().contains(method)) && rule.pattern().matches(path)) {
+                return rule.priority();
+            }
+        }
+        return ConcurrencyLimitProperties.Priority.NORMAL;
+    }
+
+    private static boolean isTimeout(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record MatchedRule(PathPattern pattern, Set<String> methods, ConcurrencyLimitProperties.Priority priority) {
+    }
+}
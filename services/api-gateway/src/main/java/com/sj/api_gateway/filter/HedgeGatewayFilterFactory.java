@@ -0,0 +1,303 @@
+package com.sj.api_gateway.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Sends a second attempt for a GET with no response after the route's recent p95 latency and
+ * uses whichever answers first.
+ */
+@Component
+public class HedgeGatewayFilterFactory extends AbstractGatewayFilterFactory<HedgeGatewayFilterFactory.Config> {
+
+    public static final int ORDER = ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER - 1;
+
+    private final MeterRegistry meterRegistry;
+
+    public HedgeGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        List<PathPattern> paths = config.getPaths().stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .collect(Collectors.toList());
+        LatencyWindow latencies = new LatencyWindow(config.getWindowSize(), config.getPercentile());
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            PathContainer path = exchange.getRequest().getPath().pathWithinApplication();
+            if (exchange.getRequest().getMethod() != HttpMethod.GET
+                    || (!paths.isEmpty() && paths.stream().noneMatch(pattern -> pattern.matches(path)))) {
+                return chain.filter(exchange);
+            }
+            long started = System.nanoTime();
+            Duration delay = latencies.percentile()
+                    .map(observed -> clamp(observed, config.getMinDelay(), config.getMaxDelay()))
+                    .orElse(config.getInitialDelay());
+
+            Attempt primary = new Attempt(exchange);
+            Attempt hedge = new Attempt(exchange);
+            AtomicReference<Attempt> winner = new AtomicReference<>();
+            Mono<Attempt> first = primary.run(chain::filter);
+            Mono<Attempt> second = Mono.delay(delay)
+                    .then(Mono.defer(() -> {
+                        count(exchange, "gateway.hedge.sent");
+                        return hedge.run(chain::filter);
+                    }));
+
+            return Mono.firstWithValue(first, second)
+                    .onErrorMap(NoSuchElementException.class,
+                            e -> e.getSuppressed().length > 0 ? e.getSuppressed()[0] : e)
+                    .doOnNext(won -> {
+                        winner.set(won);
+                        won.applyTo(exchange);
+                        long elapsed = System.nanoTime() - started;
+                        if (won == hedge) {
+                            // The primary never answered, so its latency is unknown; counting it at the
+                            // ceiling keeps the percentile from drifting down to the hedges that beat it
+                            latencies.record(Math.max(elapsed, config.getMaxDelay().toNanos()));
+                            count(exchange, "gateway.hedge.wins");
+                        } else {
+                            latencies.record(elapsed);
+                        }
+                    })
+                    .doFinally(signal -> {
+                        primary.releaseUnless(winner.get());
+                        hedge.releaseUnless(winner.get());
+                    })
+                    .then();
+        }, ORDER);
+    }
+
+    private void count(ServerWebExchange exchange, String name) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        meterRegistry.counter(name, "route", route == null ? "none" : route.getId()).increment();
+    }
+
+    private static Duration clamp(Duration value, Duration min, Duration max) {
+        return value.compareTo(min) < 0 ? min : value.compareTo(max) > 0 ? max : value;
+    }
+
+    public static class Config {
+
+        private List<String> paths = new ArrayList<>();
+        private double percentile = 0.95;
+        private Duration initialDelay = Duration.ofMillis(200);
+        private Duration minDelay = Duration.ofMillis(10);
+        private Duration maxDelay = Duration.ofSeconds(1);
+        private int windowSize = 1024;
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        public Duration getInitialDelay() {
+            return initialDelay;
+        }
+
+        public void setInitialDelay(Duration initialDelay) {
+            this.initialDelay = initialDelay;
+        }
+
+        public Duration getMinDelay() {
+            return minDelay;
+        }
+
+        public void setMinDelay(Duration minDelay) {
+            this.minDelay = minDelay;
+        }
+
+        public Duration getMaxDelay() {
+            return maxDelay;
+        }
+
+        public void setMaxDelay(Duration maxDelay) {
+            this.maxDelay = maxDelay;
+        }
+
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        public void setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+        }
+    }
+
+    private static final class Attempt {
+
+        private final Map<String, Object> attributes;
+        private final DetachedResponse response;
+        private final ServerWebExchange exchange;
+
+        Attempt(ServerWebExchange original) {
+            this.attributes = new ConcurrentHashMap<>(original.getAttributes());
+            this.response = new DetachedResponse(original.getResponse());
+            ServerWebExchange withResponse = original.mutate().response(response).build();
+            this.exchange = new ServerWebExchangeDecorator(withResponse) {
+                @Override
+                public Map<String, Object> getAttributes() {
+                    return attributes;
+                }
+            };
+        }
+
+        Mono<Attempt> run(Function<ServerWebExchange, Mono<Void>> chain) {
+            return Mono.defer(() -> chain.apply(exchange)).then(Mono.fromSupplier(() -> this));
+        }
+
+        void applyTo(ServerWebExchange target) {
+            target.getAttributes().putAll(attributes);
+            ServerHttpResponse targetResponse = target.getResponse();
+            if (response.getStatusCode() != null) {
+                targetResponse.setStatusCode(response.getStatusCode());
+            }
+            targetResponse.getHeaders().putAll(response.getHeaders());
+        }
+
+        // Frees the pooled connection of an attempt that lost.
+        void releaseUnless(Attempt winner) {
+            if (winner == this) {
+                return;
+            }
+            Connection connection = (Connection) attributes.get(ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR);
+            if (connection != null) {
+                connection.dispose();
+            }
+        }
+    }
+
+    private static final class DetachedResponse extends ServerHttpResponseDecorator {
+
+        private final HttpHeaders headers = new HttpHeaders();
+        private HttpStatusCode status;
+
+        DetachedResponse(ServerHttpResponse delegate) {
+            super(delegate);
+            headers.putAll(delegate.getHeaders());
+            status = delegate.getStatusCode();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public boolean setStatusCode(HttpStatusCode status) {
+            this.status = status;
+            return true;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return status;
+        }
+
+        @Override
+        public boolean isCommitted() {
+            return false;
+        }
+
+        @Override
+        public void beforeCommit(Supplier<? extends Mono<Void>> action) {
+            // Nothing is committed from an attempt; the winning state is applied to the real response
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            return Mono.empty();
+        }
+    }
+
+    private static final class LatencyWindow {
+
+        private static final int RECOMPUTE_EVERY = 64;
+
+        private final AtomicLongArray samples;
+        private final AtomicLong recorded = new AtomicLong();
+        private final double percentile;
+        private volatile Duration current;
+
+        LatencyWindow(int size, double percentile) {
+            this.samples = new AtomicLongArray(size);
+            this.percentile = percentile;
+        }
+
+        void record(long nanos) {
+            long n = recorded.getAndIncrement();
+            samples.set((int) (n % samples.length()), nanos);
+            if (n + 1 >= samples.length() && (n + 1) % RECOMPUTE_EVERY == 0) {
+                long[] copy = new long[samples.length()];
+                for (int i = 0; i < copy.length; i++) {
+                    copy[i] = samples.get(i);
+                }
+                Arrays.sort(copy);
+                int index = Math.min(copy.length - 1, (int) Math.ceil(percentile * copy.length) - 1);
+                current = Duration.ofNanos(copy[Math.max(0, index)]);
+            }
+        }
+
+        Optional<Duration> percentile() {
+            return Optional.ofNullable(current);
+        }
+    }
+}
@@ -1,22 +1,49 @@
 package com.sj.api_gateway.filter;
 
+import com.sj.api_gateway.security.InternalAuthHeaders;
+import com.sj.api_gateway.security.TokenVerifier;
+import com.sj.api_gateway.security.VerifiedClaims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
 @Component
-public class JwtAuthenticationFilter implements GlobalFilter {
+public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 10;
+    public static final String CLAIMS_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".claims";
 
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    private final TokenVerifier tokenVerifier;
+    private final InternalAuthHeaders internalAuthHeaders;
+    private final List<PathPattern> anonymousPaths;
+
+    public JwtAuthenticationFilter(TokenVerifier tokenVerifier, InternalAuthHeaders internalAuthHeaders,
+                                   @Value("${gateway.anonymous-paths:/api/v1/products/available,"
+                                           + "/api/v1/products/featured,/api/v1/products/search}")
+                                   List<String> anonymousPaths) {
+        this.tokenVerifier = tokenVerifier;
+        this.internalAuthHeaders = internalAuthHeaders;
+        this.anonymousPaths = anonymousPaths.stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .collect(Collectors.toList());
+    }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
@@ -24,14 +51,46 @@ public class JwtAuthenticationFilter implements GlobalFilter {
         logger.debug("Processing request for path: {}", path);
         if (path.startsWith("/api/v1/auth/")) {
             logger.debug("Skipping JWT validation for auth endpoint: {}", path);
-            return chain.filter(exchange);
+            return chain.filter(exchange.mutate()
+                    .request(request -> request.headers(internalAuthHeaders::strip))
+                    .build());
         }
         String authHeader = exchange.getRequest().getHeaders().getFirst("Authorization");
+        if (authHeader == null && isAnonymous(exchange)) {
+            return chain.filter(exchange.mutate()
+                    .request(request -> request.headers(internalAuthHeaders::strip))
+                    .build());
+        }
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             logger.warn("Missing or invalid Authorization header for path: {}", path);
             exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
             return exchange.getResponse().setComplete();
         }
-        return chain.filter(exchange);
+        Optional<VerifiedClaims> claims = tokenVerifier.verify(authHeader.substring(7));
+        if (claims.isEmpty()) {
+            logger.warn("Rejected invalid or expired token for path: {}", path);
+            exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+            return exchange.getResponse().setComplete();
+        }
+        exchange.getAttributes().put(CLAIMS_ATTRIBUTE, claims.get());
+        return chain.filter(exchange.mutate()
+                .request(request -> request.headers(headers -> {
+                    internalAuthHeaders.strip(headers);
+                    internalAuthHeaders.write(headers, claims.get());
+                }))
+                .build());
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private boolean isAnonymous(ServerWebExchange exchange) {
+        if (exchange.getRequest().getMethod() != HttpMethod.GET) {
+            return false;
+        }
+        PathContainer path = exchange.getRequest().getPath().pathWithinApplication();
+        return anonymousPaths.stream().anyMatch(pattern -> pattern.matches(path));
     }
-}
\ No newline at end of file
+}
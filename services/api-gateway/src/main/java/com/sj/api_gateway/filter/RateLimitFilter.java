@@ -0,0 +1,122 @@
+package com.sj.api_gateway.filter;
+
+import com.sj.api_gateway.ratelimit.RateLimitDecision;
+import com.sj.api_gateway.ratelimit.RateLimitProperties;
+import com.sj.api_gateway.ratelimit.TokenBucketLimiter;
+import com.sj.api_gateway.security.VerifiedClaims;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.gateway.support.ipresolver.RemoteAddressResolver;
+import org.springframework.cloud.gateway.support.ipresolver.XForwardedRemoteAddressResolver;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+public class RateLimitFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = JwtAuthenticationFilter.ORDER + 10;
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final TokenBucketLimiter limiter;
+    private final MeterRegistry meterRegistry;
+    private final RemoteAddressResolver addressResolver;
+    private final List<MatchedPolicy> policies;
+    private final boolean enabled;
+
+    public RateLimitFilter(TokenBucketLimiter limiter, MeterRegistry meterRegistry, RateLimitProperties properties) {
+        this.limiter = limiter;
+        this.meterRegistry = meterRegistry;
+        this.enabled = properties.enabled();
+        // Behind a load balancer the remote address is the balancer; trust that many X-Forwarded-For hops
+        this.addressResolver = properties.trustedProxies() > 0
+                ? XForwardedRemoteAddressResolver.maxTrustedIndex(properties.trustedProxies())
+                : new RemoteAddressResolver() {
+                };
+        this.policies = properties.policies().stream()
+                .map(policy -> new MatchedPolicy(PathPatternParser.defaultInstance.parse(policy.path()), policy))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!enabled) {
+            return chain.filter(exchange);
+        }
+        RateLimitProperties.Policy policy = match(exchange);
+        if (policy == null) {
+            return chain.filter(exchange);
+        }
+        String key = policy.name() + ":" + clientKey(exchange, policy.key());
+        return limiter.tryConsume(key, policy).flatMap(decision -> {
+            record(exchange, policy, decision);
+            ServerHttpResponse response = exchange.getResponse();
+            response.getHeaders().set("X-RateLimit-Limit", Integer.toString(policy.capacity()));
+            response.getHeaders().set("X-RateLimit-Remaining", Long.toString(decision.remaining()));
+            if (decision.allowed()) {
+                return chain.filter(exchange);
+            }
+            logger.debug("Rate limited {} on policy {}", key, policy.name());
+            response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER,
+                    Long.toString(Math.max(1, (decision.retryAfterMillis() + 999) / 1000)));
+            return response.setComplete();
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private RateLimitProperties.Policy match(ServerWebExchange exchange) {
+        PathContainer path = exchange.getRequest().getPath().pathWithinApplication();
+        for (MatchedPolicy candidate : policies) {
+            if (candidate.pattern().matches(path)) {
+                return candidate.policy();
+            }
+        }
+        return null;
+    }
+
+    private String clientKey(ServerWebExchange exchange, RateLimitProperties.KeyType keyType) {
+        if (keyType == RateLimitProperties.KeyType.USER) {
+            VerifiedClaims claims = exchange.getAttribute(JwtAuthenticationFilter.CLAIMS_ATTRIBUTE);
+            if (claims != null) {
+                return "user:" + claims.subject();
+            }
+        }
+        InetSocketAddress address = addressResolver.resolve(exchange);
+        String host = address == null ? "unknown"
+                : address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+        return "ip:" + host;
+    }
+
+    private void record(ServerWebExchange exchange, RateLimitProperties.Policy policy, RateLimitDecision decision) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        meterRegistry.counter("gateway.ratelimit.requests",
+                "route", route == null ? "none" : route.getId(),
+                "policy", policy.name(),
+                "outcome", decision.allowed() ? "allowed" : "throttled").increment();
+    }
+
+    private record MatchedPolicy(PathPattern pattern, RateLimitProperties.Policy policy) {
+    }
+}
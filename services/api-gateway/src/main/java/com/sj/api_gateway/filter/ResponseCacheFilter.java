@@ -0,0 +1,280 @@
+package com.sj.api_gateway.filter;
+
+import com.sj.api_gateway.cache.CachedResponse;
+import com.sj.api_gateway.cache.GatewayResponseCache;
+import com.sj.api_gateway.cache.ResponseCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Component
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = RateLimitFilter.ORDER + 10;
+
+    // Only these are replayed to other callers; anything per-request or per-user stays out
+    private static final List<String> STORED_HEADERS = List.of(HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.CONTENT_LANGUAGE, HttpHeaders.CONTENT_ENCODING, HttpHeaders.CACHE_CONTROL,
+            HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED, HttpHeaders.VARY);
+
+    private final GatewayResponseCache cache;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final List<PathPattern> paths;
+    private final List<String> keyHeaders;
+    private final Set<String> keyHeaderNames;
+    private final List<String> invalidateOnWrite;
+    private final List<PathPattern> readOnlyWrites;
+    private final long defaultTtlMillis;
+    private final long maxTtlMillis;
+    private final int maxBodyBytes;
+
+    public ResponseCacheFilter(GatewayResponseCache cache, MeterRegistry meterRegistry,
+                               ResponseCacheProperties properties) {
+        this.cache = cache;
+        this.meterRegistry = meterRegistry;
+        this.enabled = properties.enabled();
+        this.paths = properties.paths().stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .collect(Collectors.toList());
+        this.keyHeaders = properties.keyHeaders();
+        this.keyHeaderNames = properties.keyHeaders().stream()
+                .map(name -> name.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+        this.invalidateOnWrite = properties.invalidateOnWrite();
+        this.readOnlyWrites = properties.readOnlyWrites().stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .collect(Collectors.toList());
+        this.defaultTtlMillis = properties.defaultTtl().toMillis();
+        this.maxTtlMillis = properties.maxTtl().toMillis();
+        this.maxBodyBytes = properties.maxBodyBytes();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!enabled) {
+            return chain.filter(exchange);
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        PathContainer path = request.getPath().pathWithinApplication();
+        if (request.getMethod() != HttpMethod.GET) {
+            return invalidateAfterWrite(exchange, chain, path);
+        }
+        if (paths.stream().noneMatch(pattern -> pattern.matches(path))) {
+            return chain.filter(exchange);
+        }
+        Set<String> requestDirectives = directives(request.getHeaders().getCacheControl());
+        if (requestDirectives.contains("no-store")) {
+            return chain.filter(exchange);
+        }
+
+        String key = key(request);
+        if (!requestDirectives.contains("no-cache")) {
+            CachedResponse cached = cache.get(key);
+            if (cached != null) {
+                count("hit");
+                return serve(exchange, cached);
+            }
+        }
+        count("miss");
+        long generation = cache.generation();
+        ServerHttpResponse capturing = new CapturingResponse(exchange.getResponse(), key, path.value(), generation);
+        return chain.filter(exchange.mutate().response(capturing).build());
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private Mono<Void> invalidateAfterWrite(ServerWebExchange exchange, GatewayFilterChain chain, PathContainer path) {
+        HttpMethod method = exchange.getRequest().getMethod();
+        if (method == HttpMethod.HEAD || method == HttpMethod.OPTIONS
+                || readOnlyWrites.stream().anyMatch(pattern -> pattern.matches(path))) {
+            return chain.filter(exchange);
+        }
+        String prefix = invalidateOnWrite.stream().filter(path.value()::startsWith).findFirst().orElse(null);
+        if (prefix == null) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange).then(Mono.fromRunnable(() -> {
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            if (status != null && status.is2xxSuccessful()) {
+                cache.invalidate(prefix);
+            }
+        }));
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        cached.headers().forEach(headers::put);
+        headers.set(HttpHeaders.AGE, Long.toString(cached.ageSeconds(System.currentTimeMillis())));
+        headers.set("X-Cache", "HIT");
+        if (matches(exchange.getRequest().getHeaders().getIfNoneMatch(), cached.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private String key(ServerHttpRequest request) {
+        StringBuilder key = new StringBuilder("GET ").append(request.getPath().pathWithinApplication().value());
+        String query = request.getURI().getRawQuery();
+        if (query != null) {
+            key.append('?').append(query);
+        }
+        for (String header : keyHeaders) {
+            List<String> values = request.getHeaders().get(header);
+            key.append('|').append(header).append('=').append(values == null ? "" : String.join(",", values));
+        }
+        return key.toString();
+    }
+
+    private long ttlMillis(HttpStatusCode status, HttpHeaders headers) {
+        if (status == null || status.value() != HttpStatus.OK.value() || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return -1;
+        }
+        long contentLength = headers.getContentLength();
+        if (contentLength > maxBodyBytes) {
+            return -1;
+        }
+        for (String vary : headers.getVary()) {
+            String name = vary.toLowerCase(Locale.ROOT);
+            if (!keyHeaderNames.contains(name) && !name.startsWith("access-control-request-")) {
+                // Varies on something not in the key, e.g. Authorization or *: not shareable
+                return -1;
+            }
+        }
+        Set<String> directives = directives(headers.getCacheControl());
+        if (directives.contains("no-store") || directives.contains("private") || directives.contains("no-cache")) {
+            return -1;
+        }
+        long ttl = seconds(directives, "s-maxage");
+        if (ttl < 0) {
+            ttl = seconds(directives, "max-age");
+        }
+        return ttl < 0 ? defaultTtlMillis : Math.min(ttl * 1000, maxTtlMillis);
+    }
+
+    private static Set<String> directives(String cacheControl) {
+        if (cacheControl == null || cacheControl.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(cacheControl.split(","))
+                .map(directive -> directive.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+    }
+
+    private static long seconds(Set<String> directives, String name) {
+        for (String directive : directives) {
+            if (directive.startsWith(name + "=")) {
+                try {
+                    return Long.parseLong(directive.substring(name.length() + 1).replace("\"", ""));
+                } catch (NumberFormatException e) {
+                    return -1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static boolean matches(List<String> ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch) {
+            if (candidate.equals("*") || strip(candidate).equals(strip(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String strip(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("gateway.responsecache.requests", "outcome", outcome).increment();
+    }
+
+    private class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final String key;
+        private final String path;
+        private final long generation;
+
+        CapturingResponse(ServerHttpResponse delegate, String key, String path, long generation) {
+            super(delegate);
+            this.key = key;
+            this.path = path;
+            this.generation = generation;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpHeaders headers = getHeaders();
+            long ttl = ttlMillis(getStatusCode(), headers);
+            if (ttl <= 0) {
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(body).flatMap(joined -> {
+                byte[] bytes = new byte[joined.readableByteCount()];
+                joined.read(bytes);
+                DataBufferUtils.release(joined);
+                if (bytes.length <= maxBodyBytes) {
+                    if (headers.getETag() == null) {
+                        headers.setETag(etag(bytes));
+                    }
+                    HttpHeaders stored = new HttpHeaders();
+                    for (String name : STORED_HEADERS) {
+                        List<String> values = headers.get(name);
+                        if (values != null) {
+                            stored.put(name, List.copyOf(values));
+                        }
+                    }
+                    long now = System.currentTimeMillis();
+                    cache.put(key, new CachedResponse(path, HttpHeaders.readOnlyHttpHeaders(stored), bytes,
+                            headers.getETag(), now, now + ttl), generation);
+                }
+                headers.set("X-Cache", "MISS");
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            });
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.sj.api_gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+// Not a @Configuration: loaded into each client's context through LoadBalancerConfig.
+public class LeastOutstandingRequestsConfiguration {
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> leastOutstandingRequestsLoadBalancer(
+            Environment environment, LoadBalancerClientFactory clientFactory, OutstandingRequestTracker tracker) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LeastOutstandingRequestsLoadBalancer(
+                clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class), serviceId, tracker);
+    }
+}
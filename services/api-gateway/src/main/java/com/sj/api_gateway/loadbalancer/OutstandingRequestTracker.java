@@ -0,0 +1,34 @@
+package com.sj.api_gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class OutstandingRequestTracker {
+
+    private final Map<String, AtomicInteger> outstanding = new ConcurrentHashMap<>();
+
+    public void started(ServiceInstance instance) {
+        outstanding.computeIfAbsent(key(instance), k -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public void finished(ServiceInstance instance) {
+        AtomicInteger count = outstanding.get(key(instance));
+        if (count != null) {
+            count.updateAndGet(value -> Math.max(0, value - 1));
+        }
+    }
+
+    public int outstanding(ServiceInstance instance) {
+        AtomicInteger count = outstanding.get(key(instance));
+        return count == null ? 0 : count.get();
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+}
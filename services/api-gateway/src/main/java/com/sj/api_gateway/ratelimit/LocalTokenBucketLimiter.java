@@ -0,0 +1,88 @@
+package com.sj.api_gateway.ratelimit;
+
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Per-instance token buckets, each swapped with compare-and-set.
+ */
+@Component
+public class LocalTokenBucketLimiter implements TokenBucketLimiter {
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final int maxBuckets;
+
+    public LocalTokenBucketLimiter(RateLimitProperties properties) {
+        this.maxBuckets = properties.maxBuckets();
+    }
+
+    @Override
+    public Mono<RateLimitDecision> tryConsume(String key, RateLimitProperties.Policy policy) {
+        return Mono.just(consume(key, policy));
+    }
+
+    RateLimitDecision consume(String key, RateLimitProperties.Policy policy) {
+        long now = System.nanoTime();
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxBuckets) {
+                evictIdle(now);
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket(policy.capacity(), policy.refillPerSecond(), now));
+        }
+        return bucket.tryConsume(now);
+    }
+
+    private void evictIdle(long now) {
+        // A bucket that has refilled completely behaves exactly like a new one, so dropping it loses nothing
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+        Iterator<String> iterator = buckets.keySet().iterator();
+        for (int i = maxBuckets / 10; buckets.size() >= maxBuckets && i > 0 && iterator.hasNext(); i--) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static final class Bucket {
+
+        private final double capacity;
+        private final double tokensPerNano;
+        private final AtomicReference<State> state;
+
+        Bucket(int capacity, double refillPerSecond, long now) {
+            this.capacity = capacity;
+            this.tokensPerNano = refillPerSecond / 1_000_000_000d;
+            this.state = new AtomicReference<>(new State(capacity, now));
+        }
+
+        RateLimitDecision tryConsume(long now) {
+            while (true) {
+                State current = state.get();
+                double tokens = available(current, now);
+                if (tokens < 1) {
+                    return RateLimitDecision.refuse((long) Math.ceil((1 - tokens) / tokensPerNano / 1_000_000d));
+                }
+                if (state.compareAndSet(current, new State(tokens - 1, Math.max(now, current.refilledAt())))) {
+                    return RateLimitDecision.allow((long) (tokens - 1));
+                }
+            }
+        }
+
+        boolean isFull(long now) {
+            return available(state.get(), now) >= capacity;
+        }
+
+        private double available(State current, long now) {
+            long elapsed = Math.max(0, now - current.refilledAt());
+            return Math.min(capacity, current.tokens() + elapsed * tokensPerNano);
+        }
+    }
+
+    private record State(double tokens, long refilledAt) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.sj.api_gateway.ratelimit;
+
+public record RateLimitDecision(boolean allowed, long remaining, long retryAfterMillis) {
+
+    static RateLimitDecision allow(long remaining) {
+        return new RateLimitDecision(true, remaining, 0);
+    }
+
+    static RateLimitDecision refuse(long retryAfterMillis) {
+        return new RateLimitDecision(false, 0, retryAfterMillis);
+    }
+}
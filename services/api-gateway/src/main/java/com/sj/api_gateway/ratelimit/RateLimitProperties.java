@@ -0,0 +1,23 @@
+package com.sj.api_gateway.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+@ConfigurationProperties("gateway.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("0") int trustedProxies,
+        @DefaultValue("100000") int maxBuckets,
+        @DefaultValue List<Policy> policies) {
+
+    public enum KeyType {
+        USER,
+        IP
+    }
+
+    public record Policy(String name, String path, @DefaultValue("USER") KeyType key,
+                         int capacity, double refillPerSecond) {
+    }
+}
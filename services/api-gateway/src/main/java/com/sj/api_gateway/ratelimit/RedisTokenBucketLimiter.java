@@ -0,0 +1,57 @@
+package com.sj.api_gateway.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Token buckets shared through Redis. Falls back to the local buckets when Redis is unreachable.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "gateway.rate-limit.mode", havingValue = "redis")
+public class RedisTokenBucketLimiter implements TokenBucketLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisTokenBucketLimiter.class);
+    private static final String KEY_PREFIX = "gateway:rate-limit:";
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/token_bucket.lua"), List.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final LocalTokenBucketLimiter fallback;
+
+    public RedisTokenBucketLimiter(ReactiveStringRedisTemplate redisTemplate, LocalTokenBucketLimiter fallback) {
+        this.redisTemplate = redisTemplate;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public Mono<RateLimitDecision> tryConsume(String key, RateLimitProperties.Policy policy) {
+        List<String> args = List.of(Integer.toString(policy.capacity()), Double.toString(policy.refillPerSecond()));
+        return redisTemplate.execute(SCRIPT, List.of(KEY_PREFIX + key), args)
+                .next()
+                .map(RedisTokenBucketLimiter::toDecision)
+                .onErrorResume(e -> {
+                    logger.warn("Redis rate limiter unavailable, using local buckets: {}", e.getMessage());
+                    return fallback.tryConsume(key, policy);
+                });
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static RateLimitDecision toDecision(List result) {
+        long allowed = ((Number) result.get(0)).longValue();
+        long remaining = ((Number) result.get(1)).longValue();
+        long retryAfterMillis = ((Number) result.get(2)).longValue();
+        return allowed == 1 ? RateLimitDecision.allow(remaining) : RateLimitDecision.refuse(retryAfterMillis);
+    }
+}
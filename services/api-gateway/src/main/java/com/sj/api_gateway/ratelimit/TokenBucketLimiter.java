@@ -0,0 +1,8 @@
+package com.sj.api_gateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+public interface TokenBucketLimiter {
+
+    Mono<RateLimitDecision> tryConsume(String key, RateLimitProperties.Policy policy);
+}
@@ -0,0 +1,75 @@
+package com.sj.api_gateway.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Signs the caller's verified claims for downstream services. {@code GatewayAuthHeaders} in order-service and
+ * product-service verifies them; change the names or the signed payload in all three together.
+ */
+@Component
+public class InternalAuthHeaders {
+
+    public static final String SUBJECT = "X-Auth-Subject";
+    public static final String USER_ID = "X-Auth-User-Id";
+    public static final String SELLER_ID = "X-Auth-Seller-Id";
+    public static final String ROLE = "X-Auth-Role";
+    public static final String TIMESTAMP = "X-Auth-Timestamp";
+    public static final String SIGNATURE = "X-Auth-Signature";
+
+    private static final List<String> ALL = List.of(SUBJECT, USER_ID, SELLER_ID, ROLE, TIMESTAMP, SIGNATURE);
+
+    private final SecretKeySpec key;
+
+    public InternalAuthHeaders(@Value("${gateway.internal-auth.secret:${jwt.secret}}") String secret) {
+        if (secret == null || secret.trim().isEmpty()) {
+            throw new IllegalStateException("Internal auth secret not set! Please check your environment or config.");
+        }
+        this.key = new SecretKeySpec(Base64.getDecoder().decode(secret), "HmacSHA256");
+    }
+
+    public void strip(HttpHeaders headers) {
+        ALL.forEach(headers::remove);
+    }
+
+    public void write(HttpHeaders headers, VerifiedClaims claims) {
+        String timestamp = Long.toString(System.currentTimeMillis());
+        set(headers, SUBJECT, claims.subject());
+        set(headers, USER_ID, claims.userId());
+        set(headers, SELLER_ID, claims.sellerId());
+        set(headers, ROLE, claims.role());
+        headers.set(TIMESTAMP, timestamp);
+        headers.set(SIGNATURE, sign(claims, timestamp));
+    }
+
+    private String sign(VerifiedClaims claims, String timestamp) {
+        String payload = String.join("\n", nullToEmpty(claims.subject()), nullToEmpty(claims.userId()),
+                nullToEmpty(claims.sellerId()), nullToEmpty(claims.role()), timestamp);
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign internal auth headers", e);
+        }
+    }
+
+    private static void set(HttpHeaders headers, String name, String value) {
+        if (value != null) {
+            headers.set(name, value);
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,95 @@
+package com.sj.api_gateway.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class TokenVerifier {
+
+    private final Map<String, Entry> verified = new ConcurrentHashMap<>();
+    private final SecretKey key;
+
+    @Value("${gateway.token-cache.max-entries:50000}")
+    private int maxEntries;
+
+    public TokenVerifier(@Value("${jwt.secret}") String secret) {
+        if (secret == null || secret.trim().isEmpty()) {
+            throw new IllegalStateException("JWT secret not set! Please check your environment or config.");
+        }
+        this.key = Keys.hmacShaKeyFor(Base64.getDecoder().decode(secret));
+    }
+
+    public Optional<VerifiedClaims> verify(String token) {
+        String hash = hash(token);
+        long now = System.currentTimeMillis();
+        Entry entry = verified.get(hash);
+        if (entry != null) {
+            if (entry.expiresAt() > now) {
+                return Optional.of(entry.claims());
+            }
+            verified.remove(hash, entry);
+        }
+
+        Claims claims;
+        try {
+            claims = Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        Date expiration = claims.getExpiration();
+        if (claims.getSubject() == null || expiration == null) {
+            // Without an expiry there is nothing to bound the cache entry by; such tokens are not issued here
+            return Optional.empty();
+        }
+        VerifiedClaims result = new VerifiedClaims(claims.getSubject(), stringClaim(claims, "userId"),
+                stringClaim(claims, "sellerId"), stringClaim(claims, "role"));
+        if (verified.size() >= maxEntries) {
+            evictExpired(now);
+        }
+        verified.put(hash, new Entry(result, expiration.getTime()));
+        return Optional.of(result);
+    }
+
+    private void evictExpired(long now) {
+        verified.values().removeIf(entry -> entry.expiresAt() <= now);
+        // Still full of live tokens: drop an arbitrary slice, they are simply verified again next time
+        Iterator<String> iterator = verified.keySet().iterator();
+        for (int i = maxEntries / 10; verified.size() >= maxEntries && i > 0 && iterator.hasNext(); i--) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static String stringClaim(Claims claims, String name) {
+        Object value = claims.get(name);
+        return value == null ? null : value.toString();
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Entry(VerifiedClaims claims, long expiresAt) {
+    }
+}
@@ -0,0 +1,4 @@
+package com.sj.api_gateway.security;
+
+public record VerifiedClaims(String subject, String userId, String sellerId, String role) {
+}
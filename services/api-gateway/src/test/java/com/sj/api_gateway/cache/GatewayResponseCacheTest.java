@@ -0,0 +1,58 @@
+package com.sj.api_gateway.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GatewayResponseCacheTest {
+
+    private final GatewayResponseCache cache = new GatewayResponseCache(new ResponseCacheProperties(true, List.of(),
+            List.of(), List.of(), List.of(), Duration.ofSeconds(30), Duration.ofMinutes(5), 100, 1024));
+
+    @Test
+    void doesNotStoreAResponseFetchedBeforeAnInvalidation() {
+        long generation = cache.generation();
+        cache.invalidate("/api/v1/products");
+
+        cache.put("GET /api/v1/products/1", response("/api/v1/products/1", 60_000), generation);
+
+        assertThat(cache.get("GET /api/v1/products/1")).isNull();
+    }
+
+    @Test
+    void invalidatesOnlyEntriesBelowThePrefix() {
+        cache.put("GET /api/v1/products/1", response("/api/v1/products/1", 60_000), cache.generation());
+        cache.put("GET /api/v1/categories", response("/api/v1/categories", 60_000), cache.generation());
+
+        assertThat(cache.invalidate("/api/v1/products")).isEqualTo(1);
+
+        assertThat(cache.get("GET /api/v1/products/1")).isNull();
+        assertThat(cache.get("GET /api/v1/categories")).isNotNull();
+    }
+
+    @Test
+    void dropsExpiredEntriesOnRead() {
+        cache.put("GET /api/v1/categories", response("/api/v1/categories", -1), cache.generation());
+
+        assertThat(cache.get("GET /api/v1/categories")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void staysWithinMaxEntries() {
+        for (int i = 0; i < 500; i++) {
+            cache.put("GET /api/v1/products/" + i, response("/api/v1/products/" + i, 60_000), cache.generation());
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+    }
+
+    private CachedResponse response(String path, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        return new CachedResponse(path, new HttpHeaders(), new byte[]{1}, "\"etag\"", now, now + ttlMillis);
+    }
+}
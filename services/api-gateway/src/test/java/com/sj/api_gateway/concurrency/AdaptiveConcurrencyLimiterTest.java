@@ -0,0 +1,82 @@
+package com.sj.api_gateway.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(new ConcurrencyLimitProperties(
+            true, 20, 5, 500, 1.5, 0.2, 0.9, 10, 0.8, List.of(), List.of()));
+
+    @Test
+    void keepsTheRestOfTheLimitForCriticalRequests() {
+        for (int i = 0; i < 16; i++) {
+            assertThat(limiter.tryAcquire(0.8)).isPositive();
+        }
+
+        assertThat(limiter.tryAcquire(0.8)).isEqualTo(-1);
+        assertThat(limiter.tryAcquire(1.0)).isEqualTo(17);
+    }
+
+    @Test
+    void growsWhileLatencyHolds() {
+        runWindow(10, 10);
+
+        assertThat(limiter.getLimit()).isGreaterThan(20);
+    }
+
+    @Test
+    void shrinksWhenLatencyClimbs() {
+        runWindow(10, 10);
+        double grown = limiter.getLimit();
+
+        runWindow(11, 100);
+
+        assertThat(limiter.getLimit()).isLessThan(grown);
+    }
+
+    @Test
+    void backsOffAfterAWindowWithTimeouts() {
+        for (int i = 1; i <= 10; i++) {
+            limiter.tryAcquire(1.0);
+        }
+        for (int i = 1; i <= 10; i++) {
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(10), i, i == 10);
+        }
+
+        assertThat(limiter.getLimit()).isCloseTo(18.0, within(1e-9));
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void learnsNothingFromWindowsFarBelowTheLimit() {
+        runWindow(1, 10);
+
+        assertThat(limiter.getLimit()).isEqualTo(20.0);
+    }
+
+    @Test
+    void neverShrinksBelowTheMinimum() {
+        for (int window = 0; window < 50; window++) {
+            for (int i = 1; i <= 10; i++) {
+                limiter.tryAcquire(1.0);
+                limiter.release(TimeUnit.MILLISECONDS.toNanos(10), 20, true);
+            }
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(5.0);
+    }
+
+    // One full window of requests that each saw the given concurrency and latency
+    private void runWindow(int concurrency, long rttMillis) {
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire(1.0);
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(rttMillis), concurrency, false);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.sj.api_gateway.filter;
+
+import com.sj.api_gateway.security.VerifiedClaims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CoalesceGatewayFilterFactoryTest {
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final Sinks.Empty<Void> release = Sinks.empty();
+    private final CoalesceGatewayFilterFactory factory = new CoalesceGatewayFilterFactory(new SimpleMeterRegistry());
+    private CoalesceGatewayFilterFactory.Config config;
+
+    @BeforeEach
+    void setUp() {
+        config = new CoalesceGatewayFilterFactory.Config();
+        config.setShareAcrossUsers(true);
+    }
+
+    @Test
+    void sendsConcurrentIdenticalRequestsUpstreamOnce() {
+        GatewayFilter filter = factory.apply(config);
+        GatewayFilterChain upstream = upstream(null, null);
+        MockServerWebExchange leader = get("alice");
+        MockServerWebExchange follower = get("bob");
+
+        CompletableFuture<Void> leading = filter.filter(leader, upstream).toFuture();
+        CompletableFuture<Void> following = filter.filter(follower, upstream).toFuture();
+        release.tryEmitEmpty();
+        CompletableFuture.allOf(leading, following).join();
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(follower.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(follower.getResponse().getBodyAsString().block()).isEqualTo("{\"id\":1}");
+        assertThat(follower.getResponse().getHeaders().getFirst("X-Coalesced")).isEqualTo("true");
+    }
+
+    @Test
+    void keepsUsersApartUnlessTheRouteSharesAcrossThem() {
+        config.setShareAcrossUsers(false);
+        GatewayFilter filter = factory.apply(config);
+        GatewayFilterChain upstream = upstream(null, null);
+
+        CompletableFuture<Void> alice = filter.filter(get("alice"), upstream).toFuture();
+        CompletableFuture<Void> bob = filter.filter(get("bob"), upstream).toFuture();
+        release.tryEmitEmpty();
+        CompletableFuture.allOf(alice, bob).join();
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void letsWaitersCallThemselvesWhenTheResponseCannotBeShared() {
+        GatewayFilter filter = factory.apply(config);
+        GatewayFilterChain upstream = upstream(HttpHeaders.SET_COOKIE, null);
+
+        CompletableFuture<Void> leading = filter.filter(get("alice"), upstream).toFuture();
+        CompletableFuture<Void> following = filter.filter(get("bob"), upstream).toFuture();
+        release.tryEmitEmpty();
+        CompletableFuture.allOf(leading, following).join();
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void passesTheLeadingErrorToWaiters() {
+        GatewayFilter filter = factory.apply(config);
+        GatewayFilterChain upstream = upstream(null, new IllegalStateException("upstream down"));
+
+        CompletableFuture<Void> leading = filter.filter(get("alice"), upstream).toFuture();
+        CompletableFuture<Void> following = filter.filter(get("bob"), upstream).toFuture();
+        release.tryEmitEmpty();
+
+        assertThatThrownBy(following::join).isInstanceOf(CompletionException.class)
+                .hasRootCauseMessage("upstream down");
+        assertThatThrownBy(leading::join).isInstanceOf(CompletionException.class);
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void sendsOverflowingWaitersUpstream() {
+        config.setMaxWaiters(0);
+        GatewayFilter filter = factory.apply(config);
+        GatewayFilterChain upstream = upstream(null, null);
+
+        CompletableFuture<Void> leading = filter.filter(get("alice"), upstream).toFuture();
+        CompletableFuture<Void> following = filter.filter(get("bob"), upstream).toFuture();
+        release.tryEmitEmpty();
+        CompletableFuture.allOf(leading, following).join();
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    private MockServerWebExchange get(String subject) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/products/1"));
+        exchange.getAttributes().put(JwtAuthenticationFilter.CLAIMS_ATTRIBUTE,
+                new VerifiedClaims(subject, subject, null, "CUSTOMER"));
+        return exchange;
+    }
+
+    // Holds every upstream call until the test releases them, so the requests overlap
+    private GatewayFilterChain upstream(String extraHeader, RuntimeException failure) {
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            return release.asMono().then(Mono.defer(() -> {
+                if (failure != null) {
+                    return Mono.error(failure);
+                }
+                ServerHttpResponse response = exchange.getResponse();
+                response.setStatusCode(HttpStatus.OK);
+                if (extraHeader != null) {
+                    response.getHeaders().add(extraHeader, "session=1");
+                }
+                return response.writeWith(Mono.just(response.bufferFactory()
+                        .wrap("{\"id\":1}".getBytes(StandardCharsets.UTF_8))));
+            }));
+        };
+    }
+}
@@ -0,0 +1,115 @@
+package com.sj.api_gateway.filter;
+
+import com.sj.api_gateway.concurrency.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Sinks.Empty<Void> release = Sinks.empty();
+    // Every call stays in flight until the test releases it
+    private final GatewayFilterChain held = exchange -> release.asMono();
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new ConcurrencyLimitFilter(new ConcurrencyLimitProperties(true, 6, 5, 500, 1.5, 0.2, 0.9, 50, 0.5,
+                List.of(new ConcurrencyLimitProperties.PriorityRule("/api/orders", List.of("POST"),
+                        ConcurrencyLimitProperties.Priority.CRITICAL)),
+                List.of("order-service-stream")), meterRegistry);
+    }
+
+    @Test
+    void shedsNormalRequestsOnceTheirShareIsTakenButAdmitsCriticalOnes() {
+        for (int i = 0; i < 3; i++) {
+            filter.filter(get("order-service", "/api/orders/1"), held).subscribe();
+        }
+        MockServerWebExchange shed = get("order-service", "/api/orders/1");
+        MockServerWebExchange checkout = exchange("order-service", MockServerHttpRequest.post("/api/orders"));
+
+        filter.filter(shed, held).subscribe();
+        filter.filter(checkout, held).subscribe();
+
+        assertThat(shed.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(shed.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(checkout.getResponse().getStatusCode()).isNull();
+        assertThat(inFlight("order-service")).isEqualTo(4);
+    }
+
+    @Test
+    void limitsEachRouteSeparately() {
+        for (int i = 0; i < 3; i++) {
+            filter.filter(get("product-service", "/api/v1/products"), held).subscribe();
+        }
+        MockServerWebExchange other = get("order-service", "/api/orders/1");
+
+        filter.filter(other, held).subscribe();
+
+        assertThat(other.getResponse().getStatusCode()).isNull();
+    }
+
+    @Test
+    void neverLimitsExemptRoutes() {
+        for (int i = 0; i < 10; i++) {
+            MockServerWebExchange stream = get("order-service-stream", "/api/orders/1/status/stream");
+            filter.filter(stream, held).subscribe();
+            assertThat(stream.getResponse().getStatusCode()).isNull();
+        }
+    }
+
+    @Test
+    void returnsSlotsWhenRequestsFinishOrAreCancelled() {
+        filter.filter(get("order-service", "/api/orders/1"), held).subscribe();
+        Disposable cancelled = filter.filter(get("order-service", "/api/orders/2"), held).subscribe();
+        assertThat(inFlight("order-service")).isEqualTo(2);
+
+        cancelled.dispose();
+        assertThat(inFlight("order-service")).isEqualTo(1);
+        release.tryEmitEmpty();
+
+        assertThat(inFlight("order-service")).isZero();
+    }
+
+    @Test
+    void passesThroughWhenNoRouteMatched() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/unknown"));
+
+        filter.filter(exchange, ignored -> Mono.empty()).block();
+
+        assertThat(exchange.getResponse().getStatusCode()).isNull();
+    }
+
+    private MockServerWebExchange get(String routeId, String path) {
+        return exchange(routeId, MockServerHttpRequest.get(path));
+    }
+
+    private MockServerWebExchange exchange(String routeId, MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, Route.async()
+                .id(routeId)
+                .uri("lb://" + routeId)
+                .predicate(candidate -> true)
+                .build());
+        return exchange;
+    }
+
+    private double inFlight(String routeId) {
+        return meterRegistry.get("gateway.concurrency.inflight").tag("route", routeId).gauge().value();
+    }
+}
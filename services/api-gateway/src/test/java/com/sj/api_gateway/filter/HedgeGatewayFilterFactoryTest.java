@@ -0,0 +1,109 @@
+package com.sj.api_gateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HedgeGatewayFilterFactoryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger attempts = new AtomicInteger();
+    private GatewayFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        HedgeGatewayFilterFactory.Config config = new HedgeGatewayFilterFactory.Config();
+        config.setInitialDelay(Duration.ofMillis(50));
+        filter = new HedgeGatewayFilterFactory(meterRegistry).apply(config);
+    }
+
+    @Test
+    void usesTheHedgeWhenTheFirstAttemptIsSlow() {
+        MockServerWebExchange exchange = get();
+
+        filter.filter(exchange, upstream(Duration.ofSeconds(2), Duration.ZERO)).block(Duration.ofSeconds(1));
+
+        assertThat(attempts).hasValue(2);
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-Attempt")).isEqualTo("2");
+        assertThat(meterRegistry.counter("gateway.hedge.wins", "route", "none").count()).isEqualTo(1);
+    }
+
+    @Test
+    void sendsNoHedgeWhenTheFirstAttemptAnswersInTime() {
+        MockServerWebExchange exchange = get();
+
+        filter.filter(exchange, upstream(Duration.ZERO, Duration.ZERO)).block(Duration.ofSeconds(1));
+
+        assertThat(attempts).hasValue(1);
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-Attempt")).isEqualTo("1");
+        assertThat(meterRegistry.counter("gateway.hedge.sent", "route", "none").count()).isZero();
+    }
+
+    @Test
+    void reportsTheUpstreamErrorWhenBothAttemptsFail() {
+        GatewayFilterChain failing = exchange -> {
+            attempts.incrementAndGet();
+            return Mono.error(new IllegalStateException("upstream down"));
+        };
+
+        assertThatThrownBy(() -> filter.filter(get(), failing).block(Duration.ofSeconds(1)))
+                .hasMessage("upstream down");
+    }
+
+    @Test
+    void countsAPrimaryOutrunByItsHedgeAsSlowAsTheMaximumDelay() {
+        HedgeGatewayFilterFactory.Config config = new HedgeGatewayFilterFactory.Config();
+        config.setInitialDelay(Duration.ofMillis(20));
+        config.setMaxDelay(Duration.ofMillis(500));
+        config.setWindowSize(64);
+        filter = new HedgeGatewayFilterFactory(meterRegistry).apply(config);
+        for (int i = 0; i < 64; i++) {
+            attempts.set(0);
+            filter.filter(get(), upstream(Duration.ofSeconds(2), Duration.ZERO)).block(Duration.ofSeconds(1));
+        }
+
+        // Had only the winning hedges been recorded, the delay would have settled near 20 ms
+        attempts.set(0);
+        MockServerWebExchange exchange = get();
+        filter.filter(exchange, upstream(Duration.ofMillis(200), Duration.ZERO)).block(Duration.ofSeconds(1));
+
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-Attempt")).isEqualTo("1");
+    }
+
+    @Test
+    void neverHedgesWrites() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/api/orders"));
+
+        filter.filter(exchange, upstream(Duration.ofMillis(200), Duration.ZERO)).block(Duration.ofSeconds(1));
+
+        assertThat(attempts).hasValue(1);
+    }
+
+    private MockServerWebExchange get() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/orders/1/status"));
+    }
+
+    // Answers the first call after firstDelay and any later call after hedgeDelay, tagging which one won
+    private GatewayFilterChain upstream(Duration firstDelay, Duration hedgeDelay) {
+        return exchange -> {
+            int attempt = attempts.incrementAndGet();
+            return Mono.delay(attempt == 1 ? firstDelay : hedgeDelay).then(Mono.fromRunnable(() -> {
+                exchange.getResponse().setStatusCode(HttpStatus.OK);
+                exchange.getResponse().getHeaders().set("X-Attempt", Integer.toString(attempt));
+            }));
+        };
+    }
+}
@@ -0,0 +1,74 @@
+package com.sj.api_gateway.filter;
+
+import com.sj.api_gateway.security.InternalAuthHeaders;
+import com.sj.api_gateway.security.TokenVerifier;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtAuthenticationFilterTest {
+
+    private final TokenVerifier tokenVerifier = mock(TokenVerifier.class);
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(tokenVerifier,
+            new InternalAuthHeaders(Base64.getEncoder().encodeToString(new byte[32])),
+            List.of("/api/v1/products/search"));
+    private final AtomicReference<ServerWebExchange> forwarded = new AtomicReference<>();
+    private final GatewayFilterChain chain = exchange -> {
+        forwarded.set(exchange);
+        return Mono.empty();
+    };
+
+    @Test
+    void forwardsAnonymousCatalogReadsWithoutAnIdentity() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .get("/api/v1/products/search?q=lamp")
+                .header(InternalAuthHeaders.ROLE, "ADMIN"));
+
+        filter.filter(exchange, chain).block();
+
+        assertThat(forwarded.get()).isNotNull();
+        assertThat(forwarded.get().getRequest().getHeaders().containsKey(InternalAuthHeaders.ROLE)).isFalse();
+        assertThat(forwarded.get().<Object>getAttribute(JwtAuthenticationFilter.CLAIMS_ATTRIBUTE)).isNull();
+    }
+
+    @Test
+    void stillRequiresATokenEverywhereElse() {
+        MockServerWebExchange orders = MockServerWebExchange.from(MockServerHttpRequest.get("/api/orders/1"));
+        MockServerWebExchange write = MockServerWebExchange.from(MockServerHttpRequest.post("/api/v1/products/search"));
+
+        filter.filter(orders, chain).block();
+        filter.filter(write, chain).block();
+
+        assertThat(orders.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(write.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(forwarded.get()).isNull();
+    }
+
+    @Test
+    void rejectsABadTokenEvenOnAnAnonymousPath() {
+        when(tokenVerifier.verify(anyString())).thenReturn(Optional.empty());
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .get("/api/v1/products/search")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer expired"));
+
+        filter.filter(exchange, chain).block();
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(forwarded.get()).isNull();
+    }
+}
@@ -0,0 +1,99 @@
+package com.sj.api_gateway.filter;
+
+import com.sj.api_gateway.ratelimit.LocalTokenBucketLimiter;
+import com.sj.api_gateway.ratelimit.RateLimitProperties;
+import com.sj.api_gateway.security.VerifiedClaims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger forwarded = new AtomicInteger();
+    private final GatewayFilterChain chain = exchange -> {
+        forwarded.incrementAndGet();
+        return Mono.empty();
+    };
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties(true, 0, 1000, List.of(
+                new RateLimitProperties.Policy("login", "/api/v1/auth/**", RateLimitProperties.KeyType.IP, 1, 0.001),
+                new RateLimitProperties.Policy("api", "/api/**", RateLimitProperties.KeyType.USER, 2, 0.001)));
+        filter = new RateLimitFilter(new LocalTokenBucketLimiter(properties), meterRegistry, properties);
+    }
+
+    @Test
+    void refusesOverTheLimitWithRetryAfter() {
+        filter.filter(request("/api/orders", "10.0.0.1", null), chain).block();
+        filter.filter(request("/api/orders", "10.0.0.1", null), chain).block();
+        MockServerWebExchange refused = request("/api/orders", "10.0.0.1", null);
+
+        filter.filter(refused, chain).block();
+
+        assertThat(forwarded).hasValue(2);
+        assertThat(refused.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(refused.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isNotNull();
+        assertThat(refused.getResponse().getHeaders().getFirst("X-RateLimit-Remaining")).isEqualTo("0");
+        assertThat(meterRegistry.counter("gateway.ratelimit.requests",
+                "route", "none", "policy", "api", "outcome", "throttled").count()).isEqualTo(1);
+    }
+
+    @Test
+    void usesTheFirstMatchingPolicy() {
+        filter.filter(request("/api/v1/auth/login", "10.0.0.1", null), chain).block();
+        MockServerWebExchange second = request("/api/v1/auth/login", "10.0.0.1", null);
+
+        filter.filter(second, chain).block();
+
+        assertThat(second.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(second.getResponse().getHeaders().getFirst("X-RateLimit-Limit")).isEqualTo("1");
+    }
+
+    @Test
+    void limitsAuthenticatedCallersPerUserRatherThanPerAddress() {
+        for (int i = 0; i < 2; i++) {
+            filter.filter(request("/api/orders", "10.0.0.1", "alice"), chain).block();
+        }
+        MockServerWebExchange otherUser = request("/api/orders", "10.0.0.1", "bob");
+
+        filter.filter(otherUser, chain).block();
+
+        assertThat(otherUser.getResponse().getStatusCode()).isNull();
+        assertThat(forwarded).hasValue(3);
+    }
+
+    @Test
+    void letsUnmatchedPathsThrough() {
+        for (int i = 0; i < 5; i++) {
+            filter.filter(request("/actuator/health", "10.0.0.1", null), chain).block();
+        }
+
+        assertThat(forwarded).hasValue(5);
+    }
+
+    private MockServerWebExchange request(String path, String address, String subject) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path)
+                .remoteAddress(new InetSocketAddress(address, 40000)));
+        if (subject != null) {
+            exchange.getAttributes().put(JwtAuthenticationFilter.CLAIMS_ATTRIBUTE,
+                    new VerifiedClaims(subject, subject, null, "CUSTOMER"));
+        }
+        return exchange;
+    }
+}
@@ -0,0 +1,129 @@
+package com.sj.api_gateway.filter;
+
+import com.sj.api_gateway.cache.GatewayResponseCache;
+import com.sj.api_gateway.cache.ResponseCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheFilterTest {
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private GatewayResponseCache cache;
+    private ResponseCacheFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        ResponseCacheProperties properties = new ResponseCacheProperties(true, List.of("/api/v1/products/{id}"),
+                List.of(HttpHeaders.ACCEPT), List.of("/api/v1/products"), List.of("/api/v1/products/prices"),
+                Duration.ofSeconds(30), Duration.ofMinutes(5), 100, 1024);
+        cache = new GatewayResponseCache(properties);
+        filter = new ResponseCacheFilter(cache, new SimpleMeterRegistry(), properties);
+    }
+
+    @Test
+    void servesTheNextRequestFromTheStoredResponse() {
+        GatewayFilterChain upstream = upstream(HttpStatus.OK, "{\"id\":1}", headers -> headers.setCacheControl("max-age=60"));
+        MockServerWebExchange first = get("/api/v1/products/1");
+        filter.filter(first, upstream).block();
+        MockServerWebExchange second = get("/api/v1/products/1");
+
+        filter.filter(second, upstream).block();
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(first.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+        assertThat(second.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo("{\"id\":1}");
+        assertThat(second.getResponse().getHeaders().getETag())
+                .isEqualTo(first.getResponse().getHeaders().getETag());
+    }
+
+    @Test
+    void answersAMatchingIfNoneMatchWithNotModified() {
+        GatewayFilterChain upstream = upstream(HttpStatus.OK, "{}", headers -> headers.setETag("\"v1\""));
+        filter.filter(get("/api/v1/products/1"), upstream).block();
+        MockServerWebExchange conditional = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/products/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"v1\""));
+
+        filter.filter(conditional, upstream).block();
+
+        assertThat(conditional.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void keepsPrivateAndPerCallerResponsesOut() {
+        filter.filter(get("/api/v1/products/1"), upstream(HttpStatus.OK, "{}",
+                headers -> headers.setCacheControl("private, max-age=60"))).block();
+        filter.filter(get("/api/v1/products/2"), upstream(HttpStatus.OK, "{}",
+                headers -> headers.add(HttpHeaders.SET_COOKIE, "session=1"))).block();
+        filter.filter(get("/api/v1/products/3"), upstream(HttpStatus.OK, "{}",
+                headers -> headers.setVary(List.of(HttpHeaders.AUTHORIZATION)))).block();
+        filter.filter(get("/api/v1/products/4"), upstream(HttpStatus.NOT_FOUND, "{}", headers -> {
+        })).block();
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void keysOnTheConfiguredHeaders() {
+        GatewayFilterChain upstream = upstream(HttpStatus.OK, "{}", headers -> {
+        });
+        filter.filter(get("/api/v1/products/1"), upstream).block();
+
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/products/1")
+                .header(HttpHeaders.ACCEPT, "application/xml")), upstream).block();
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void evictsAfterASuccessfulWriteButNotAfterAFailedOne() {
+        filter.filter(get("/api/v1/products/1"), upstream(HttpStatus.OK, "{}", headers -> {
+        })).block();
+
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.put("/api/v1/products/1")),
+                upstream(HttpStatus.BAD_REQUEST, "{}", headers -> {
+                })).block();
+        assertThat(cache.size()).isEqualTo(1);
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.post("/api/v1/products/prices")),
+                upstream(HttpStatus.OK, "{}", headers -> {
+                })).block();
+        assertThat(cache.size()).isEqualTo(1);
+
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.put("/api/v1/products/1")),
+                upstream(HttpStatus.OK, "{}", headers -> {
+                })).block();
+        assertThat(cache.size()).isZero();
+    }
+
+    private MockServerWebExchange get(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path));
+    }
+
+    private GatewayFilterChain upstream(HttpStatus status, String body, Consumer<HttpHeaders> headers) {
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(status);
+            headers.accept(response.getHeaders());
+            return response.writeWith(Mono.just(response.bufferFactory()
+                    .wrap(body.getBytes(StandardCharsets.UTF_8))));
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package com.sj.api_gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalTokenBucketLimiterTest {
+
+    @Test
+    void allowsABurstUpToCapacityThenRefuses() {
+        RateLimitProperties.Policy policy = policy(3, 0.5);
+        LocalTokenBucketLimiter limiter = limiter(100, policy);
+
+        assertThat(limiter.consume("user:a", policy).remaining()).isEqualTo(2);
+        assertThat(limiter.consume("user:a", policy).remaining()).isEqualTo(1);
+        assertThat(limiter.consume("user:a", policy).remaining()).isZero();
+        RateLimitDecision refused = limiter.consume("user:a", policy);
+
+        assertThat(refused.allowed()).isFalse();
+        assertThat(refused.retryAfterMillis()).isBetween(1L, 2000L);
+        assertThat(limiter.consume("user:b", policy).allowed()).isTrue();
+    }
+
+    @Test
+    void refillsAtTheSustainedRate() throws Exception {
+        RateLimitProperties.Policy policy = policy(1, 1000);
+        LocalTokenBucketLimiter limiter = limiter(100, policy);
+
+        assertThat(limiter.consume("user:a", policy).allowed()).isTrue();
+        Thread.sleep(10);
+
+        assertThat(limiter.consume("user:a", policy).allowed()).isTrue();
+    }
+
+    @Test
+    void neverAllowsMoreThanCapacityUnderContention() throws Exception {
+        RateLimitProperties.Policy policy = policy(50, 0.001);
+        LocalTokenBucketLimiter limiter = limiter(100, policy);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> workers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            workers.add(callers.submit(() -> {
+                int allowed = 0;
+                for (int j = 0; j < 100; j++) {
+                    allowed += limiter.consume("user:a", policy).allowed() ? 1 : 0;
+                }
+                return allowed;
+            }));
+        }
+        int allowed = 0;
+        for (Future<Integer> worker : workers) {
+            allowed += worker.get();
+        }
+        callers.shutdown();
+
+        assertThat(allowed).isEqualTo(50);
+    }
+
+    @Test
+    void staysWithinTheBucketBoundWhenKeysKeepChanging() {
+        RateLimitProperties.Policy policy = policy(5, 0.001);
+        LocalTokenBucketLimiter limiter = limiter(10, policy);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.consume("ip:10.0.0." + i, policy).allowed()).isTrue();
+        }
+
+        Map<?, ?> buckets = (Map<?, ?>) ReflectionTestUtils.getField(limiter, "buckets");
+        assertThat(buckets).hasSizeLessThanOrEqualTo(10);
+    }
+
+    private LocalTokenBucketLimiter limiter(int maxBuckets, RateLimitProperties.Policy policy) {
+        return new LocalTokenBucketLimiter(new RateLimitProperties(true, 0, maxBuckets, List.of(policy)));
+    }
+
+    private RateLimitProperties.Policy policy(int capacity, double refillPerSecond) {
+        return new RateLimitProperties.Policy("api", "/api/**", RateLimitProperties.KeyType.USER,
+                capacity, refillPerSecond);
+    }
+}
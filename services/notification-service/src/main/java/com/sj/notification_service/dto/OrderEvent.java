@@ -0,0 +1,25 @@
+package com.sj.notification_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class OrderEvent {
+    private long eventId;
+    private String eventType;
+    private UUID orderId;
+    private UUID parentOrderId;
+    private UUID customerId;
+    private UUID sellerId;
+    private String orderStatus;
+    private String paymentStatus;
+    private String failureReason;
+    private BigDecimal totalPrice;
+    private long version;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,32 @@
+package com.sj.notification_service.listener;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sj.notification_service.dto.OrderEvent;
+import com.sj.notification_service.service.NotificationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderEventListener {
+
+    private final NotificationService notificationService;
+    private final ObjectMapper objectMapper;
+
+    @KafkaListener(topics = "${orders.events.topic:order-events}")
+    public void onMessage(String payload) {
+        OrderEvent event;
+        try {
+            event = objectMapper.readValue(payload, OrderEvent.class);
+        } catch (JsonProcessingException e) {
+            // A malformed event will never parse; skipping it keeps the partition moving
+            log.error("Discarding unreadable order event: {}", payload, e);
+            return;
+        }
+        notificationService.onOrderEvent(event);
+    }
+}
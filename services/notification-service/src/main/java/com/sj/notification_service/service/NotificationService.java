@@ -0,0 +1,8 @@
+package com.sj.notification_service.service;
+
+import com.sj.notification_service.dto.OrderEvent;
+
+public interface NotificationService {
+
+    void onOrderEvent(OrderEvent event);
+}
@@ -0,0 +1,44 @@
+package com.sj.notification_service.service.impl;
+
+import com.sj.notification_service.dto.OrderEvent;
+import com.sj.notification_service.service.NotificationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@Slf4j
+public class NotificationServiceImpl implements NotificationService {
+
+    private static final int MAX_TRACKED_ORDERS = 100_000;
+
+    // Last version notified per order, to skip redelivered and out-of-date events
+    private final Map<UUID, Long> notifiedVersions = new ConcurrentHashMap<>();
+
+    @Override
+    public void onOrderEvent(OrderEvent event) {
+        Long notified = notifiedVersions.get(event.getOrderId());
+        if (notified != null && notified >= event.getVersion()) {
+            log.debug("Skipping event {} for order {}, version {} already notified",
+                    event.getEventId(), event.getOrderId(), notified);
+            return;
+        }
+        if (notifiedVersions.size() >= MAX_TRACKED_ORDERS) {
+            notifiedVersions.clear();
+        }
+        notifiedVersions.put(event.getOrderId(), event.getVersion());
+
+        if ("ORDER_CREATED".equals(event.getEventType())) {
+            log.info("Notify customer {}: order {} received", event.getCustomerId(), event.getOrderId());
+            if (event.getSellerId() != null) {
+                log.info("Notify seller {}: new order {}", event.getSellerId(), event.getOrderId());
+            }
+        } else {
+            log.info("Notify customer {}: order {} is now {}{}", event.getCustomerId(), event.getOrderId(),
+                    event.getOrderStatus(), event.getFailureReason() != null ? " (" + event.getFailureReason() + ")" : "");
+        }
+    }
+}
@@ -1,32 +1,125 @@
 package com.sj.order_service.client;
 
+import com.sj.order_service.exception.InsufficientStockException;
+import com.sj.order_service.exception.InventoryUnavailableException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 @Service
+@Slf4j
 public class InventoryClient {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final WebClient webClient;
+    private final CircuitBreaker circuitBreaker;
+    private final Duration callTimeout;
+    private final int maxConcurrency;
+
+    public InventoryClient(WebClient.Builder webClientBuilder,
+                           @Value("${inventory.service.url:http://product-service/api/inventory}") String baseUrl,
+                           @Value("${inventory.client.connect-timeout:1s}") Duration connectTimeout,
+                           @Value("${inventory.client.call-timeout:2s}") Duration callTimeout,
+                           @Value("${inventory.client.max-concurrency:8}") int maxConcurrency,
+                           @Value("${inventory.client.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+                           @Value("${inventory.client.circuit-breaker.open-duration:10s}") Duration openDuration) {
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(callTimeout);
+        this.webClient = webClientBuilder
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        this.circuitBreaker = CircuitBreaker.of("inventory", CircuitBreakerConfig.custom()
+                .slidingWindowSize(20)
+                .minimumNumberOfCalls(10)
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(callTimeout)
+                .waitDurationInOpenState(openDuration)
+                .permittedNumberOfCallsInHalfOpenState(3)
+                .ignoreExceptions(InsufficientStockException.class)
+                .build());
+        this.callTimeout = callTimeout;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public Mono<Void> reserveStock(String token, UUID productId, int quantity, String reference, String idempotencyKey) {
+        return mutateStock("/{productId}/reserve", token, productId, quantity, reference, idempotencyKey,
+                e -> new InsufficientStockException("Could not reserve stock for product ID " + productId
+                        + " (" + e.getStatusCode().value() + ")"));
+    }
+
+    public Mono<Void> releaseStock(String token, UUID productId, int quantity, String reference, String idempotencyKey) {
+        return mutateStock("/{productId}/release", token, productId, quantity, reference, idempotencyKey,
+                Function.identity());
+    }
 
-    public InventoryClient(WebClient.Builder webClientBuilder) {
-        this.webClient = webClientBuilder.baseUrl("http://product-service/api/inventory").build();
+    public Mono<Void> fulfillStock(String token, UUID productId, int quantity, String reference, String idempotencyKey) {
+        return mutateStock("/{productId}/fulfill", token, productId, quantity, reference, idempotencyKey,
+                Function.identity());
     }
 
-    /**
-     * Decrements stock by calling product-service with provided token for authorization.
-     * 
-     * @param token Bearer JWT token from UI/user
-     * @param productId Product to decrement
-     * @param quantity Quantity to decrement
-     * @return true if success, false if insufficient stock
-     */
-    public boolean decrementStock(String token, Long productId, int quantity) {
+    public <T> Mono<Void> forEach(Collection<T> elements, Function<T, Mono<Void>> call) {
+        return Flux.fromIterable(elements)
+                .flatMapDelayError(call, maxConcurrency, 1)
+                .then()
+                .onErrorMap(InventoryClient::mostSignificant);
+    }
+
+    private Mono<Void> mutateStock(String path, String token, UUID productId, int quantity, String reference,
+                                   String idempotencyKey,
+                                   Function<WebClientResponseException, ? extends RuntimeException> refusal) {
         return webClient.post()
-            .uri("/decrement/{productId}", productId)
-            .header("Authorization", "Bearer " + token)
-            .bodyValue(quantity)
-            .retrieve()
-            .bodyToMono(Boolean.class)
-            .block();
-    }
-}
\ No newline at end of file
+                .uri(uriBuilder -> uriBuilder.path(path)
+                        .queryParam("quantity", quantity)
+                        .queryParam("reference", reference)
+                        .build(productId))
+                .header("Authorization", "Bearer " + token)
+                .header(IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                .retrieve()
+                .toBodilessEntity()
+                .then()
+                .timeout(callTimeout)
+                // Business refusals are mapped before the breaker so they are not counted as failures
+                .onErrorMap(WebClientResponseException.Conflict.class, refusal)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .onErrorMap(InventoryClient::isUnavailable,
+                        e -> new InventoryUnavailableException("Inventory service unavailable: " + e.getMessage(), e));
+    }
+
+    private static boolean isUnavailable(Throwable e) {
+        return e instanceof TimeoutException
+                || e instanceof CallNotPermittedException
+                || e instanceof WebClientRequestException
+                || (e instanceof WebClientResponseException response && response.getStatusCode().is5xxServerError());
+    }
+
+    private static Throwable mostSignificant(Throwable error) {
+        List<Throwable> errors = Exceptions.unwrapMultiple(error);
+        return errors.stream()
+                .filter(InsufficientStockException.class::isInstance)
+                .findFirst()
+                .orElse(errors.get(0));
+    }
+}
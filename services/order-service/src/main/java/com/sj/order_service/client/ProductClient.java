@@ -0,0 +1,69 @@
+package com.sj.order_service.client;
+
+import com.sj.order_service.dto.ProductPrice;
+import com.sj.order_service.exception.ProductCatalogUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Service
+public class ProductClient {
+
+    private static final int MAX_IDS_PER_CALL = 500;
+    private static final ParameterizedTypeReference<List<ProductPrice>> PRICE_LIST = new ParameterizedTypeReference<>() {
+    };
+
+    private final WebClient webClient;
+    private final Duration callTimeout;
+
+    public ProductClient(WebClient.Builder webClientBuilder,
+                         @Value("${product.service.url:http://product-service/api/v1/products}") String baseUrl,
+                         @Value("${product.client.call-timeout:2s}") Duration callTimeout) {
+        this.webClient = webClientBuilder.baseUrl(baseUrl).build();
+        this.callTimeout = callTimeout;
+    }
+
+    public Mono<List<ProductPrice>> getPrices(String token, Collection<UUID> productIds) {
+        List<UUID> ids = new ArrayList<>(productIds);
+        List<List<UUID>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_CALL) {
+            chunks.add(ids.subList(from, Math.min(from + MAX_IDS_PER_CALL, ids.size())));
+        }
+        return Flux.fromIterable(chunks)
+                .flatMap(chunk -> webClient.post()
+                        .uri("/prices")
+                        .header("Authorization", "Bearer " + token)
+                        .bodyValue(Map.of("productIds", chunk))
+                        .retrieve()
+                        .bodyToMono(PRICE_LIST)
+                        .timeout(callTimeout))
+                .flatMapIterable(prices -> prices)
+                .collectList()
+                .onErrorMap(e -> new ProductCatalogUnavailableException("Could not load product prices: " + e.getMessage(), e));
+    }
+
+    public Mono<List<ProductPrice>> getPriceChanges(String token, LocalDateTime since, UUID afterId, int limit) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/prices/changes")
+                        .queryParam("since", since)
+                        .queryParam("afterId", afterId)
+                        .queryParam("limit", limit)
+                        .build())
+                .header("Authorization", "Bearer " + token)
+                .retrieve()
+                .bodyToMono(PRICE_LIST)
+                .timeout(callTimeout)
+                .onErrorMap(e -> new ProductCatalogUnavailableException("Could not load price changes: " + e.getMessage(), e));
+    }
+}
@@ -1,44 +1,216 @@
 package com.sj.order_service.controller;
 
+import com.sj.order_service.dto.BulkOrderRequest;
+import com.sj.order_service.dto.BulkOrderResponse;
+import com.sj.order_service.dto.BulkStatusTransitionRequest;
+import com.sj.order_service.dto.OrderHistoryPage;
 import com.sj.order_service.dto.OrderRequest;
+import com.sj.order_service.dto.OrderStatusResponse;
+import com.sj.order_service.dto.OrderStatusTransitionRequest;
 import com.sj.order_service.entity.Order;
 import com.sj.order_service.exception.InsufficientStockException;
+import com.sj.order_service.exception.InvalidOrderItemException;
+import com.sj.order_service.exception.InvalidStatusTransitionException;
+import com.sj.order_service.exception.OrderCancelledException;
+import com.sj.order_service.exception.OrderNotFoundException;
+import com.sj.order_service.exception.ProductCatalogUnavailableException;
+import com.sj.order_service.intake.OrderStatusNotifier;
+import com.sj.order_service.security.OrderAccess;
+import com.sj.order_service.service.BulkOrderService;
 import com.sj.order_service.service.OrderService;
+import com.sj.order_service.service.OrderStatusService;
 import com.sj.order_service.util.TokenUtil;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
     private final OrderService orderService;
+    private final BulkOrderService bulkOrderService;
+    private final OrderStatusService orderStatusService;
+    private final OrderStatusNotifier orderStatusNotifier;
 
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, BulkOrderService bulkOrderService,
+                           OrderStatusService orderStatusService, OrderStatusNotifier orderStatusNotifier) {
         this.orderService = orderService;
+        this.bulkOrderService = bulkOrderService;
+        this.orderStatusService = orderStatusService;
+        this.orderStatusNotifier = orderStatusNotifier;
     }
 
     @PostMapping
-    public ResponseEntity<?> createOrder(@Valid @RequestBody OrderRequest orderRequest) {
+    public ResponseEntity<?> createOrder(@Valid @RequestBody OrderRequest orderRequest,
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         try {
             String token = TokenUtil.extractTokenFromRequest();
             if (token == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Missing or invalid Authorization header");
             }
-            Order order = orderService.createOrder(token, orderRequest);
+            Order order = orderService.createOrder(token, orderRequest, idempotencyKey);
             return new ResponseEntity<>(order, HttpStatus.CREATED);
-        } catch (InsufficientStockException e) {
+        } catch (InsufficientStockException | OrderCancelledException | InvalidOrderItemException
+                 | IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (ProductCatalogUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Server error: " + e.getMessage());
         }
     }
 
-}
\ No newline at end of file
+    @PostMapping("/async")
+    public ResponseEntity<?> submitOrder(@Valid @RequestBody OrderRequest orderRequest,
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        try {
+            Order order = orderService.submitOrder(orderRequest, idempotencyKey);
+            URI statusUri = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/api/orders/{orderId}/status")
+                    .buildAndExpand(order.getId())
+                    .toUri();
+            return ResponseEntity.accepted()
+                    .location(statusUri)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(OrderStatusResponse.from(order));
+        } catch (InvalidOrderItemException | IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (ProductCatalogUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/bulk")
+    public ResponseEntity<?> submitOrders(@Valid @RequestBody BulkOrderRequest bulkOrderRequest) {
+        try {
+            BulkOrderResponse response = bulkOrderService.submitOrders(bulkOrderRequest.getOrders());
+            return ResponseEntity.accepted().body(response);
+        } catch (ProductCatalogUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(e.getMessage());
+        }
+    }
+
+    // A split order is returned with its per-seller sub-orders
+    @GetMapping("/{orderId}")
+    public ResponseEntity<?> getOrder(@PathVariable UUID orderId) {
+        try {
+            return ResponseEntity.ok(getViewableOrder(orderId));
+        } catch (OrderNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{orderId}/status")
+    public ResponseEntity<?> getOrderStatus(@PathVariable UUID orderId) {
+        try {
+            Order order = getViewableOrder(orderId);
+            return ResponseEntity.ok(OrderStatusResponse.from(order));
+        } catch (OrderNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    @PatchMapping("/{orderId}/status")
+    public ResponseEntity<?> transitionOrderStatus(@PathVariable UUID orderId,
+                                                   @Valid @RequestBody OrderStatusTransitionRequest request) {
+        try {
+            return ResponseEntity.ok(orderStatusService.transition(orderId, request));
+        } catch (OrderNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (InvalidStatusTransitionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/status/bulk")
+    public ResponseEntity<?> transitionOrderStatuses(@Valid @RequestBody BulkStatusTransitionRequest request) {
+        try {
+            return ResponseEntity.ok(orderStatusService.transitionAll(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    @GetMapping(value = "/{orderId}/status/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> streamOrderStatus(@PathVariable UUID orderId) {
+        try {
+            getViewableOrder(orderId);
+        } catch (OrderNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+        SseEmitter emitter = orderStatusNotifier.subscribe(orderId,
+                () -> OrderStatusResponse.from(orderService.getOrder(orderId)));
+        return ResponseEntity.ok(emitter);
+    }
+
+    // The user-service token carries the user's UUID in its sellerId claim, for customers as well as sellers
+    @GetMapping("/customer/{customerId}")
+    @PreAuthorize("hasRole('ADMIN') or #customerId.toString() == authentication.details['sellerId']")
+    public ResponseEntity<?> getCustomerOrders(@PathVariable UUID customerId,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(defaultValue = "20") int limit,
+                                               @RequestParam(defaultValue = "false") boolean includeItems) {
+        try {
+            OrderHistoryPage page = orderService.getCustomerOrders(customerId, cursor, clampLimit(limit), includeItems);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/seller/{sellerId}")
+    @PreAuthorize("hasRole('ADMIN') or (hasRole('SELLER') and #sellerId.toString() == authentication.details['sellerId'])")
+    public ResponseEntity<?> getSellerOrders(@PathVariable UUID sellerId,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(defaultValue = "20") int limit,
+                                             @RequestParam(defaultValue = "false") boolean includeItems) {
+        try {
+            OrderHistoryPage page = orderService.getSellerOrders(sellerId, cursor, clampLimit(limit), includeItems);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    // Someone else's order is reported as missing, so order ids cannot be probed
+    private Order getViewableOrder(UUID orderId) {
+        Order order = orderService.getOrder(orderId);
+        if (!OrderAccess.canView(order)) {
+            throw new OrderNotFoundException("Order not found: " + orderId);
+        }
+        return order;
+    }
+
+    private int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.sj.order_service.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class BulkOrderEntry {
+
+    @Size(max = 128, message = "Reference must be at most 128 characters")
+    private String reference;
+
+    @NotNull(message = "Order is required")
+    @Valid
+    private OrderRequest order;
+}
@@ -0,0 +1,17 @@
+package com.sj.order_service.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkOrderRequest {
+
+    @NotEmpty(message = "At least one order is required")
+    @Size(max = 1000, message = "At most 1000 orders can be submitted at once")
+    @Valid
+    private List<BulkOrderEntry> orders;
+}
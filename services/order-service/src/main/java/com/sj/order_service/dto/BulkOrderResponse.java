@@ -0,0 +1,20 @@
+package com.sj.order_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderResponse {
+    private int received;
+    private Map<BulkOrderResult.Status, Integer> outcomes;
+    private long durationMs;
+    private List<BulkOrderResult> results;
+}
@@ -0,0 +1,27 @@
+package com.sj.order_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderResult {
+    private int index;
+    private String reference;
+    private UUID orderId;
+    private Status status;
+    private String message;
+
+    public enum Status {
+        ACCEPTED,
+        // Already submitted earlier, or twice in the same request; orderId is the existing order when known
+        DUPLICATE,
+        INVALID
+    }
+}
@@ -0,0 +1,25 @@
+package com.sj.order_service.dto;
+
+import com.sj.order_service.entity.OrderStatus;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkStatusTransitionRequest {
+
+    @NotNull(message = "Status is required")
+    private OrderStatus status;
+
+    @Size(max = 500, message = "Reason must be at most 500 characters")
+    private String reason;
+
+    @NotEmpty(message = "At least one order is required")
+    @Size(max = 10000, message = "At most 10000 orders can be moved at once")
+    @Valid
+    private List<StatusTransitionEntry> orders;
+}
@@ -0,0 +1,21 @@
+package com.sj.order_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusTransitionResponse {
+    private int requested;
+    private List<UUID> updated;
+    private List<UUID> notFound;
+    private List<StatusConflict> conflicts;
+    private long durationMs;
+}
@@ -0,0 +1,20 @@
+package com.sj.order_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemResponse {
+    @JsonIgnore
+    private UUID orderId;
+    private UUID productId;
+    private int quantity;
+    private BigDecimal price;
+}
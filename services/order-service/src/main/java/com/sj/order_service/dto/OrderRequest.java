@@ -16,6 +16,7 @@ public class OrderRequest {
     @NotEmpty(message = "Order must contain at least one item")
     private List<OrderItemRequest> items;
 
+    // Only used for products whose seller is unknown; items are grouped by their product's seller
     private UUID sellerId;
 
     private String paymentStatus;
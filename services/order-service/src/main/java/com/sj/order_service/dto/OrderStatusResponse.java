@@ -0,0 +1,32 @@
+package com.sj.order_service.dto;
+
+import com.sj.order_service.entity.Order;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusResponse {
+    private UUID orderId;
+    private String orderStatus;
+    private String failureReason;
+    private LocalDateTime updatedAt;
+    private Long version;
+
+    public static OrderStatusResponse from(Order order) {
+        return OrderStatusResponse.builder()
+                .orderId(order.getId())
+                .orderStatus(order.getOrderStatus())
+                .failureReason(order.getFailureReason())
+                .updatedAt(order.getUpdatedAt())
+                .version(order.getVersion())
+                .build();
+    }
+}
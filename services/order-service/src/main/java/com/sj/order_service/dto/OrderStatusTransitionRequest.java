@@ -0,0 +1,18 @@
+package com.sj.order_service.dto;
+
+import com.sj.order_service.entity.OrderStatus;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class OrderStatusTransitionRequest {
+
+    @NotNull(message = "Status is required")
+    private OrderStatus status;
+
+    @Size(max = 500, message = "Reason must be at most 500 characters")
+    private String reason;
+
+    private Long expectedVersion;
+}
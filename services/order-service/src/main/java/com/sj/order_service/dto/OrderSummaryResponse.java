@@ -0,0 +1,36 @@
+package com.sj.order_service.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+public class OrderSummaryResponse {
+    private UUID orderId;
+    private UUID customerId;
+    private UUID sellerId;
+    private BigDecimal totalPrice;
+    private String paymentStatus;
+    private String orderStatus;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private List<OrderItemResponse> items;
+
+    public OrderSummaryResponse(UUID orderId, UUID customerId, UUID sellerId, BigDecimal totalPrice,
+                                String paymentStatus, String orderStatus, LocalDateTime createdAt,
+                                LocalDateTime updatedAt) {
+        this.orderId = orderId;
+        this.customerId = customerId;
+        this.sellerId = sellerId;
+        this.totalPrice = totalPrice;
+        this.paymentStatus = paymentStatus;
+        this.orderStatus = orderStatus;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,27 @@
+package com.sj.order_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPrice {
+    private UUID productId;
+    private UUID sellerId;
+    private BigDecimal price;
+    private String currency;
+    private String status;
+    private LocalDateTime updatedAt;
+
+    public boolean isPurchasable() {
+        return "ACTIVE".equals(status) && price != null;
+    }
+}
@@ -0,0 +1,15 @@
+package com.sj.order_service.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class StatusTransitionEntry {
+
+    @NotNull(message = "Order ID is required")
+    private UUID orderId;
+
+    private Long expectedVersion;
+}
@@ -1,5 +1,7 @@
 package com.sj.order_service.entity;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.sj.order_service.partition.OrderId;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -9,13 +11,20 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders",
+        indexes = {
+                @Index(name = "idx_orders_customer_created", columnList = "customer_id, created_at, id"),
+                @Index(name = "idx_orders_seller_created", columnList = "seller_id, created_at, id"),
+                @Index(name = "idx_orders_parent_order_id", columnList = "parent_order_id")
+        })
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @OrderId
     private UUID id;
 
     private UUID customerId;
@@ -28,11 +37,31 @@ public class Order {
 
     private String orderStatus;
 
+    @Column(length = 500)
+    private String failureReason;
+
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint not null default 0")
+    private long version;
+
+    private UUID parentOrderId;
+
+    @Column(nullable = false, columnDefinition = "boolean not null default false")
+    private boolean split;
+
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<Order> subOrders;
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<OrderItem> items;
 
     // Convenience method to maintain bidirectional relationship
@@ -0,0 +1,72 @@
+package com.sj.order_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "order_sagas",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"order_id"}),
+        indexes = @Index(name = "idx_order_sagas_status_next_attempt", columnList = "status, next_attempt_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSaga {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "order_id", nullable = false, updatable = false)
+    private UUID orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "current_step", nullable = false)
+    private int currentStep;
+
+    @Column(name = "attempt", nullable = false)
+    private int attempt;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "payment_authorization_id", length = 64)
+    private String paymentAuthorizationId;
+
+    @Column(name = "failure_reason", length = 500)
+    private String failureReason;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Version
+    private long version;
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.COMPENSATED || status == Status.FAILED;
+    }
+
+    public enum Status {
+        RUNNING, COMPENSATING, COMPLETED, COMPENSATED,
+        // Could neither finish nor be undone automatically; needs an operator
+        FAILED
+    }
+}
@@ -0,0 +1,77 @@
+package com.sj.order_service.entity;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public enum OrderStatus {
+    PENDING(true),
+    PROCESSING(true),
+    RESERVED(true),
+    PAID(false),
+    SHIPPED(false),
+    DELIVERED(false),
+    CANCELLED(false);
+
+    private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        TRANSITIONS.put(PENDING, EnumSet.of(PROCESSING, CANCELLED));
+        TRANSITIONS.put(PROCESSING, EnumSet.of(RESERVED, PAID, CANCELLED));
+        TRANSITIONS.put(RESERVED, EnumSet.of(PAID, CANCELLED));
+        // Cancelling a paid order does not refund it; the caller or saga reacting to the status event does
+        TRANSITIONS.put(PAID, EnumSet.of(SHIPPED, CANCELLED));
+        TRANSITIONS.put(SHIPPED, EnumSet.of(DELIVERED, CANCELLED));
+        TRANSITIONS.put(DELIVERED, EnumSet.noneOf(OrderStatus.class));
+        TRANSITIONS.put(CANCELLED, EnumSet.noneOf(OrderStatus.class));
+    }
+
+    // Statuses owned by the checkout saga; nothing outside it may move an order out of them
+    private final boolean checkout;
+
+    OrderStatus(boolean checkout) {
+        this.checkout = checkout;
+    }
+
+    public boolean isCheckout() {
+        return checkout;
+    }
+
+    public boolean canTransitionTo(OrderStatus next) {
+        return TRANSITIONS.get(this).contains(next);
+    }
+
+    public Set<OrderStatus> sources() {
+        Set<OrderStatus> sources = EnumSet.noneOf(OrderStatus.class);
+        for (OrderStatus status : values()) {
+            if (status.canTransitionTo(this)) {
+                sources.add(status);
+            }
+        }
+        return sources;
+    }
+
+    public Set<OrderStatus> fulfillmentSources() {
+        Set<OrderStatus> sources = sources();
+        sources.removeIf(OrderStatus::isCheckout);
+        return sources;
+    }
+
+    // Unknown names, from rows written before the lifecycle existed, count as still in checkout.
+    public static boolean isSettled(String status) {
+        for (OrderStatus value : values()) {
+            if (value.name().equals(status)) {
+                return !value.isCheckout();
+            }
+        }
+        return false;
+    }
+
+    public static List<String> names(Collection<OrderStatus> statuses) {
+        return statuses.stream().map(OrderStatus::name).collect(Collectors.toList());
+    }
+}
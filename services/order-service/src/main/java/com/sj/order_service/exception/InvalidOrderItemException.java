@@ -0,0 +1,8 @@
+package com.sj.order_service.exception;
+
+public class InvalidOrderItemException extends RuntimeException {
+
+    public InvalidOrderItemException(String message) {
+        super(message);
+    }
+}
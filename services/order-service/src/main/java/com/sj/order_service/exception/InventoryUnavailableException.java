@@ -0,0 +1,8 @@
+package com.sj.order_service.exception;
+
+public class InventoryUnavailableException extends RuntimeException {
+
+    public InventoryUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,8 @@
+package com.sj.order_service.exception;
+
+public class OrderCancelledException extends RuntimeException {
+
+    public OrderCancelledException(String message) {
+        super(message);
+    }
+}
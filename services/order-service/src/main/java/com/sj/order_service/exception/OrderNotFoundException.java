@@ -0,0 +1,8 @@
+package com.sj.order_service.exception;
+
+public class OrderNotFoundException extends RuntimeException {
+
+    public OrderNotFoundException(String message) {
+        super(message);
+    }
+}
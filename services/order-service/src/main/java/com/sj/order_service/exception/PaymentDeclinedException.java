@@ -0,0 +1,8 @@
+package com.sj.order_service.exception;
+
+public class PaymentDeclinedException extends RuntimeException {
+
+    public PaymentDeclinedException(String message) {
+        super(message);
+    }
+}
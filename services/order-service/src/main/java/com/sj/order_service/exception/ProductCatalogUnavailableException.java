@@ -0,0 +1,8 @@
+package com.sj.order_service.exception;
+
+public class ProductCatalogUnavailableException extends RuntimeException {
+
+    public ProductCatalogUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
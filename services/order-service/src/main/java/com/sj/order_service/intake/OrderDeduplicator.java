@@ -0,0 +1,189 @@
+package com.sj.order_service.intake;
+
+import com.sj.order_service.dto.OrderItemRequest;
+import com.sj.order_service.dto.OrderRequest;
+import com.sj.order_service.entity.Order;
+import com.sj.order_service.entity.OrderIdempotencyKey;
+import com.sj.order_service.outbox.OrderEventType;
+import com.sj.order_service.outbox.OrderOutbox;
+import com.sj.order_service.repository.OrderIdempotencyKeyRepository;
+import com.sj.order_service.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Recognises repeated submissions by Idempotency-Key, or by customer and items within
+ * {@code orders.dedup.window}.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderDeduplicator {
+
+    private final OrderRepository orderRepository;
+    private final OrderIdempotencyKeyRepository idempotencyKeyRepository;
+    private final OrderOutbox orderOutbox;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, Remembered> recent = new ConcurrentHashMap<>();
+
+    @Value("${orders.dedup.window:10s}")
+    private Duration window;
+
+    @Value("${orders.dedup.memory-ttl:10m}")
+    private Duration memoryTtl;
+
+    @Value("${orders.dedup.max-entries:100000}")
+    private int maxEntries;
+
+    // A derived key also matches the previous time bucket, so clicks either side of it are caught.
+    public List<String> keysFor(OrderRequest orderRequest, String idempotencyKey) {
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            if (idempotencyKey.length() > 128) {
+                throw new IllegalArgumentException("Idempotency-Key must be at most 128 characters");
+            }
+            return List.of(hash("key|" + orderRequest.getCustomerId() + "|" + idempotencyKey));
+        }
+        // Same lines in any order, or split across several entries, are the same order
+        Map<UUID, Integer> quantities = new TreeMap<>();
+        for (OrderItemRequest item : orderRequest.getItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        String content = orderRequest.getCustomerId() + "|" + quantities;
+        long bucket = System.currentTimeMillis() / window.toMillis();
+        return List.of(hash("auto|" + content + "|" + bucket), hash("auto|" + content + "|" + (bucket - 1)));
+    }
+
+    public Optional<UUID> findAnyExisting(List<String> keys) {
+        long now = System.currentTimeMillis();
+        for (String key : keys) {
+            Remembered remembered = recent.get(key);
+            if (remembered != null && remembered.expiresAt() > now) {
+                return Optional.of(remembered.orderId());
+            }
+        }
+        Optional<UUID> stored = idempotencyKeyRepository.findOrderIds(keys).stream().findFirst();
+        stored.ifPresent(orderId -> remember(keys.get(0), orderId));
+        return stored;
+    }
+
+    public Map<String, UUID> findExistingByKey(Collection<String> keys) {
+        long now = System.currentTimeMillis();
+        Map<String, UUID> found = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String key : keys) {
+            Remembered remembered = recent.get(key);
+            if (remembered != null && remembered.expiresAt() > now) {
+                found.put(key, remembered.orderId());
+            } else {
+                misses.add(key);
+            }
+        }
+        if (!misses.isEmpty()) {
+            for (OrderIdempotencyKey stored : idempotencyKeyRepository.findAllById(misses)) {
+                found.put(stored.getIdempotencyKey(), stored.getOrderId());
+            }
+        }
+        return found;
+    }
+
+    public Order saveOnce(Order order, String key) {
+        return saveOnce(order, List.of(), key);
+    }
+
+    public Order saveOnce(Order order, List<Order> subOrders, String key) {
+        Order saved = transactionTemplate.execute(status -> {
+            Order persisted = orderRepository.save(order);
+            subOrders.forEach(subOrder -> subOrder.setParentOrderId(persisted.getId()));
+            orderRepository.saveAll(subOrders);
+            if (idempotencyKeyRepository.claim(key, persisted.getId(), persisted.getCreatedAt()) == 0) {
+                status.setRollbackOnly();
+                return null;
+            }
+            List<UUID> created = new ArrayList<>(subOrders.size() + 1);
+            created.add(persisted.getId());
+            subOrders.forEach(subOrder -> created.add(subOrder.getId()));
+            orderOutbox.append(OrderEventType.ORDER_CREATED, created);
+            return persisted;
+        });
+        if (saved != null) {
+            remember(key, saved.getId());
+        }
+        return saved;
+    }
+
+    // Returns false, with nothing saved, if any key was claimed concurrently.
+    public boolean saveAllOnce(List<Order> orders, List<String> keys) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                orderRepository.saveAll(orders);
+                List<Object[]> rows = new ArrayList<>(orders.size());
+                for (int i = 0; i < orders.size(); i++) {
+                    rows.add(new Object[]{keys.get(i), orders.get(i).getId(),
+                            Timestamp.valueOf(orders.get(i).getCreatedAt())});
+                }
+                jdbcTemplate.batchUpdate("INSERT INTO order_idempotency_keys (idempotency_key, order_id, created_at) " +
+                        "VALUES (?, ?, ?)", rows);
+                orderOutbox.append(OrderEventType.ORDER_CREATED, orders.stream()
+                        .map(Order::getId)
+                        .collect(Collectors.toList()));
+            });
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+        for (int i = 0; i < orders.size(); i++) {
+            remember(keys.get(i), orders.get(i).getId());
+        }
+        return true;
+    }
+
+    private void remember(String key, UUID orderId) {
+        if (recent.size() < maxEntries) {
+            recent.put(key, new Remembered(orderId, System.currentTimeMillis() + memoryTtl.toMillis()));
+        }
+    }
+
+    public void forget(String key) {
+        recent.remove(key);
+        idempotencyKeyRepository.deleteById(key);
+    }
+
+    @Scheduled(fixedDelayString = "${orders.dedup.cleanup-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        recent.values().removeIf(remembered -> remembered.expiresAt() <= now);
+    }
+
+    private static String hash(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Remembered(UUID orderId, long expiresAt) {
+    }
+}
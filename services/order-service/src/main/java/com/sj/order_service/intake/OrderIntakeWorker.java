@@ -0,0 +1,113 @@
+package com.sj.order_service.intake;
+
+import com.sj.order_service.dto.OrderStatusResponse;
+import com.sj.order_service.entity.Order;
+import com.sj.order_service.entity.OrderItem;
+import com.sj.order_service.entity.OrderStatus;
+import com.sj.order_service.outbox.OrderOutbox;
+import com.sj.order_service.repository.OrderRepository;
+import com.sj.order_service.saga.OrderSagaOrchestrator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Component
+@Slf4j
+public class OrderIntakeWorker {
+
+    private final OrderRepository orderRepository;
+    private final OrderOutbox orderOutbox;
+    private final OrderSagaOrchestrator sagaOrchestrator;
+    private final OrderStatusNotifier statusNotifier;
+    private final ThreadPoolTaskExecutor executor;
+
+    @Value("${orders.intake.stale-after:5m}")
+    private Duration staleAfter;
+
+    // Orders stuck for longer than this are left to an operator, and older partitions are not scanned
+    @Value("${orders.intake.recovery-horizon:7d}")
+    private Duration recoveryHorizon;
+
+    public OrderIntakeWorker(OrderRepository orderRepository, OrderOutbox orderOutbox,
+                             OrderSagaOrchestrator sagaOrchestrator, OrderStatusNotifier statusNotifier,
+                             @Qualifier("orderIntakeExecutor") ThreadPoolTaskExecutor executor) {
+        this.orderRepository = orderRepository;
+        this.orderOutbox = orderOutbox;
+        this.sagaOrchestrator = sagaOrchestrator;
+        this.statusNotifier = statusNotifier;
+        this.executor = executor;
+    }
+
+    public void submit(UUID orderId) {
+        executor.execute(() -> process(orderId));
+    }
+
+    @Scheduled(fixedDelayString = "${orders.intake.recovery-interval-ms:60000}")
+    public void resubmitStalled() {
+        LocalDateTime now = LocalDateTime.now();
+        List<UUID> stalled = orderRepository.findStalledIntakeIds(now.minus(staleAfter), now.minus(recoveryHorizon),
+                PageRequest.of(0, 100));
+        for (UUID orderId : stalled) {
+            try {
+                submit(orderId);
+            } catch (TaskRejectedException e) {
+                log.warn("Intake queue full, {} stalled orders left for the next recovery run", stalled.size());
+                return;
+            }
+        }
+        if (!stalled.isEmpty()) {
+            log.info("Resubmitted {} stalled orders for intake", stalled.size());
+        }
+    }
+
+    void process(UUID orderId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (orderRepository.claimForProcessing(orderId, now, now.minus(staleAfter)) == 0) {
+            return;
+        }
+        Order order = orderRepository.findWithItemsById(orderId).orElse(null);
+        if (order == null) {
+            return;
+        }
+
+        String problem = validate(order);
+        if (problem != null) {
+            if (orderOutbox.transition(orderId, OrderStatus.PROCESSING, OrderStatus.CANCELLED, problem, now) == 1) {
+                statusNotifier.publish(OrderStatusResponse.builder()
+                        .orderId(orderId)
+                        .orderStatus(OrderStatus.CANCELLED.name())
+                        .failureReason(problem)
+                        .updatedAt(now)
+                        .build());
+            }
+            return;
+        }
+        sagaOrchestrator.start(orderId);
+    }
+
+    private String validate(Order order) {
+        if (order.getItems() == null || order.getItems().isEmpty()) {
+            return "Order must contain at least one item";
+        }
+        for (OrderItem item : order.getItems()) {
+            if (item.getQuantity() < 1) {
+                return "Quantity must be at least 1 for product ID " + item.getProductId();
+            }
+            if (item.getPrice() == null || item.getPrice().compareTo(BigDecimal.ZERO) < 0) {
+                return "Missing or negative price for product ID " + item.getProductId();
+            }
+        }
+        return null;
+    }
+}
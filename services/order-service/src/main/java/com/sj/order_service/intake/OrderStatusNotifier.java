@@ -0,0 +1,64 @@
+package com.sj.order_service.intake;
+
+import com.sj.order_service.dto.OrderStatusResponse;
+import com.sj.order_service.entity.OrderStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+@Component
+@Slf4j
+public class OrderStatusNotifier {
+
+    private static final long TIMEOUT_MS = 30_000;
+
+    private final Map<UUID, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    public static boolean isFinal(String orderStatus) {
+        return OrderStatus.isSettled(orderStatus);
+    }
+
+    public SseEmitter subscribe(UUID orderId, Supplier<OrderStatusResponse> currentStatus) {
+        SseEmitter emitter = new SseEmitter(TIMEOUT_MS);
+        List<SseEmitter> emitters = subscribers.computeIfAbsent(orderId, id -> new CopyOnWriteArrayList<>());
+        emitters.add(emitter);
+        Runnable remove = () -> subscribers.computeIfPresent(orderId, (id, list) -> {
+            list.remove(emitter);
+            return list.isEmpty() ? null : list;
+        });
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        // Read only after registering, so a change made in between is not lost
+        send(emitter, currentStatus.get());
+        return emitter;
+    }
+
+    public void publish(OrderStatusResponse status) {
+        List<SseEmitter> emitters = subscribers.get(status.getOrderId());
+        if (emitters != null) {
+            emitters.forEach(emitter -> send(emitter, status));
+        }
+    }
+
+    private void send(SseEmitter emitter, OrderStatusResponse status) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(status));
+            if (isFinal(status.getOrderStatus())) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping order status subscriber for {}", status.getOrderId(), e);
+            emitter.completeWithError(e);
+        }
+    }
+}
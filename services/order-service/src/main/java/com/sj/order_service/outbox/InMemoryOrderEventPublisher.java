@@ -0,0 +1,30 @@
+package com.sj.order_service.outbox;
+
+import com.sj.order_service.entity.OrderOutboxEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Component
+@ConditionalOnProperty(name = "orders.outbox.publisher", havingValue = "in-memory")
+public class InMemoryOrderEventPublisher implements OrderEventPublisher {
+
+    private final List<OrderOutboxEvent> published = new CopyOnWriteArrayList<>();
+
+    @Override
+    public int publish(List<OrderOutboxEvent> events) {
+        published.addAll(events);
+        return events.size();
+    }
+
+    public List<OrderOutboxEvent> getPublished() {
+        return new ArrayList<>(published);
+    }
+
+    public void clear() {
+        published.clear();
+    }
+}
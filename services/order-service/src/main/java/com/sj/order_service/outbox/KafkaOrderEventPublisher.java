@@ -0,0 +1,62 @@
+package com.sj.order_service.outbox;
+
+import com.sj.order_service.entity.OrderOutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Component
+@ConditionalOnProperty(name = "orders.outbox.publisher", havingValue = "kafka", matchIfMissing = true)
+@Slf4j
+public class KafkaOrderEventPublisher implements OrderEventPublisher {
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final String topic;
+    private final Duration sendTimeout;
+
+    public KafkaOrderEventPublisher(KafkaTemplate<String, String> kafkaTemplate,
+                                    @Value("${orders.outbox.topic:order-events}") String topic,
+                                    @Value("${orders.outbox.send-timeout:5s}") Duration sendTimeout) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.topic = topic;
+        this.sendTimeout = sendTimeout;
+    }
+
+    @Override
+    public int publish(List<OrderOutboxEvent> events) {
+        List<CompletableFuture<SendResult<String, String>>> sends = new ArrayList<>(events.size());
+        for (OrderOutboxEvent event : events) {
+            ProducerRecord<String, String> record = new ProducerRecord<>(topic, event.getOrderId().toString(),
+                    event.getPayload());
+            record.headers().add("eventType", event.getEventType().getBytes(StandardCharsets.UTF_8));
+            sends.add(kafkaTemplate.send(record));
+        }
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        for (int i = 0; i < sends.size(); i++) {
+            try {
+                sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                log.warn("Publishing order event {} failed, {} events left for the next run",
+                        events.get(i).getId(), events.size() - i, e);
+                return i;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return i;
+            }
+        }
+        return sends.size();
+    }
+}
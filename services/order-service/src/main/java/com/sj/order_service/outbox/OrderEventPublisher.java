@@ -0,0 +1,11 @@
+package com.sj.order_service.outbox;
+
+import com.sj.order_service.entity.OrderOutboxEvent;
+
+import java.util.List;
+
+public interface OrderEventPublisher {
+
+    // Returns how many events, from the start of the list, the broker acknowledged.
+    int publish(List<OrderOutboxEvent> events);
+}
@@ -0,0 +1,6 @@
+package com.sj.order_service.outbox;
+
+public enum OrderEventType {
+    ORDER_CREATED,
+    ORDER_STATUS_CHANGED
+}
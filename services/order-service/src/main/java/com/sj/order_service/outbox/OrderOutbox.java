@@ -0,0 +1,51 @@
+package com.sj.order_service.outbox;
+
+import com.sj.order_service.entity.OrderStatus;
+import com.sj.order_service.partition.OrderIds;
+import com.sj.order_service.repository.OrderOutboxRepository;
+import com.sj.order_service.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+public class OrderOutbox {
+
+    private final OrderOutboxRepository outboxRepository;
+    private final OrderRepository orderRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(OrderEventType eventType, Collection<UUID> orderIds) {
+        if (!orderIds.isEmpty()) {
+            // The events are built from the rows, so entity changes still in the session must reach them first
+            orderRepository.flush();
+            // Bounded by the creation times the ids allow, so only their partitions are read
+            outboxRepository.appendSnapshots(eventType.name(), orderIds, OrderIds.createdFrom(orderIds),
+                    OrderIds.createdTo(orderIds), LocalDateTime.now());
+        }
+    }
+
+    @Transactional
+    public int transition(UUID orderId, OrderStatus status, String reason, LocalDateTime now) {
+        return recorded(orderId, orderRepository.transition(orderId, status, reason, now));
+    }
+
+    @Transactional
+    public int transition(UUID orderId, OrderStatus expected, OrderStatus status, String reason, LocalDateTime now) {
+        return recorded(orderId, orderRepository.transition(orderId, expected, status, reason, now));
+    }
+
+    private int recorded(UUID orderId, int updated) {
+        if (updated > 0) {
+            append(OrderEventType.ORDER_STATUS_CHANGED, List.of(orderId));
+        }
+        return updated;
+    }
+}
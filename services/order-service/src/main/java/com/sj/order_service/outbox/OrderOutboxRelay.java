@@ -0,0 +1,69 @@
+package com.sj.order_service.outbox;
+
+import com.sj.order_service.entity.OrderOutboxEvent;
+import com.sj.order_service.repository.OrderOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes outbox events oldest first, one relay at a time. Delivery is at least once.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderOutboxRelay {
+
+    // "order_o" in ASCII; any constant not used by another advisory lock on this database
+    private static final long RELAY_LOCK = 0x6f726465725f6fL;
+
+    private final OrderOutboxRepository outboxRepository;
+    private final OrderEventPublisher publisher;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${orders.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${orders.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${orders.outbox.poll-interval-ms:200}")
+    public void relay() {
+        if (!enabled) {
+            return;
+        }
+        // Keep going while batches come back full, so a backlog drains without waiting for the next poll
+        Integer published;
+        do {
+            published = transactionTemplate.execute(status -> relayBatch());
+        } while (published != null && published == batchSize);
+    }
+
+    // The advisory lock is held for this transaction, across the broker call.
+    private int relayBatch() {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)",
+                Boolean.class, RELAY_LOCK))) {
+            return 0;
+        }
+        List<OrderOutboxEvent> batch = outboxRepository.findNext(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int published = publisher.publish(batch);
+        if (published > 0) {
+            outboxRepository.deleteAllByIdInBatch(batch.subList(0, published).stream()
+                    .map(OrderOutboxEvent::getId)
+                    .collect(Collectors.toList()));
+        }
+        return published;
+    }
+}
@@ -0,0 +1,25 @@
+package com.sj.order_service.partition;
+
+import com.sj.order_service.entity.Order;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+
+public class OrderIdGenerator implements BeforeExecutionGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        LocalDateTime createdAt = ((Order) owner).getCreatedAt();
+        return OrderIds.generate(createdAt != null ? createdAt : LocalDateTime.now());
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
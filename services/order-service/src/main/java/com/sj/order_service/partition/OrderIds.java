@@ -0,0 +1,51 @@
+package com.sj.order_service.partition;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Version 7 UUIDs carrying the order's createdAt, so a lookup by id can be limited to one partition.
+ */
+public final class OrderIds {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    // Room for a server time zone change between writing an order and looking it up
+    private static final long SLACK_HOURS = 24;
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private OrderIds() {
+    }
+
+    public static UUID generate(LocalDateTime createdAt) {
+        long millis = createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long mostSignificant = (millis << 16) | 0x7000L | (RANDOM.nextInt() & 0x0fffL);
+        long leastSignificant = (RANDOM.nextLong() & 0x3fffffffffffffffL) | 0x8000000000000000L;
+        return new UUID(mostSignificant, leastSignificant);
+    }
+
+    public static LocalDateTime createdFrom(UUID id) {
+        return id.version() == 7 ? createdAt(id).minusHours(SLACK_HOURS) : EARLIEST;
+    }
+
+    public static LocalDateTime createdTo(UUID id) {
+        return id.version() == 7 ? createdAt(id).plusHours(SLACK_HOURS) : LATEST;
+    }
+
+    public static LocalDateTime createdFrom(Collection<UUID> ids) {
+        return ids.stream().map(OrderIds::createdFrom).min(Comparator.naturalOrder()).orElse(EARLIEST);
+    }
+
+    public static LocalDateTime createdTo(Collection<UUID> ids) {
+        return ids.stream().map(OrderIds::createdTo).max(Comparator.naturalOrder()).orElse(LATEST);
+    }
+
+    private static LocalDateTime createdAt(UUID id) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(id.getMostSignificantBits() >>> 16), ZoneId.systemDefault());
+    }
+}
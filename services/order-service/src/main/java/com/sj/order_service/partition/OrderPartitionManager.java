@@ -0,0 +1,159 @@
+package com.sj.order_service.partition;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps orders and order_items partitioned by month and detaches expired partitions into
+ * {@code order_archive}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderPartitionManager {
+
+    private static final List<String> TABLES = List.of("orders", "order_items");
+    private static final String ARCHIVE_SCHEMA = "order_archive";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'_p'yyyy_MM");
+    private static final Pattern PARTITION_NAME = Pattern.compile("_p(\\d{4})_(\\d{2})$");
+    // Advisory lock key so only one instance does maintenance at a time
+    private static final long MAINTENANCE_LOCK = 0x6f726465725f70L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${orders.partitioning.enabled:false}")
+    private boolean enabled;
+
+    @Value("${orders.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${orders.partitioning.retention-months:12}")
+    private int retentionMonths;
+
+    @Value("${orders.partitioning.archive-tablespace:}")
+    private String archiveTablespace;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${orders.partitioning.cron:0 15 3 * * *}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)",
+                        Boolean.class, MAINTENANCE_LOCK))) {
+                    return;
+                }
+                YearMonth current = YearMonth.now();
+                if (!isPartitioned("orders")) {
+                    convert(current);
+                }
+                for (int i = 0; i <= monthsAhead; i++) {
+                    createPartitions(current.plusMonths(i));
+                }
+                archiveBefore(current.minusMonths(retentionMonths));
+            });
+        } catch (DataAccessException e) {
+            log.error("Order partition maintenance failed", e);
+        }
+    }
+
+    private boolean isPartitioned(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(?))",
+                Boolean.class, table));
+    }
+
+    private void convert(YearMonth current) {
+        log.info("Converting orders and order_items to monthly partitions");
+        jdbcTemplate.execute("LOCK TABLE orders, order_items IN ACCESS EXCLUSIVE MODE");
+        jdbcTemplate.execute("UPDATE order_items i SET order_created_at = o.created_at FROM orders o " +
+                "WHERE i.order_id = o.id AND i.order_created_at IS NULL");
+        LocalDateTime oldest = jdbcTemplate.queryForObject("SELECT min(created_at) FROM orders", LocalDateTime.class);
+
+        jdbcTemplate.execute("ALTER TABLE orders RENAME TO orders_unpartitioned");
+        jdbcTemplate.execute("ALTER TABLE order_items RENAME TO order_items_unpartitioned");
+        jdbcTemplate.execute("CREATE TABLE orders (LIKE orders_unpartitioned INCLUDING DEFAULTS) " +
+                "PARTITION BY RANGE (created_at)");
+        jdbcTemplate.execute("ALTER TABLE orders ADD PRIMARY KEY (id, created_at)");
+        jdbcTemplate.execute("CREATE TABLE order_items (LIKE order_items_unpartitioned INCLUDING DEFAULTS) " +
+                "PARTITION BY RANGE (order_created_at)");
+        jdbcTemplate.execute("ALTER TABLE order_items ADD PRIMARY KEY (id, order_created_at)");
+
+        for (YearMonth month = oldest == null ? current : YearMonth.from(oldest);
+             !month.isAfter(current); month = month.plusMonths(1)) {
+            createPartitions(month);
+        }
+        jdbcTemplate.execute("INSERT INTO orders SELECT * FROM orders_unpartitioned");
+        jdbcTemplate.execute("INSERT INTO order_items SELECT * FROM order_items_unpartitioned");
+        jdbcTemplate.execute("DROP TABLE order_items_unpartitioned");
+        jdbcTemplate.execute("DROP TABLE orders_unpartitioned");
+
+        // Same names as the entity mappings, so schema updates find them; free again now the old tables are gone
+        jdbcTemplate.execute("CREATE INDEX idx_orders_customer_created ON orders (customer_id, created_at, id)");
+        jdbcTemplate.execute("CREATE INDEX idx_orders_seller_created ON orders (seller_id, created_at, id)");
+        jdbcTemplate.execute("CREATE INDEX idx_orders_parent_order_id ON orders (parent_order_id)");
+        jdbcTemplate.execute("CREATE INDEX idx_order_items_order_id ON order_items (order_id)");
+    }
+
+    private void createPartitions(YearMonth month) {
+        String from = month.atDay(1).toString();
+        String to = month.plusMonths(1).atDay(1).toString();
+        for (String table : TABLES) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table + month.format(PARTITION_SUFFIX) +
+                    " PARTITION OF " + table + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        }
+    }
+
+    private void archiveBefore(YearMonth cutoff) {
+        int archived = 0;
+        for (String table : TABLES) {
+            List<String> partitions = jdbcTemplate.queryForList(
+                    "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                            "WHERE i.inhparent = to_regclass(?)", String.class, table);
+            for (String partition : partitions) {
+                Matcher matcher = PARTITION_NAME.matcher(partition);
+                if (!matcher.find() || !YearMonth.of(Integer.parseInt(matcher.group(1)),
+                        Integer.parseInt(matcher.group(2))).isBefore(cutoff)) {
+                    continue;
+                }
+                jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + ARCHIVE_SCHEMA);
+                jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition);
+                jdbcTemplate.execute("ALTER TABLE " + partition + " SET SCHEMA " + ARCHIVE_SCHEMA);
+                if (!archiveTablespace.isBlank()) {
+                    jdbcTemplate.execute("ALTER TABLE " + ARCHIVE_SCHEMA + "." + partition +
+                            " SET TABLESPACE " + archiveTablespace);
+                }
+                archived++;
+                log.info("Archived partition {} to {}", partition, ARCHIVE_SCHEMA);
+            }
+        }
+        if (archived > 0) {
+            LocalDateTime boundary = cutoff.atDay(1).atStartOfDay();
+            jdbcTemplate.update("DELETE FROM order_idempotency_keys WHERE created_at < ?", boundary);
+            jdbcTemplate.update("DELETE FROM order_sagas WHERE created_at < ? AND status IN ('COMPLETED', 'COMPENSATED')",
+                    boundary);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.sj.order_service.payment;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public interface PaymentGateway {
+
+    String authorize(String idempotencyKey, UUID orderId, BigDecimal amount);
+
+    void capture(String idempotencyKey);
+
+    void voidAuthorization(String idempotencyKey);
+}
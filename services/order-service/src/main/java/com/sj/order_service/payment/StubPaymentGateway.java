@@ -0,0 +1,44 @@
+package com.sj.order_service.payment;
+
+import com.sj.order_service.exception.PaymentDeclinedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@Slf4j
+public class StubPaymentGateway implements PaymentGateway {
+
+    private final Map<String, String> authorizations = new ConcurrentHashMap<>();
+
+    @Value("${payment.stub.decline-above:#{null}}")
+    private BigDecimal declineAbove;
+
+    @Override
+    public String authorize(String idempotencyKey, UUID orderId, BigDecimal amount) {
+        if (declineAbove != null && amount != null && amount.compareTo(declineAbove) > 0) {
+            throw new PaymentDeclinedException("Payment declined for order " + orderId);
+        }
+        return authorizations.computeIfAbsent(idempotencyKey, key -> {
+            log.debug("Stub payment authorized {} for order {}", amount, orderId);
+            return "stub-" + UUID.randomUUID();
+        });
+    }
+
+    @Override
+    public void capture(String idempotencyKey) {
+        if (authorizations.remove(idempotencyKey) == null) {
+            log.debug("Stub payment capture without open authorization for key {}", idempotencyKey);
+        }
+    }
+
+    @Override
+    public void voidAuthorization(String idempotencyKey) {
+        authorizations.remove(idempotencyKey);
+    }
+}
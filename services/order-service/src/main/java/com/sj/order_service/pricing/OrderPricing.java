@@ -0,0 +1,59 @@
+package com.sj.order_service.pricing;
+
+import com.sj.order_service.dto.OrderItemRequest;
+import com.sj.order_service.dto.ProductPrice;
+import com.sj.order_service.entity.OrderItem;
+import com.sj.order_service.exception.InvalidOrderItemException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+public class OrderPricing {
+
+    private final ProductPriceCache productPriceCache;
+
+    public List<OrderItem> priceItems(List<OrderItemRequest> itemRequests) {
+        return priceItems(itemRequests, lookup(itemRequests.stream()
+                .map(OrderItemRequest::getProductId)
+                .collect(Collectors.toList())));
+    }
+
+    public List<OrderItem> priceItems(List<OrderItemRequest> itemRequests, Map<UUID, ProductPrice> prices) {
+        return itemRequests.stream()
+                .map(itemRequest -> mapToOrderItem(itemRequest, prices.get(itemRequest.getProductId())))
+                .collect(Collectors.toList());
+    }
+
+    public Map<UUID, ProductPrice> lookup(Collection<UUID> productIds) {
+        return productPriceCache.getPrices(productIds);
+    }
+
+    public static BigDecimal total(List<OrderItem> items) {
+        return items.stream()
+                .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private OrderItem mapToOrderItem(OrderItemRequest itemRequest, ProductPrice productPrice) {
+        if (productPrice == null || !productPrice.isPurchasable()) {
+            throw new InvalidOrderItemException("Product " + itemRequest.getProductId() + " is not available");
+        }
+        if (itemRequest.getPrice() != null && itemRequest.getPrice().compareTo(productPrice.getPrice()) != 0) {
+            throw new InvalidOrderItemException("Price of product " + itemRequest.getProductId()
+                    + " has changed to " + productPrice.getPrice());
+        }
+        return OrderItem.builder()
+                .productId(itemRequest.getProductId())
+                .quantity(itemRequest.getQuantity())
+                .price(productPrice.getPrice())
+                .build();
+    }
+}
@@ -0,0 +1,124 @@
+package com.sj.order_service.pricing;
+
+import com.sj.order_service.client.ProductClient;
+import com.sj.order_service.dto.ProductPrice;
+import com.sj.order_service.security.ServiceTokenProvider;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local copy of product prices kept current from product-service's change feed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductPriceCache {
+
+    private static final LocalDateTime FEED_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
+    private final ProductClient productClient;
+    private final ServiceTokenProvider serviceTokenProvider;
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    @Value("${orders.pricing.stale-after:2m}")
+    private Duration staleAfter;
+
+    @Value("${orders.pricing.page-size:500}")
+    private int pageSize;
+
+    @Value("${orders.pricing.max-entries:200000}")
+    private int maxEntries;
+
+    @Value("${orders.pricing.change-overlap:1m}")
+    private Duration changeOverlap;
+
+    private volatile long syncedAt;
+
+    private LocalDateTime watermark;
+
+    public Map<UUID, ProductPrice> getPrices(Collection<UUID> productIds) {
+        long freshAfter = System.currentTimeMillis() - staleAfter.toMillis();
+        Map<UUID, ProductPrice> prices = new HashMap<>();
+        List<UUID> misses = new ArrayList<>();
+        for (UUID productId : new LinkedHashSet<>(productIds)) {
+            Entry entry = entries.get(productId);
+            if (entry != null && Math.max(entry.loadedAt(), syncedAt) >= freshAfter) {
+                prices.put(productId, entry.price());
+            } else {
+                misses.add(productId);
+            }
+        }
+        if (!misses.isEmpty()) {
+            long loadedAt = System.currentTimeMillis();
+            for (ProductPrice price : productClient.getPrices(serviceTokenProvider.getToken(), misses).block()) {
+                store(price, loadedAt);
+                prices.put(price.getProductId(), price);
+            }
+        }
+        return prices;
+    }
+
+    // Each run re-reads change-overlap of seen changes to pick up late commits.
+    @Scheduled(fixedDelayString = "${orders.pricing.sync-interval-ms:30000}")
+    public void sync() {
+        long startedAt = System.currentTimeMillis();
+        LocalDateTime since = watermark == null ? FEED_START : watermark.minus(changeOverlap);
+        UUID afterId = FIRST_ID;
+        LocalDateTime newest = watermark;
+        int changes = 0;
+        try {
+            String token = serviceTokenProvider.getToken();
+            List<ProductPrice> page;
+            do {
+                page = productClient.getPriceChanges(token, since, afterId, pageSize).block();
+                for (ProductPrice price : page) {
+                    store(price, startedAt);
+                }
+                if (!page.isEmpty()) {
+                    ProductPrice last = page.get(page.size() - 1);
+                    since = last.getUpdatedAt();
+                    afterId = last.getProductId();
+                    newest = newest == null || since.isAfter(newest) ? since : newest;
+                    changes += page.size();
+                }
+            } while (page.size() == pageSize);
+        } catch (RuntimeException e) {
+            log.warn("Product price sync failed, cached prices expire after {}: {}", staleAfter, e.getMessage());
+            return;
+        }
+        if (watermark == null) {
+            log.info("Loaded {} product prices", changes);
+        }
+        watermark = newest;
+        syncedAt = startedAt;
+    }
+
+    private void store(ProductPrice price, long loadedAt) {
+        if (entries.size() >= maxEntries && !entries.containsKey(price.getProductId())) {
+            return;
+        }
+        // A lookup and the feed can race; never replace a newer price with an older one
+        entries.merge(price.getProductId(), new Entry(price, loadedAt), (current, incoming) ->
+                current.price().getUpdatedAt() != null && incoming.price().getUpdatedAt() != null
+                        && current.price().getUpdatedAt().isAfter(incoming.price().getUpdatedAt())
+                        ? current : incoming);
+    }
+
+    private record Entry(ProductPrice price, long loadedAt) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.sj.order_service.repository;
+
+import com.sj.order_service.entity.OrderIdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OrderIdempotencyKeyRepository extends JpaRepository<OrderIdempotencyKey, String> {
+
+    @Query("SELECT k.orderId FROM OrderIdempotencyKey k WHERE k.idempotencyKey IN :keys")
+    List<UUID> findOrderIds(@Param("keys") Collection<String> keys);
+
+    // Returns 0 if another order already holds the key.
+    @Modifying
+    @Query(value = "INSERT INTO order_idempotency_keys (idempotency_key, order_id, created_at) " +
+            "VALUES (:key, :orderId, :createdAt) ON CONFLICT (idempotency_key) DO NOTHING", nativeQuery = true)
+    int claim(@Param("key") String key, @Param("orderId") UUID orderId, @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OrderIdempotencyKey k WHERE k.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
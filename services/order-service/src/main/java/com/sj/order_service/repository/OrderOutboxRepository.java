@@ -0,0 +1,37 @@
+package com.sj.order_service.repository;
+
+import com.sj.order_service.entity.OrderOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OrderOutboxRepository extends JpaRepository<OrderOutboxEvent, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO order_outbox (id, order_id, event_type, payload, created_at) " +
+            "SELECT e.id, e.order_id, CAST(:eventType AS varchar), CAST(json_build_object(" +
+            "'eventId', e.id, 'eventType', CAST(:eventType AS varchar), 'orderId', e.order_id, " +
+            "'parentOrderId', e.parent_order_id, 'customerId', e.customer_id, 'sellerId', e.seller_id, " +
+            "'orderStatus', e.order_status, 'paymentStatus', e.payment_status, " +
+            "'failureReason', e.failure_reason, 'totalPrice', e.total_price, 'version', e.version, " +
+            "'occurredAt', CAST(:now AS timestamp)) AS text), CAST(:now AS timestamp) " +
+            "FROM (SELECT nextval('order_outbox_seq') AS id, o.id AS order_id, o.parent_order_id, o.customer_id, " +
+            "o.seller_id, o.order_status, o.payment_status, o.failure_reason, o.total_price, o.version " +
+            "FROM orders o WHERE o.id IN (:orderIds) AND o.created_at BETWEEN :createdFrom AND :createdTo " +
+            "ORDER BY o.id) e", nativeQuery = true)
+    int appendSnapshots(@Param("eventType") String eventType, @Param("orderIds") Collection<UUID> orderIds,
+                        @Param("createdFrom") LocalDateTime createdFrom, @Param("createdTo") LocalDateTime createdTo,
+                        @Param("now") LocalDateTime now);
+
+    @Query("SELECT e FROM OrderOutboxEvent e ORDER BY e.id")
+    List<OrderOutboxEvent> findNext(Pageable pageable);
+}
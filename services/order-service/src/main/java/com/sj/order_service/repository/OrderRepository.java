@@ -1,10 +1,138 @@
 package com.sj.order_service.repository;
 
+import com.sj.order_service.dto.OrderItemResponse;
+import com.sj.order_service.dto.OrderSummaryResponse;
 import com.sj.order_service.entity.Order;
+import com.sj.order_service.entity.OrderStatus;
+import com.sj.order_service.partition.OrderIds;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
-    // Additional query methods can be added here
-}
\ No newline at end of file
+public interface OrderRepository extends JpaRepository<Order, UUID> {
+
+    String SUMMARY = "SELECT new com.sj.order_service.dto.OrderSummaryResponse(o.id, o.customerId, o.sellerId, " +
+            "o.totalPrice, o.paymentStatus, o.orderStatus, o.createdAt, o.updatedAt) FROM Order o ";
+
+    // Lookups by id also bound createdAt by the range the id allows, so only one partition is read
+
+    @Query("SELECT o FROM Order o WHERE o.id = :id AND o.createdAt BETWEEN :from AND :to")
+    Optional<Order> findByIdCreatedBetween(@Param("id") UUID id, @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to);
+
+    default Optional<Order> findOrder(UUID id) {
+        return findByIdCreatedBetween(id, OrderIds.createdFrom(id), OrderIds.createdTo(id));
+    }
+
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items WHERE o.id = :id AND o.createdAt BETWEEN :from AND :to")
+    Optional<Order> findWithItemsByIdCreatedBetween(@Param("id") UUID id, @Param("from") LocalDateTime from,
+                                                    @Param("to") LocalDateTime to);
+
+    default Optional<Order> findWithItemsById(UUID id) {
+        return findWithItemsByIdCreatedBetween(id, OrderIds.createdFrom(id), OrderIds.createdTo(id));
+    }
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Order o SET o.orderStatus = :status, o.failureReason = :reason, o.updatedAt = :now, " +
+            "o.version = o.version + 1 WHERE o.id = :id AND o.createdAt BETWEEN :from AND :to " +
+            "AND o.orderStatus IN :expected")
+    int transitionStatus(@Param("id") UUID id, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                         @Param("expected") Collection<String> expected, @Param("status") String status,
+                         @Param("reason") String reason, @Param("now") LocalDateTime now);
+
+    default int transition(UUID id, OrderStatus expected, OrderStatus status, String reason, LocalDateTime now) {
+        return transitionStatus(id, OrderIds.createdFrom(id), OrderIds.createdTo(id), List.of(expected.name()),
+                status.name(), reason, now);
+    }
+
+    default int transition(UUID id, OrderStatus status, String reason, LocalDateTime now) {
+        return transitionStatus(id, OrderIds.createdFrom(id), OrderIds.createdTo(id),
+                OrderStatus.names(status.sources()), status.name(), reason, now);
+    }
+
+    @Query("SELECT o FROM Order o WHERE o.parentOrderId = :parentOrderId AND o.createdAt = :createdAt ORDER BY o.id")
+    List<Order> findSubOrders(@Param("parentOrderId") UUID parentOrderId, @Param("createdAt") LocalDateTime createdAt);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id AND o.createdAt = :createdAt")
+    Optional<Order> findForUpdate(@Param("id") UUID id, @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Order o SET o.paymentStatus = :paymentStatus, o.updatedAt = :now, o.version = o.version + 1 " +
+            "WHERE o.id = :id AND o.createdAt BETWEEN :from AND :to")
+    int updatePaymentStatus(@Param("id") UUID id, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                            @Param("paymentStatus") String paymentStatus, @Param("now") LocalDateTime now);
+
+    default int updatePaymentStatus(UUID id, String paymentStatus, LocalDateTime now) {
+        return updatePaymentStatus(id, OrderIds.createdFrom(id), OrderIds.createdTo(id), paymentStatus, now);
+    }
+
+    // An order PROCESSING since before staleBefore belonged to a dead worker.
+    @Modifying
+    @Transactional
+    @Query("UPDATE Order o SET o.orderStatus = 'PROCESSING', o.updatedAt = :now, o.version = o.version + 1 " +
+            "WHERE o.id = :id AND o.createdAt BETWEEN :from AND :to " +
+            "AND (o.orderStatus = 'PENDING' OR (o.orderStatus = 'PROCESSING' AND o.updatedAt < :staleBefore))")
+    int claimForProcessing(@Param("id") UUID id, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                           @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    default int claimForProcessing(UUID id, LocalDateTime now, LocalDateTime staleBefore) {
+        return claimForProcessing(id, OrderIds.createdFrom(id), OrderIds.createdTo(id), now, staleBefore);
+    }
+
+    // Orders that already reached the saga are resumed by the saga's own recovery instead
+    @Query("SELECT o.id FROM Order o WHERE o.orderStatus IN ('PENDING', 'PROCESSING') AND o.updatedAt < :staleBefore " +
+            "AND o.createdAt >= :createdAfter " +
+            "AND NOT EXISTS (SELECT 1 FROM OrderSaga s WHERE s.orderId = o.id) ORDER BY o.updatedAt")
+    List<UUID> findStalledIntakeIds(@Param("staleBefore") LocalDateTime staleBefore,
+                                    @Param("createdAfter") LocalDateTime createdAfter, Pageable pageable);
+
+    // Order history: newest first, keyset paged on (createdAt, id) so deep pages cost the same as the first.
+    // The lower bound on createdAt keeps the scan to the partitions still in the live table.
+    // Customers see the per-seller sub-orders of a split cart rather than the order grouping them.
+
+    @Query(SUMMARY + "WHERE o.customerId = :customerId AND o.split = false AND o.createdAt >= :since " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummaryResponse> findCustomerOrders(@Param("customerId") UUID customerId,
+                                                  @Param("since") LocalDateTime since, Pageable pageable);
+
+    @Query(SUMMARY + "WHERE o.customerId = :customerId AND o.split = false AND o.createdAt >= :since " +
+            "AND (o.createdAt, o.id) < (:createdAt, :orderId) ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummaryResponse> findCustomerOrdersBefore(@Param("customerId") UUID customerId,
+                                                        @Param("since") LocalDateTime since,
+                                                        @Param("createdAt") LocalDateTime createdAt,
+                                                        @Param("orderId") UUID orderId, Pageable pageable);
+
+    @Query(SUMMARY + "WHERE o.sellerId = :sellerId AND o.createdAt >= :since ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummaryResponse> findSellerOrders(@Param("sellerId") UUID sellerId,
+                                                @Param("since") LocalDateTime since, Pageable pageable);
+
+    @Query(SUMMARY + "WHERE o.sellerId = :sellerId AND o.createdAt >= :since " +
+            "AND (o.createdAt, o.id) < (:createdAt, :orderId) ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummaryResponse> findSellerOrdersBefore(@Param("sellerId") UUID sellerId,
+                                                      @Param("since") LocalDateTime since,
+                                                      @Param("createdAt") LocalDateTime createdAt,
+                                                      @Param("orderId") UUID orderId, Pageable pageable);
+
+    @Query("SELECT new com.sj.order_service.dto.OrderItemResponse(i.order.id, i.productId, i.quantity, i.price) " +
+            "FROM OrderItem i WHERE i.order.id IN :orderIds " +
+            "AND ((i.orderCreatedAt >= :from AND i.orderCreatedAt <= :to) OR i.orderCreatedAt IS NULL)")
+    List<OrderItemResponse> findItemsByOrderIds(@Param("orderIds") Collection<UUID> orderIds,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to);
+}
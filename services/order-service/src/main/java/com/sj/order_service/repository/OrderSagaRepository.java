@@ -0,0 +1,38 @@
+package com.sj.order_service.repository;
+
+import com.sj.order_service.entity.OrderSaga;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface OrderSagaRepository extends JpaRepository<OrderSaga, UUID> {
+
+    Optional<OrderSaga> findByOrderId(UUID orderId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE OrderSaga s SET s.lockedUntil = :until WHERE s.id = :id " +
+            "AND (s.lockedUntil IS NULL OR s.lockedUntil < :now)")
+    int acquireLease(@Param("id") UUID id, @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE OrderSaga s SET s.lockedUntil = NULL WHERE s.id = :id")
+    int releaseLease(@Param("id") UUID id);
+
+    @Query("SELECT s.id FROM OrderSaga s WHERE s.status IN :statuses AND s.nextAttemptAt <= :now " +
+            "AND (s.lockedUntil IS NULL OR s.lockedUntil < :now) ORDER BY s.nextAttemptAt")
+    List<UUID> findDueIds(@Param("statuses") Collection<OrderSaga.Status> statuses, @Param("now") LocalDateTime now,
+                          Pageable pageable);
+}
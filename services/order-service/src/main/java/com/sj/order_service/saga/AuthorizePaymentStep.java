@@ -0,0 +1,35 @@
+package com.sj.order_service.saga;
+
+import com.sj.order_service.payment.PaymentGateway;
+import com.sj.order_service.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+@Component
+@RequiredArgsConstructor
+public class AuthorizePaymentStep implements SagaStep {
+
+    private final PaymentGateway paymentGateway;
+    private final OrderRepository orderRepository;
+
+    @Override
+    public String name() {
+        return "AUTHORIZE_PAYMENT";
+    }
+
+    @Override
+    public void execute(OrderSagaContext context) {
+        String authorizationId = paymentGateway.authorize(context.idempotencyKey("authorize"),
+                context.getOrder().getId(), context.getOrder().getTotalPrice());
+        context.getSaga().setPaymentAuthorizationId(authorizationId);
+        orderRepository.updatePaymentStatus(context.getOrder().getId(), "AUTHORIZED", LocalDateTime.now());
+    }
+
+    @Override
+    public void compensate(OrderSagaContext context) {
+        paymentGateway.voidAuthorization(context.idempotencyKey("authorize"));
+        orderRepository.updatePaymentStatus(context.getOrder().getId(), "VOIDED", LocalDateTime.now());
+    }
+}
@@ -0,0 +1,48 @@
+package com.sj.order_service.saga;
+
+import com.sj.order_service.client.InventoryClient;
+import com.sj.order_service.entity.OrderStatus;
+import com.sj.order_service.outbox.OrderOutbox;
+import com.sj.order_service.payment.PaymentGateway;
+import com.sj.order_service.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+@Component
+@RequiredArgsConstructor
+public class ConfirmOrderStep implements SagaStep {
+
+    private final InventoryClient inventoryClient;
+    private final PaymentGateway paymentGateway;
+    private final OrderRepository orderRepository;
+    private final OrderOutbox orderOutbox;
+
+    @Override
+    public String name() {
+        return "CONFIRM_ORDER";
+    }
+
+    @Override
+    public void execute(OrderSagaContext context) {
+        inventoryClient.forEach(context.getOrder().getItems(), item -> inventoryClient.fulfillStock(
+                context.getToken(), item.getProductId(), item.getQuantity(),
+                context.reference(), context.idempotencyKey(item, "fulfill")))
+                .block();
+        paymentGateway.capture(context.idempotencyKey("authorize"));
+        LocalDateTime now = LocalDateTime.now();
+        orderRepository.updatePaymentStatus(context.getOrder().getId(), "CAPTURED", now);
+        orderOutbox.transition(context.getOrder().getId(), OrderStatus.PAID, null, now);
+    }
+
+    @Override
+    public void compensate(OrderSagaContext context) {
+        // Never called: the orchestrator does not compensate a step that is not compensable
+    }
+
+    @Override
+    public boolean compensable() {
+        return false;
+    }
+}
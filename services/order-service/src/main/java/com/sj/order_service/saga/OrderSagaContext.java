@@ -0,0 +1,30 @@
+package com.sj.order_service.saga;
+
+import com.sj.order_service.entity.Order;
+import com.sj.order_service.entity.OrderItem;
+import com.sj.order_service.entity.OrderSaga;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@AllArgsConstructor
+public class OrderSagaContext {
+
+    @Setter
+    private OrderSaga saga;
+    private final Order order;
+    private final String token;
+
+    public String reference() {
+        return "order:" + order.getId();
+    }
+
+    public String idempotencyKey(String operation) {
+        return "saga-" + saga.getId() + "-" + operation;
+    }
+
+    public String idempotencyKey(OrderItem item, String operation) {
+        return "saga-" + saga.getId() + "-" + item.getId() + "-" + operation;
+    }
+}
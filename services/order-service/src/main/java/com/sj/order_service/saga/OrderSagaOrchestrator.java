@@ -0,0 +1,250 @@
+package com.sj.order_service.saga;
+
+import com.sj.order_service.dto.OrderStatusResponse;
+import com.sj.order_service.entity.Order;
+import com.sj.order_service.entity.OrderSaga;
+import com.sj.order_service.entity.OrderStatus;
+import com.sj.order_service.exception.InsufficientStockException;
+import com.sj.order_service.exception.PaymentDeclinedException;
+import com.sj.order_service.intake.OrderStatusNotifier;
+import com.sj.order_service.outbox.OrderOutbox;
+import com.sj.order_service.repository.OrderRepository;
+import com.sj.order_service.repository.OrderSagaRepository;
+import com.sj.order_service.security.ServiceTokenProvider;
+import com.sj.order_service.split.SubOrderAggregator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Drives orders through reserve stock, authorize payment and confirm, saving progress after every
+ * step. Failures are retried with backoff; business failures compensate in reverse order.
+ */
+@Component
+@Slf4j
+public class OrderSagaOrchestrator {
+
+    private static final List<OrderSaga.Status> ACTIVE = List.of(OrderSaga.Status.RUNNING, OrderSaga.Status.COMPENSATING);
+
+    private final OrderSagaRepository sagaRepository;
+    private final OrderRepository orderRepository;
+    private final OrderOutbox orderOutbox;
+    private final ServiceTokenProvider serviceTokenProvider;
+    private final OrderStatusNotifier statusNotifier;
+    private final SubOrderAggregator subOrderAggregator;
+    private final ThreadPoolTaskExecutor executor;
+    private final List<SagaStep> steps;
+
+    @Value("${orders.saga.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${orders.saga.max-compensation-attempts:10}")
+    private int maxCompensationAttempts;
+
+    @Value("${orders.saga.backoff-base:1s}")
+    private Duration backoffBase;
+
+    @Value("${orders.saga.backoff-max:5m}")
+    private Duration backoffMax;
+
+    @Value("${orders.saga.lease:2m}")
+    private Duration lease;
+
+    public OrderSagaOrchestrator(OrderSagaRepository sagaRepository, OrderRepository orderRepository,
+                                 OrderOutbox orderOutbox,
+                                 ServiceTokenProvider serviceTokenProvider, OrderStatusNotifier statusNotifier,
+                                 SubOrderAggregator subOrderAggregator,
+                                 @Qualifier("orderIntakeExecutor") ThreadPoolTaskExecutor executor,
+                                 ReserveStockStep reserveStockStep, AuthorizePaymentStep authorizePaymentStep,
+                                 ConfirmOrderStep confirmOrderStep) {
+        this.sagaRepository = sagaRepository;
+        this.orderRepository = orderRepository;
+        this.orderOutbox = orderOutbox;
+        this.serviceTokenProvider = serviceTokenProvider;
+        this.statusNotifier = statusNotifier;
+        this.subOrderAggregator = subOrderAggregator;
+        this.executor = executor;
+        this.steps = List.of(reserveStockStep, authorizePaymentStep, confirmOrderStep);
+    }
+
+    public OrderSaga start(UUID orderId) {
+        OrderSaga saga = sagaRepository.findByOrderId(orderId).orElseGet(() -> create(orderId));
+        run(saga.getId());
+        return sagaRepository.findById(saga.getId()).orElse(saga);
+    }
+
+    @Scheduled(fixedDelayString = "${orders.saga.poll-interval-ms:5000}")
+    public void resumeDue() {
+        List<UUID> due = sagaRepository.findDueIds(ACTIVE, LocalDateTime.now(), PageRequest.of(0, 100));
+        for (UUID sagaId : due) {
+            try {
+                executor.execute(() -> run(sagaId));
+            } catch (TaskRejectedException e) {
+                log.warn("Worker pool full, leaving due sagas for the next poll");
+                return;
+            }
+        }
+    }
+
+    private OrderSaga create(UUID orderId) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            return sagaRepository.saveAndFlush(OrderSaga.builder()
+                    .orderId(orderId)
+                    .status(OrderSaga.Status.RUNNING)
+                    .currentStep(0)
+                    .attempt(0)
+                    .nextAttemptAt(now)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            return sagaRepository.findByOrderId(orderId).orElseThrow(() -> e);
+        }
+    }
+
+    void run(UUID sagaId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (sagaRepository.acquireLease(sagaId, now, now.plus(lease)) == 0) {
+            return;
+        }
+        try {
+            OrderSaga saga = sagaRepository.findById(sagaId).orElse(null);
+            if (saga == null) {
+                return;
+            }
+            Order order = orderRepository.findWithItemsById(saga.getOrderId()).orElse(null);
+            if (order == null) {
+                log.error("Saga {} refers to missing order {}", sagaId, saga.getOrderId());
+                return;
+            }
+            OrderSagaContext context = new OrderSagaContext(saga, order, serviceTokenProvider.getToken());
+            while (!saga.isFinished() && !saga.getNextAttemptAt().isAfter(LocalDateTime.now())) {
+                if (saga.getStatus() == OrderSaga.Status.RUNNING) {
+                    executeStep(context);
+                } else {
+                    compensateStep(context);
+                }
+                saga.setUpdatedAt(LocalDateTime.now());
+                saga = sagaRepository.save(saga);
+                context.setSaga(saga);
+            }
+            if (saga.isFinished()) {
+                onFinished(saga, order);
+            }
+        } finally {
+            sagaRepository.releaseLease(sagaId);
+        }
+    }
+
+    private void executeStep(OrderSagaContext context) {
+        OrderSaga saga = context.getSaga();
+        SagaStep step = steps.get(saga.getCurrentStep());
+        try {
+            step.execute(context);
+        } catch (RuntimeException e) {
+            saga.setLastError(truncate(step.name() + ": " + e.getMessage(), 1000));
+            int attempt = saga.getAttempt() + 1;
+            if (isRetryable(e) && attempt < maxAttempts) {
+                scheduleRetry(saga, attempt);
+                log.warn("Saga {} step {} failed (attempt {}), retrying: {}", saga.getId(), step.name(), attempt, e.getMessage());
+            } else if (!step.compensable()) {
+                saga.setStatus(OrderSaga.Status.FAILED);
+                log.error("Saga {} for order {} failed at pivot step {}", saga.getId(), saga.getOrderId(), step.name(), e);
+            } else {
+                // The failed step may have done part of its work, so compensation starts with it
+                saga.setStatus(OrderSaga.Status.COMPENSATING);
+                saga.setFailureReason(truncate(isRetryable(e)
+                        ? "Could not complete " + step.name() + ", please retry the order" : e.getMessage(), 500));
+                saga.setAttempt(0);
+                saga.setNextAttemptAt(LocalDateTime.now());
+            }
+            return;
+        }
+        saga.setAttempt(0);
+        saga.setLastError(null);
+        saga.setCurrentStep(saga.getCurrentStep() + 1);
+        if (saga.getCurrentStep() == steps.size()) {
+            saga.setStatus(OrderSaga.Status.COMPLETED);
+        }
+    }
+
+    private void compensateStep(OrderSagaContext context) {
+        OrderSaga saga = context.getSaga();
+        SagaStep step = steps.get(saga.getCurrentStep());
+        try {
+            step.compensate(context);
+        } catch (RuntimeException e) {
+            saga.setLastError(truncate("compensate " + step.name() + ": " + e.getMessage(), 1000));
+            int attempt = saga.getAttempt() + 1;
+            if (attempt < maxCompensationAttempts) {
+                scheduleRetry(saga, attempt);
+            } else {
+                saga.setStatus(OrderSaga.Status.FAILED);
+                log.error("Saga {} for order {} could not compensate {}", saga.getId(), saga.getOrderId(), step.name(), e);
+            }
+            return;
+        }
+        saga.setAttempt(0);
+        if (saga.getCurrentStep() == 0) {
+            saga.setStatus(OrderSaga.Status.COMPENSATED);
+        } else {
+            saga.setCurrentStep(saga.getCurrentStep() - 1);
+        }
+    }
+
+    private void onFinished(OrderSaga saga, Order order) {
+        LocalDateTime now = LocalDateTime.now();
+        switch (saga.getStatus()) {
+            case COMPLETED -> statusNotifier.publish(status(saga, OrderStatus.PAID, null, now));
+            case COMPENSATED -> {
+                orderOutbox.transition(saga.getOrderId(), OrderStatus.CANCELLED, saga.getFailureReason(), now);
+                statusNotifier.publish(status(saga, OrderStatus.CANCELLED, saga.getFailureReason(), now));
+            }
+            default -> {
+                // FAILED: the order keeps its last status for an operator to resolve
+            }
+        }
+        if (order.getParentOrderId() != null) {
+            subOrderAggregator.refresh(order.getParentOrderId(), order.getCreatedAt());
+        }
+    }
+
+    private void scheduleRetry(OrderSaga saga, int attempt) {
+        long base = backoffBase.toMillis() << Math.min(attempt - 1, 20);
+        long delay = Math.min(base, backoffMax.toMillis());
+        // Jitter keeps retries from many sagas hitting a recovering service at the same moment
+        long jittered = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        saga.setAttempt(attempt);
+        saga.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(jittered)));
+    }
+
+    private boolean isRetryable(RuntimeException e) {
+        return !(e instanceof InsufficientStockException || e instanceof PaymentDeclinedException);
+    }
+
+    private OrderStatusResponse status(OrderSaga saga, OrderStatus orderStatus, String reason, LocalDateTime now) {
+        return OrderStatusResponse.builder()
+                .orderId(saga.getOrderId())
+                .orderStatus(orderStatus.name())
+                .failureReason(reason)
+                .updatedAt(now)
+                .build();
+    }
+
+    private String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
@@ -0,0 +1,49 @@
+package com.sj.order_service.saga;
+
+import com.sj.order_service.client.InventoryClient;
+import com.sj.order_service.entity.OrderItem;
+import com.sj.order_service.entity.OrderStatus;
+import com.sj.order_service.exception.InsufficientStockException;
+import com.sj.order_service.outbox.OrderOutbox;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@Component
+@RequiredArgsConstructor
+public class ReserveStockStep implements SagaStep {
+
+    private final InventoryClient inventoryClient;
+    private final OrderOutbox orderOutbox;
+
+    @Override
+    public String name() {
+        return "RESERVE_STOCK";
+    }
+
+    @Override
+    public void execute(OrderSagaContext context) {
+        inventoryClient.forEach(context.getOrder().getItems(), item -> reserve(context, item)).block();
+        orderOutbox.transition(context.getOrder().getId(), OrderStatus.RESERVED, null, LocalDateTime.now());
+    }
+
+    // Reserved lines are not recorded, so each one is reserved again with its key and then released.
+    @Override
+    public void compensate(OrderSagaContext context) {
+        inventoryClient.forEach(context.getOrder().getItems(), item -> reserve(context, item)
+                .thenReturn(true)
+                .onErrorResume(InsufficientStockException.class, e -> Mono.just(false))
+                .flatMap(reserved -> reserved
+                        ? inventoryClient.releaseStock(context.getToken(), item.getProductId(), item.getQuantity(),
+                                context.reference(), context.idempotencyKey(item, "release"))
+                        : Mono.empty()))
+                .block();
+    }
+
+    private Mono<Void> reserve(OrderSagaContext context, OrderItem item) {
+        return inventoryClient.reserveStock(context.getToken(), item.getProductId(), item.getQuantity(),
+                context.reference(), context.idempotencyKey(item, "reserve"));
+    }
+}
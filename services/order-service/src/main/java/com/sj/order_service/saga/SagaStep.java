@@ -0,0 +1,19 @@
+package com.sj.order_service.saga;
+
+/**
+ * Both directions must be idempotent: a step may run again after a crash, and be compensated even
+ * if it never ran.
+ */
+public interface SagaStep {
+
+    String name();
+
+    void execute(OrderSagaContext context);
+
+    void compensate(OrderSagaContext context);
+
+    // False for the pivot step: once it has started the saga can only move forward.
+    default boolean compensable() {
+        return true;
+    }
+}
@@ -0,0 +1,39 @@
+package com.sj.order_service.security;
+
+import com.sj.order_service.entity.Order;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Map;
+import java.util.Objects;
+
+public final class OrderAccess {
+
+    private OrderAccess() {
+    }
+
+    public static boolean canView(Order order) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return false;
+        }
+        if (hasRole(authentication, "ADMIN") || hasRole(authentication, "SERVICE")) {
+            return true;
+        }
+        // The user-service token carries the user's UUID in its sellerId claim, for customers as well as sellers
+        String userId = authentication.getDetails() instanceof Map<?, ?> details
+                ? (String) details.get("sellerId") : null;
+        if (userId == null) {
+            return false;
+        }
+        return userId.equals(Objects.toString(order.getCustomerId(), null))
+                || (hasRole(authentication, "SELLER") && userId.equals(Objects.toString(order.getSellerId(), null)));
+    }
+
+    private static boolean hasRole(Authentication authentication, String role) {
+        return authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(("ROLE_" + role)::equals);
+    }
+}
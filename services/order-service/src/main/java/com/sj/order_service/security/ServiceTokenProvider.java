@@ -0,0 +1,38 @@
+package com.sj.order_service.security;
+
+import com.sj.order_service.util.JwtUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+@RequiredArgsConstructor
+public class ServiceTokenProvider {
+
+    private static final String SUBJECT = "order-service";
+    private static final long REFRESH_MS = 30 * 60 * 1000;
+
+    private final JwtUtil jwtUtil;
+    // A lock rather than synchronized, which would pin a virtual thread to its carrier
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile String token;
+    private volatile long refreshAt;
+
+    public String getToken() {
+        if (token == null || System.currentTimeMillis() >= refreshAt) {
+            refreshLock.lock();
+            try {
+                if (token == null || System.currentTimeMillis() >= refreshAt) {
+                    token = jwtUtil.generateToken(SUBJECT, Map.of("role", "SERVICE"));
+                    refreshAt = System.currentTimeMillis() + REFRESH_MS;
+                }
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+        return token;
+    }
+}
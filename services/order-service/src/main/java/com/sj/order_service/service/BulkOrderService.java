@@ -0,0 +1,11 @@
+package com.sj.order_service.service;
+
+import com.sj.order_service.dto.BulkOrderEntry;
+import com.sj.order_service.dto.BulkOrderResponse;
+
+import java.util.List;
+
+public interface BulkOrderService {
+
+    BulkOrderResponse submitOrders(List<BulkOrderEntry> entries);
+}
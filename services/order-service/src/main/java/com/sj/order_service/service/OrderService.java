@@ -1,10 +1,21 @@
 package com.sj.order_service.service;
 
+import com.sj.order_service.dto.OrderHistoryPage;
 import com.sj.order_service.dto.OrderRequest;
 import com.sj.order_service.entity.Order;
 import org.springframework.stereotype.Service;
 
+import java.util.UUID;
+
 @Service
 public interface OrderService {
-    Order createOrder(String token, OrderRequest orderRequest);
-}
\ No newline at end of file
+    Order createOrder(String token, OrderRequest orderRequest, String idempotencyKey);
+
+    Order submitOrder(OrderRequest orderRequest, String idempotencyKey);
+
+    Order getOrder(UUID orderId);
+
+    OrderHistoryPage getCustomerOrders(UUID customerId, String cursor, int limit, boolean includeItems);
+
+    OrderHistoryPage getSellerOrders(UUID sellerId, String cursor, int limit, boolean includeItems);
+}
@@ -0,0 +1,15 @@
+package com.sj.order_service.service;
+
+import com.sj.order_service.dto.BulkStatusTransitionRequest;
+import com.sj.order_service.dto.BulkStatusTransitionResponse;
+import com.sj.order_service.dto.OrderStatusResponse;
+import com.sj.order_service.dto.OrderStatusTransitionRequest;
+
+import java.util.UUID;
+
+public interface OrderStatusService {
+
+    OrderStatusResponse transition(UUID orderId, OrderStatusTransitionRequest request);
+
+    BulkStatusTransitionResponse transitionAll(BulkStatusTransitionRequest request);
+}
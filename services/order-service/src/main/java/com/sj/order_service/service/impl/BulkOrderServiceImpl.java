@@ -0,0 +1,176 @@
+package com.sj.order_service.service.impl;
+
+import com.sj.order_service.dto.BulkOrderEntry;
+import com.sj.order_service.dto.BulkOrderResponse;
+import com.sj.order_service.dto.BulkOrderResult;
+import com.sj.order_service.dto.OrderRequest;
+import com.sj.order_service.dto.ProductPrice;
+import com.sj.order_service.entity.Order;
+import com.sj.order_service.entity.OrderItem;
+import com.sj.order_service.entity.OrderStatus;
+import com.sj.order_service.exception.InvalidOrderItemException;
+import com.sj.order_service.intake.OrderDeduplicator;
+import com.sj.order_service.intake.OrderIntakeWorker;
+import com.sj.order_service.pricing.OrderPricing;
+import com.sj.order_service.service.BulkOrderService;
+import com.sj.order_service.split.OrderSplitter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkOrderServiceImpl implements BulkOrderService {
+
+    private final OrderPricing orderPricing;
+    private final OrderDeduplicator orderDeduplicator;
+    private final OrderIntakeWorker orderIntakeWorker;
+    private final OrderSplitter orderSplitter;
+
+    // Orders saved per transaction; each chunk is a handful of batched statements
+    @Value("${orders.bulk.chunk-size:100}")
+    private int chunkSize;
+
+    @Override
+    public BulkOrderResponse submitOrders(List<BulkOrderEntry> entries) {
+        long startedAt = System.currentTimeMillis();
+        BulkOrderResult[] results = new BulkOrderResult[entries.size()];
+
+        List<List<String>> keys = new ArrayList<>(entries.size());
+        Set<String> allKeys = new HashSet<>();
+        Set<UUID> productIds = new HashSet<>();
+        for (BulkOrderEntry entry : entries) {
+            List<String> entryKeys = orderDeduplicator.keysFor(entry.getOrder(), entry.getReference());
+            keys.add(entryKeys);
+            allKeys.addAll(entryKeys);
+            entry.getOrder().getItems().forEach(item -> productIds.add(item.getProductId()));
+        }
+        // One lookup each for earlier submissions and for prices, shared by the whole batch
+        Map<String, UUID> existing = orderDeduplicator.findExistingByKey(allKeys);
+        Map<UUID, ProductPrice> prices = orderPricing.lookup(productIds);
+
+        Map<String, Integer> firstIndexByKey = new HashMap<>();
+        List<Integer> indexes = new ArrayList<>();
+        List<Order> orders = new ArrayList<>();
+        List<String> orderKeys = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            BulkOrderEntry entry = entries.get(i);
+            UUID existingId = keys.get(i).stream().map(existing::get).filter(Objects::nonNull).findFirst().orElse(null);
+            if (existingId != null) {
+                results[i] = result(i, entry, existingId, BulkOrderResult.Status.DUPLICATE, "Already submitted");
+                continue;
+            }
+            Integer earlier = keys.get(i).stream().map(firstIndexByKey::get).filter(Objects::nonNull).findFirst().orElse(null);
+            if (earlier != null) {
+                results[i] = result(i, entry, null, BulkOrderResult.Status.DUPLICATE, "Duplicate of entry " + earlier);
+                continue;
+            }
+            try {
+                List<OrderItem> orderItems = orderPricing.priceItems(entry.getOrder().getItems(), prices);
+                UUID sellerId = orderSplitter.singleSeller(orderItems, prices, entry.getOrder().getSellerId());
+                orders.add(newOrder(entry.getOrder(), sellerId, orderItems));
+            } catch (InvalidOrderItemException e) {
+                results[i] = result(i, entry, null, BulkOrderResult.Status.INVALID, e.getMessage());
+                continue;
+            }
+            firstIndexByKey.put(keys.get(i).get(0), i);
+            indexes.add(i);
+            orderKeys.add(keys.get(i).get(0));
+        }
+
+        boolean intakeFull = false;
+        for (int from = 0; from < orders.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, orders.size());
+            List<Order> chunk = orders.subList(from, to);
+            List<String> chunkKeys = orderKeys.subList(from, to);
+            boolean batched = orderDeduplicator.saveAllOnce(chunk, chunkKeys);
+            for (int k = 0; k < chunk.size(); k++) {
+                int index = indexes.get(from + k);
+                BulkOrderEntry entry = entries.get(index);
+                Order order = chunk.get(k);
+                if (!batched) {
+                    // Another request claimed one of the keys meanwhile; settle this chunk one order at a time
+                    clearIds(order);
+                    Order saved = orderDeduplicator.saveOnce(order, chunkKeys.get(k));
+                    if (saved == null) {
+                        UUID existingId = orderDeduplicator.findAnyExisting(keys.get(index)).orElse(null);
+                        results[index] = result(index, entry, existingId, BulkOrderResult.Status.DUPLICATE,
+                                "Already submitted");
+                        continue;
+                    }
+                }
+                String message = null;
+                if (!intakeFull) {
+                    try {
+                        orderIntakeWorker.submit(order.getId());
+                    } catch (TaskRejectedException e) {
+                        intakeFull = true;
+                    }
+                }
+                if (intakeFull) {
+                    message = "Intake is busy, processing is delayed";
+                }
+                results[index] = result(index, entry, order.getId(), BulkOrderResult.Status.ACCEPTED, message);
+            }
+        }
+
+        Map<BulkOrderResult.Status, Integer> outcomes = new EnumMap<>(BulkOrderResult.Status.class);
+        for (BulkOrderResult result : results) {
+            outcomes.merge(result.getStatus(), 1, Integer::sum);
+        }
+        log.info("Bulk submission of {} orders: {}", entries.size(), outcomes);
+        return BulkOrderResponse.builder()
+                .received(entries.size())
+                .outcomes(outcomes)
+                .durationMs(System.currentTimeMillis() - startedAt)
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    private Order newOrder(OrderRequest orderRequest, UUID sellerId, List<OrderItem> orderItems) {
+        LocalDateTime now = LocalDateTime.now();
+        Order order = Order.builder()
+                .customerId(orderRequest.getCustomerId())
+                .sellerId(sellerId)
+                .paymentStatus(orderRequest.getPaymentStatus())
+                .orderStatus(OrderStatus.PENDING.name())
+                .createdAt(now)
+                .updatedAt(now)
+                .totalPrice(OrderPricing.total(orderItems))
+                .build();
+        order.setItems(orderItems);
+        return order;
+    }
+
+    // Ids assigned by a rolled back insert must not be reused, or the retry is treated as an update
+    private void clearIds(Order order) {
+        order.setId(null);
+        order.getItems().forEach(item -> item.setId(null));
+    }
+
+    private BulkOrderResult result(int index, BulkOrderEntry entry, UUID orderId, BulkOrderResult.Status status,
+                                   String message) {
+        return BulkOrderResult.builder()
+                .index(index)
+                .reference(entry.getReference())
+                .orderId(orderId)
+                .status(status)
+                .message(message)
+                .build();
+    }
+}
@@ -1,19 +1,42 @@
 package com.sj.order_service.service.impl;
 
+import com.sj.order_service.dto.OrderCursor;
+import com.sj.order_service.dto.OrderHistoryPage;
 import com.sj.order_service.dto.OrderItemRequest;
+import com.sj.order_service.dto.OrderItemResponse;
 import com.sj.order_service.dto.OrderRequest;
+import com.sj.order_service.dto.OrderSummaryResponse;
+import com.sj.order_service.dto.ProductPrice;
 import com.sj.order_service.entity.Order;
 import com.sj.order_service.entity.OrderItem;
+import com.sj.order_service.entity.OrderSaga;
+import com.sj.order_service.entity.OrderStatus;
+import com.sj.order_service.exception.OrderCancelledException;
+import com.sj.order_service.exception.OrderNotFoundException;
+import com.sj.order_service.intake.OrderDeduplicator;
+import com.sj.order_service.intake.OrderIntakeWorker;
+import com.sj.order_service.pricing.OrderPricing;
 import com.sj.order_service.repository.OrderRepository;
+import com.sj.order_service.saga.OrderSagaOrchestrator;
 import com.sj.order_service.service.OrderService;
-import jakarta.transaction.Transactional;
+import com.sj.order_service.split.OrderSplitter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,50 +45,192 @@ import java.util.stream.Collectors;
 public class OrderServiceImpl implements OrderService {
 
     private final OrderRepository orderRepository;
+    private final OrderIntakeWorker orderIntakeWorker;
+    private final OrderSagaOrchestrator orderSagaOrchestrator;
+    private final OrderPricing orderPricing;
+    private final OrderDeduplicator orderDeduplicator;
+    private final OrderSplitter orderSplitter;
+
+    @Value("${orders.partitioning.retention-months:12}")
+    private int retentionMonths;
+
+    @Override
+    public Order createOrder(String token, OrderRequest orderRequest, String idempotencyKey) {
+        List<String> keys = orderDeduplicator.keysFor(orderRequest, idempotencyKey);
+        Optional<UUID> existing = orderDeduplicator.findAnyExisting(keys);
+        if (existing.isPresent()) {
+            return replay(existing.get());
+        }
+
+        Map<UUID, ProductPrice> prices = orderPricing.lookup(orderRequest.getItems().stream()
+                .map(OrderItemRequest::getProductId)
+                .collect(Collectors.toList()));
+        List<OrderItem> orderItems = orderPricing.priceItems(orderRequest.getItems(), prices);
+        Map<UUID, List<OrderItem>> bySeller = orderSplitter.groupBySeller(orderItems, prices, orderRequest.getSellerId());
+        if (bySeller.size() > 1) {
+            return createSplitOrder(orderRequest, bySeller, keys);
+        }
+
+        Order order = newOrder(orderRequest, bySeller.keySet().iterator().next(), orderItems);
+        Order saved = orderDeduplicator.saveOnce(order, keys.get(0));
+        if (saved == null) {
+            return replay(findRacingDuplicate(keys));
+        }
+        OrderSaga saga = orderSagaOrchestrator.start(saved.getId());
+        if (saga.getStatus() == OrderSaga.Status.COMPENSATED) {
+            throw new OrderCancelledException(saga.getFailureReason());
+        }
+        // Still retrying or already confirmed; either way the current state is what the client gets
+        return getOrder(saved.getId());
+    }
+
+    private Order createSplitOrder(OrderRequest orderRequest, Map<UUID, List<OrderItem>> bySeller, List<String> keys) {
+        List<Order> subOrders = new ArrayList<>(bySeller.size());
+        Order parent = newOrder(orderRequest, null, List.of());
+        parent.setSplit(true);
+        bySeller.forEach((sellerId, items) -> {
+            Order subOrder = newOrder(orderRequest, sellerId, items);
+            // Same createdAt as the parent, so all of them land in one partition
+            subOrder.setCreatedAt(parent.getCreatedAt());
+            subOrders.add(subOrder);
+        });
+        parent.setTotalPrice(subOrders.stream().map(Order::getTotalPrice).reduce(BigDecimal.ZERO, BigDecimal::add));
+
+        Order saved = orderDeduplicator.saveOnce(parent, subOrders, keys.get(0));
+        if (saved == null) {
+            return replay(findRacingDuplicate(keys));
+        }
+        Order result = orderSplitter.checkout(saved, subOrders);
+        if (OrderStatus.CANCELLED.name().equals(result.getOrderStatus())) {
+            throw new OrderCancelledException(result.getFailureReason());
+        }
+        return result;
+    }
+
+    private Order newOrder(OrderRequest orderRequest, UUID sellerId, List<OrderItem> items) {
+        LocalDateTime now = LocalDateTime.now();
+        Order order = Order.builder()
+                .customerId(orderRequest.getCustomerId())
+                .sellerId(sellerId)
+                .paymentStatus(orderRequest.getPaymentStatus())
+                .orderStatus(OrderStatus.PROCESSING.name())
+                .createdAt(now)
+                .updatedAt(now)
+                .totalPrice(OrderPricing.total(items))
+                .build();
+        // Set items and maintain bidirectional relationship
+        order.setItems(new ArrayList<>(items));
+        return order;
+    }
 
     @Override
-    @Transactional
-    public Order createOrder(String token, OrderRequest orderRequest) {
-        List<OrderItem> orderItems = orderRequest.getItems().stream()
-                .map(this::mapToOrderItem)
-                .collect(Collectors.toList());
-
-        BigDecimal totalPrice = orderItems.stream()
-                .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Check and decrement inventory stock for each item before saving order
-//    for (OrderItem item : orderItems) {
-//        boolean stockUpdated = inventoryClient.decrementStock(token, item.getProductId(), item.getQuantity());
-//        if (!stockUpdated) {
-//            throw new InsufficientStockException("Insufficient stock for product ID " + item.getProductId());
-//        }
-//    }
-
-        // Use builder pattern to create Order
+    public Order submitOrder(OrderRequest orderRequest, String idempotencyKey) {
+        List<String> keys = orderDeduplicator.keysFor(orderRequest, idempotencyKey);
+        Optional<UUID> existing = orderDeduplicator.findAnyExisting(keys);
+        if (existing.isPresent()) {
+            return getOrder(existing.get());
+        }
+
+        Map<UUID, ProductPrice> prices = orderPricing.lookup(orderRequest.getItems().stream()
+                .map(OrderItemRequest::getProductId)
+                .collect(Collectors.toList()));
+        List<OrderItem> orderItems = orderPricing.priceItems(orderRequest.getItems(), prices);
+        UUID sellerId = orderSplitter.singleSeller(orderItems, prices, orderRequest.getSellerId());
+        BigDecimal totalPrice = OrderPricing.total(orderItems);
+
         Order order = Order.builder()
                 .customerId(orderRequest.getCustomerId())
-                .sellerId(orderRequest.getSellerId())
+                .sellerId(sellerId)
                 .paymentStatus(orderRequest.getPaymentStatus())
-                .orderStatus("NEW")
+                .orderStatus(OrderStatus.PENDING.name())
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .totalPrice(totalPrice)
                 .build();
-
-        // Set items and maintain bidirectional relationship
         order.setItems(orderItems);
 
-        return orderRepository.save(order);
+        // Saved in its own transaction: a worker must never pick up an order that is not committed yet
+        Order saved = orderDeduplicator.saveOnce(order, keys.get(0));
+        if (saved == null) {
+            return getOrder(findRacingDuplicate(keys));
+        }
+        try {
+            orderIntakeWorker.submit(saved.getId());
+        } catch (TaskRejectedException e) {
+            // The order is committed as PENDING; resubmitStalled picks it up once the pool has room
+            log.warn("Order intake is at capacity, order {} waits for the stalled-intake sweep", saved.getId());
+        }
+        return saved;
     }
 
+    private UUID findRacingDuplicate(List<String> keys) {
+        return orderDeduplicator.findAnyExisting(keys)
+                .orElseThrow(() -> new IllegalStateException("Duplicate order was not found"));
+    }
 
-    private OrderItem mapToOrderItem(OrderItemRequest itemRequest) {
-        return OrderItem.builder()
-                .productId(itemRequest.getProductId())
-                .quantity(itemRequest.getQuantity())
-                .price(itemRequest.getPrice())
-                .build();
+    private Order replay(UUID orderId) {
+        Order order = getOrder(orderId);
+        if (OrderStatus.CANCELLED.name().equals(order.getOrderStatus())) {
+            throw new OrderCancelledException(order.getFailureReason());
+        }
+        return order;
+    }
+
+    @Override
+    public Order getOrder(UUID orderId) {
+        Order order = orderRepository.findOrder(orderId)
+                .orElseThrow(() -> new OrderNotFoundException("Order not found: " + orderId));
+        if (order.isSplit()) {
+            order.setSubOrders(orderRepository.findSubOrders(order.getId(), order.getCreatedAt()));
+        }
+        return order;
+    }
+
+    @Override
+    public OrderHistoryPage getCustomerOrders(UUID customerId, String cursor, int limit, boolean includeItems) {
+        LocalDateTime since = historyHorizon();
+        return historyPage(cursor, limit, includeItems,
+                pageable -> orderRepository.findCustomerOrders(customerId, since, pageable),
+                (after, pageable) -> orderRepository.findCustomerOrdersBefore(customerId, since, after.createdAt(),
+                        after.orderId(), pageable));
+    }
+
+    @Override
+    public OrderHistoryPage getSellerOrders(UUID sellerId, String cursor, int limit, boolean includeItems) {
+        LocalDateTime since = historyHorizon();
+        return historyPage(cursor, limit, includeItems,
+                pageable -> orderRepository.findSellerOrders(sellerId, since, pageable),
+                (after, pageable) -> orderRepository.findSellerOrdersBefore(sellerId, since, after.createdAt(),
+                        after.orderId(), pageable));
+    }
+
+    private LocalDateTime historyHorizon() {
+        return LocalDate.now().withDayOfMonth(1).minusMonths(retentionMonths).atStartOfDay();
+    }
+
+    private OrderHistoryPage historyPage(String cursor, int limit, boolean includeItems,
+                                         Function<PageRequest, List<OrderSummaryResponse>> firstPage,
+                                         BiFunction<OrderCursor, PageRequest, List<OrderSummaryResponse>> nextPage) {
+        // One extra row tells whether there is another page without a count query
+        PageRequest pageable = PageRequest.of(0, limit + 1);
+        List<OrderSummaryResponse> orders = cursor == null || cursor.isBlank()
+                ? firstPage.apply(pageable)
+                : nextPage.apply(OrderCursor.decode(cursor), pageable);
+        String nextCursor = null;
+        if (orders.size() > limit) {
+            orders = new ArrayList<>(orders.subList(0, limit));
+            nextCursor = OrderCursor.after(orders.get(limit - 1)).encode();
+        }
+        if (includeItems && !orders.isEmpty()) {
+            Map<UUID, List<OrderItemResponse>> items = orderRepository.findItemsByOrderIds(orders.stream()
+                                    .map(OrderSummaryResponse::getOrderId)
+                                    .collect(Collectors.toList()),
+                            orders.get(orders.size() - 1).getCreatedAt(), orders.get(0).getCreatedAt())
+                    .stream()
+                    .collect(Collectors.groupingBy(OrderItemResponse::getOrderId));
+            orders.forEach(order -> order.setItems(items.getOrDefault(order.getOrderId(), List.of())));
+        }
+        return new OrderHistoryPage(orders, nextCursor);
     }
 
-}
\ No newline at end of file
+}
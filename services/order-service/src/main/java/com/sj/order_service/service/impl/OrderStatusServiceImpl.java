@@ -0,0 +1,182 @@
+package com.sj.order_service.service.impl;
+
+import com.sj.order_service.dto.BulkStatusTransitionRequest;
+import com.sj.order_service.dto.BulkStatusTransitionResponse;
+import com.sj.order_service.dto.OrderStatusResponse;
+import com.sj.order_service.dto.OrderStatusTransitionRequest;
+import com.sj.order_service.dto.StatusConflict;
+import com.sj.order_service.dto.StatusTransitionEntry;
+import com.sj.order_service.entity.OrderStatus;
+import com.sj.order_service.exception.InvalidStatusTransitionException;
+import com.sj.order_service.exception.OrderNotFoundException;
+import com.sj.order_service.intake.OrderStatusNotifier;
+import com.sj.order_service.outbox.OrderEventType;
+import com.sj.order_service.outbox.OrderOutbox;
+import com.sj.order_service.partition.OrderIds;
+import com.sj.order_service.service.OrderStatusService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderStatusServiceImpl implements OrderStatusService {
+
+    // Split orders only group their sub-orders, which are what gets shipped. The created_at bounds
+    // cover every requested id, so only the partitions those orders can be in are read.
+    private static final String TRANSITION_SQL = "UPDATE orders o SET order_status = ?, failure_reason = ?, " +
+            "updated_at = ?, version = o.version + 1 " +
+            "FROM unnest(?, ?) AS t(id, expected_version) " +
+            "WHERE o.id = t.id AND o.created_at BETWEEN ? AND ? AND o.order_status = ANY(?) AND NOT o.split " +
+            "AND (t.expected_version IS NULL OR o.version = t.expected_version) " +
+            "RETURNING o.id, o.version";
+    private static final String CURRENT_SQL = "SELECT id, order_status, version FROM orders " +
+            "WHERE id = ANY(?) AND created_at BETWEEN ? AND ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderOutbox orderOutbox;
+    private final OrderStatusNotifier statusNotifier;
+
+    @Override
+    public OrderStatusResponse transition(UUID orderId, OrderStatusTransitionRequest request) {
+        StatusTransitionEntry entry = new StatusTransitionEntry();
+        entry.setOrderId(orderId);
+        entry.setExpectedVersion(request.getExpectedVersion());
+        LocalDateTime now = LocalDateTime.now();
+        Map<UUID, Long> updated = update(List.of(entry), request.getStatus(), request.getReason(), now);
+        if (updated.containsKey(orderId)) {
+            return OrderStatusResponse.builder()
+                    .orderId(orderId)
+                    .orderStatus(request.getStatus().name())
+                    .failureReason(failureReason(request.getStatus(), request.getReason()))
+                    .updatedAt(now)
+                    .version(updated.get(orderId))
+                    .build();
+        }
+        StatusConflict current = current(List.of(orderId)).get(orderId);
+        if (current == null) {
+            throw new OrderNotFoundException("Order not found: " + orderId);
+        }
+        throw new InvalidStatusTransitionException(conflictMessage(current, request.getStatus(),
+                request.getExpectedVersion()));
+    }
+
+    @Override
+    public BulkStatusTransitionResponse transitionAll(BulkStatusTransitionRequest request) {
+        long started = System.nanoTime();
+        Map<UUID, StatusTransitionEntry> entries = new LinkedHashMap<>();
+        request.getOrders().forEach(entry -> entries.putIfAbsent(entry.getOrderId(), entry));
+
+        Map<UUID, Long> updated = update(new ArrayList<>(entries.values()), request.getStatus(), request.getReason(),
+                LocalDateTime.now());
+        List<UUID> missed = entries.keySet().stream().filter(id -> !updated.containsKey(id))
+                .collect(Collectors.toList());
+        Map<UUID, StatusConflict> current = missed.isEmpty() ? Map.of() : current(missed);
+
+        List<UUID> notFound = new ArrayList<>();
+        List<StatusConflict> conflicts = new ArrayList<>();
+        for (UUID orderId : missed) {
+            StatusConflict conflict = current.get(orderId);
+            if (conflict == null) {
+                notFound.add(orderId);
+            } else {
+                conflicts.add(conflict);
+            }
+        }
+        log.info("Moved {} of {} orders to {}", updated.size(), entries.size(), request.getStatus());
+        return BulkStatusTransitionResponse.builder()
+                .requested(entries.size())
+                .updated(new ArrayList<>(updated.keySet()))
+                .notFound(notFound)
+                .conflicts(conflicts)
+                .durationMs((System.nanoTime() - started) / 1_000_000)
+                .build();
+    }
+
+    private Map<UUID, Long> update(List<StatusTransitionEntry> entries, OrderStatus status, String reason,
+                                   LocalDateTime now) {
+        Set<OrderStatus> sources = status.fulfillmentSources();
+        if (sources.isEmpty()) {
+            throw new IllegalArgumentException("Orders cannot be moved to " + status + " outside checkout");
+        }
+        UUID[] ids = new UUID[entries.size()];
+        Long[] versions = new Long[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            ids[i] = entries.get(i).getOrderId();
+            versions[i] = entries.get(i).getExpectedVersion();
+        }
+        LocalDateTime createdFrom = OrderIds.createdFrom(Arrays.asList(ids));
+        LocalDateTime createdTo = OrderIds.createdTo(Arrays.asList(ids));
+        Map<UUID, Long> updated = new LinkedHashMap<>();
+        transactionTemplate.executeWithoutResult(tx -> {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(TRANSITION_SQL);
+                ps.setString(1, status.name());
+                ps.setString(2, failureReason(status, reason));
+                ps.setTimestamp(3, Timestamp.valueOf(now));
+                ps.setArray(4, con.createArrayOf("uuid", ids));
+                ps.setArray(5, con.createArrayOf("int8", versions));
+                ps.setTimestamp(6, Timestamp.valueOf(createdFrom));
+                ps.setTimestamp(7, Timestamp.valueOf(createdTo));
+                ps.setArray(8, con.createArrayOf("varchar", OrderStatus.names(sources).toArray()));
+                return ps;
+            }, rs -> {
+                updated.put(rs.getObject(1, UUID.class), rs.getLong(2));
+            });
+            // Events for the whole batch in one INSERT ... SELECT, committed with the UPDATE
+            orderOutbox.append(OrderEventType.ORDER_STATUS_CHANGED, updated.keySet());
+        });
+        for (UUID orderId : updated.keySet()) {
+            statusNotifier.publish(OrderStatusResponse.builder()
+                    .orderId(orderId)
+                    .orderStatus(status.name())
+                    .failureReason(failureReason(status, reason))
+                    .updatedAt(now)
+                    .version(updated.get(orderId))
+                    .build());
+        }
+        return updated;
+    }
+
+    private Map<UUID, StatusConflict> current(List<UUID> orderIds) {
+        Map<UUID, StatusConflict> current = new LinkedHashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(CURRENT_SQL);
+            ps.setArray(1, con.createArrayOf("uuid", orderIds.toArray()));
+            ps.setTimestamp(2, Timestamp.valueOf(OrderIds.createdFrom(orderIds)));
+            ps.setTimestamp(3, Timestamp.valueOf(OrderIds.createdTo(orderIds)));
+            return ps;
+        }, rs -> {
+            UUID orderId = rs.getObject(1, UUID.class);
+            current.put(orderId, new StatusConflict(orderId, rs.getString(2), rs.getLong(3)));
+        });
+        return current;
+    }
+
+    private static String failureReason(OrderStatus status, String reason) {
+        return status == OrderStatus.CANCELLED ? reason : null;
+    }
+
+    private static String conflictMessage(StatusConflict current, OrderStatus status, Long expectedVersion) {
+        if (expectedVersion != null && expectedVersion != current.getVersion()) {
+            return "Order " + current.getOrderId() + " has changed, its current version is " + current.getVersion();
+        }
+        return "Order " + current.getOrderId() + " cannot move from " + current.getOrderStatus() + " to " + status;
+    }
+}
@@ -0,0 +1,65 @@
+package com.sj.order_service.split;
+
+import com.sj.order_service.dto.ProductPrice;
+import com.sj.order_service.entity.Order;
+import com.sj.order_service.entity.OrderItem;
+import com.sj.order_service.entity.OrderSaga;
+import com.sj.order_service.exception.InvalidOrderItemException;
+import com.sj.order_service.saga.OrderSagaOrchestrator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderSplitter {
+
+    private final OrderSagaOrchestrator orderSagaOrchestrator;
+    private final SubOrderAggregator subOrderAggregator;
+
+    public Map<UUID, List<OrderItem>> groupBySeller(List<OrderItem> items, Map<UUID, ProductPrice> prices,
+                                                    UUID defaultSellerId) {
+        Map<UUID, List<OrderItem>> groups = new LinkedHashMap<>();
+        for (OrderItem item : items) {
+            UUID sellerId = prices.get(item.getProductId()).getSellerId();
+            groups.computeIfAbsent(sellerId != null ? sellerId : defaultSellerId, id -> new ArrayList<>()).add(item);
+        }
+        return groups;
+    }
+
+    public UUID singleSeller(List<OrderItem> items, Map<UUID, ProductPrice> prices, UUID defaultSellerId) {
+        Map<UUID, List<OrderItem>> groups = groupBySeller(items, prices, defaultSellerId);
+        if (groups.size() > 1) {
+            throw new InvalidOrderItemException("Cart holds products of " + groups.size()
+                    + " sellers; place it through POST /api/orders to have it split");
+        }
+        return groups.isEmpty() ? defaultSellerId : groups.keySet().iterator().next();
+    }
+
+    public Order checkout(Order parent, List<Order> subOrders) {
+        List<Future<OrderSaga>> sagas = new ArrayList<>(subOrders.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Order subOrder : subOrders) {
+                sagas.add(executor.submit(() -> orderSagaOrchestrator.start(subOrder.getId())));
+            }
+        }
+        for (int i = 0; i < sagas.size(); i++) {
+            if (sagas.get(i).state() == Future.State.FAILED) {
+                // Left in PROCESSING, where saga or intake recovery picks it up and refreshes the parent
+                log.error("Checkout of sub-order {} of order {} failed", subOrders.get(i).getId(), parent.getId(),
+                        sagas.get(i).exceptionNow());
+            }
+        }
+        return subOrderAggregator.refresh(parent.getId(), parent.getCreatedAt());
+    }
+}
@@ -0,0 +1,107 @@
+package com.sj.order_service.split;
+
+import com.sj.order_service.dto.OrderStatusResponse;
+import com.sj.order_service.entity.Order;
+import com.sj.order_service.entity.OrderStatus;
+import com.sj.order_service.intake.OrderStatusNotifier;
+import com.sj.order_service.outbox.OrderOutbox;
+import com.sj.order_service.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+public class SubOrderAggregator {
+
+    private final OrderRepository orderRepository;
+    private final OrderOutbox orderOutbox;
+    private final OrderStatusNotifier statusNotifier;
+    private final TransactionTemplate transactionTemplate;
+
+    public Order refresh(UUID parentOrderId, LocalDateTime createdAt) {
+        AtomicBoolean changed = new AtomicBoolean();
+        Order parent = transactionTemplate.execute(status -> {
+            // Sub-orders finishing at the same moment take turns here, so the last refresh sees all of them
+            Order locked = orderRepository.findForUpdate(parentOrderId, createdAt).orElse(null);
+            if (locked == null) {
+                return null;
+            }
+            List<Order> subOrders = orderRepository.findSubOrders(parentOrderId, createdAt);
+            OrderStatus current = OrderStatus.valueOf(locked.getOrderStatus());
+            OrderStatus aggregate = aggregateStatus(subOrders);
+            String reason = failureReason(subOrders);
+            Order result = locked;
+            if (aggregate != current || !Objects.equals(reason, locked.getFailureReason())) {
+                // A settled parent is never moved back; a refresh that only updates the reason keeps its status
+                LocalDateTime now = LocalDateTime.now();
+                int updated = aggregate == current
+                        ? orderOutbox.transition(parentOrderId, current, current, reason, now)
+                        : orderOutbox.transition(parentOrderId, aggregate, reason, now);
+                if (updated > 0) {
+                    // The managed row is now stale, so the caller gets a copy carrying what was written
+                    result = withStatus(locked, aggregate, reason, now);
+                    changed.set(true);
+                }
+            }
+            result.setSubOrders(subOrders);
+            return result;
+        });
+        if (parent != null && changed.get()) {
+            statusNotifier.publish(OrderStatusResponse.from(parent));
+        }
+        return parent;
+    }
+
+    private static OrderStatus aggregateStatus(List<Order> subOrders) {
+        // Sub-orders moving on to SHIPPED or DELIVERED leave the parent PAID; it only tracks checkout
+        if (subOrders.stream().anyMatch(subOrder -> !OrderStatus.isSettled(subOrder.getOrderStatus()))) {
+            return OrderStatus.PROCESSING;
+        }
+        if (subOrders.stream().allMatch(subOrder -> OrderStatus.CANCELLED.name().equals(subOrder.getOrderStatus()))) {
+            return OrderStatus.CANCELLED;
+        }
+        return OrderStatus.PAID;
+    }
+
+    private static Order withStatus(Order order, OrderStatus status, String reason, LocalDateTime now) {
+        return Order.builder()
+                .id(order.getId())
+                .customerId(order.getCustomerId())
+                .sellerId(order.getSellerId())
+                .totalPrice(order.getTotalPrice())
+                .paymentStatus(order.getPaymentStatus())
+                .orderStatus(status.name())
+                .failureReason(reason)
+                .createdAt(order.getCreatedAt())
+                .updatedAt(now)
+                .version(order.getVersion() + 1)
+                .parentOrderId(order.getParentOrderId())
+                .split(order.isSplit())
+                .items(List.of())
+                .build();
+    }
+
+    private static String failureReason(List<Order> subOrders) {
+        List<Order> cancelled = subOrders.stream()
+                .filter(subOrder -> OrderStatus.CANCELLED.name().equals(subOrder.getOrderStatus()))
+                .collect(Collectors.toList());
+        if (cancelled.isEmpty()) {
+            return null;
+        }
+        String reasons = cancelled.stream()
+                .map(subOrder -> "seller " + subOrder.getSellerId() + ": " + subOrder.getFailureReason())
+                .collect(Collectors.joining("; "));
+        String reason = cancelled.size() == subOrders.size()
+                ? "All seller orders were cancelled (" + reasons + ")"
+                : cancelled.size() + " of " + subOrders.size() + " seller orders were cancelled (" + reasons + ")";
+        return reason.length() <= 500 ? reason : reason.substring(0, 500);
+    }
+}
@@ -0,0 +1,125 @@
+package com.sj.order_service.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.embedded.EmbeddedWebServerFactoryCustomizerAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Platform vs virtual thread throughput; run with ./gradlew benchmark, excluded from the regular test task.
+// The "I/O" is Thread.sleep in the handler, so this measures thread scheduling, not a real driver or socket.
+@Tag("benchmark")
+class ThreadModelBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThreadModelBenchmarkTest.class);
+
+    private static final int CLIENTS = 1000;
+    private static final int PLATFORM_THREADS = 200;
+    private static final Duration IO_LATENCY = Duration.ofMillis(50);
+    private static final Duration WARM_UP = Duration.ofSeconds(3);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(10);
+
+    @Test
+    void virtualThreadsServeMoreBlockingRequestsThanThePlatformPool() throws Exception {
+        double platform = measure(false);
+        double virtual = measure(true);
+
+        logger.info("Simulated blocking I/O of {} ms, {} concurrent clients", IO_LATENCY.toMillis(), CLIENTS);
+        logger.info("  platform threads (max {}): {} requests/s", PLATFORM_THREADS, String.format("%,.0f", platform));
+        logger.info("  virtual threads:            {} requests/s ({})", String.format("%,.0f", virtual),
+                String.format("%.1fx", virtual / platform));
+
+        // The platform pool tops out near PLATFORM_THREADS / IO_LATENCY; virtual threads are only bounded by the clients
+        assertThat(virtual).isGreaterThan(platform * 1.5);
+    }
+
+    private double measure(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BenchmarkApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "server.tomcat.threads.max=" + PLATFORM_THREADS,
+                        "server.tomcat.accept-count=" + CLIENTS,
+                        "spring.main.banner-mode=off")
+                .run()) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            URI uri = URI.create("http://localhost:" + port + "/io");
+            load(uri, WARM_UP);
+            return load(uri, MEASUREMENT) / (MEASUREMENT.toMillis() / 1000.0);
+        }
+    }
+
+    private long load(URI uri, Duration duration) throws InterruptedException {
+        LongAdder completed = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient httpClient = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .build()) {
+            HttpRequest request = HttpRequest.newBuilder(uri).build();
+            for (int i = 0; i < CLIENTS; i++) {
+                clients.execute(() -> {
+                    while (running.get()) {
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 200 && running.get()) {
+                                completed.increment();
+                            }
+                        } catch (Exception e) {
+                            if (e instanceof InterruptedException) {
+                                return;
+                            }
+                        }
+                    }
+                });
+            }
+            Thread.sleep(duration.toMillis());
+            running.set(false);
+            clients.shutdownNow();
+        }
+        return completed.sum();
+    }
+
+    @SpringBootConfiguration
+    @ImportAutoConfiguration({
+            PropertyPlaceholderAutoConfiguration.class,
+            ServletWebServerFactoryAutoConfiguration.class,
+            EmbeddedWebServerFactoryCustomizerAutoConfiguration.class,
+            DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class,
+            HttpMessageConvertersAutoConfiguration.class
+    })
+    @RestController
+    static class BenchmarkApplication {
+
+        @GetMapping("/io")
+        String io() throws InterruptedException {
+            Thread.sleep(IO_LATENCY);
+            return "ok";
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.sj.order_service.intake;
+
+import com.sj.order_service.dto.OrderItemRequest;
+import com.sj.order_service.dto.OrderRequest;
+import com.sj.order_service.entity.Order;
+import com.sj.order_service.outbox.OrderEventType;
+import com.sj.order_service.outbox.OrderOutbox;
+import com.sj.order_service.repository.OrderIdempotencyKeyRepository;
+import com.sj.order_service.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderDeduplicatorTest {
+
+    private final UUID customerId = UUID.randomUUID();
+    private final UUID productA = UUID.randomUUID();
+    private final UUID productB = UUID.randomUUID();
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderIdempotencyKeyRepository keyRepository = mock(OrderIdempotencyKeyRepository.class);
+    private final OrderOutbox orderOutbox = mock(OrderOutbox.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionStatus transactionStatus = mock(TransactionStatus.class);
+
+    private OrderDeduplicator deduplicator;
+
+    @BeforeEach
+    void setUp() {
+        deduplicator = new OrderDeduplicator(orderRepository, keyRepository, orderOutbox, transactionTemplate,
+                jdbcTemplate);
+        ReflectionTestUtils.setField(deduplicator, "window", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(deduplicator, "memoryTtl", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(deduplicator, "maxEntries", 100);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(transactionStatus));
+        doCallRealMethod().when(transactionTemplate).executeWithoutResult(any());
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void treatsTheSameLinesInAnyOrderAsTheSameOrder() {
+        List<String> first = deduplicator.keysFor(request(item(productA, 1), item(productB, 2)), null);
+        List<String> reordered = deduplicator.keysFor(request(item(productB, 1), item(productA, 1), item(productB, 1)), null);
+
+        assertThat(reordered).contains(first.get(0));
+        assertThat(deduplicator.keysFor(request(item(productA, 2), item(productB, 2)), null))
+                .doesNotContain(first.get(0));
+    }
+
+    @Test
+    void scopesAClientKeyToTheCustomer() {
+        OrderRequest request = request(item(productA, 1));
+        List<String> keys = deduplicator.keysFor(request, "checkout-1");
+        request.setCustomerId(UUID.randomUUID());
+
+        assertThat(keys).hasSize(1);
+        assertThat(deduplicator.keysFor(request, "checkout-1")).doesNotContainAnyElementsOf(keys);
+        assertThatThrownBy(() -> deduplicator.keysFor(request, "k".repeat(129)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void answersASavedKeyFromMemory() {
+        Order order = order();
+        when(keyRepository.claim("key", order.getId(), order.getCreatedAt())).thenReturn(1);
+
+        assertThat(deduplicator.saveOnce(order, "key")).isSameAs(order);
+        assertThat(deduplicator.findAnyExisting(List.of("key"))).contains(order.getId());
+        verify(keyRepository, never()).findOrderIds(anyList());
+        verify(orderOutbox).append(OrderEventType.ORDER_CREATED, List.of(order.getId()));
+    }
+
+    @Test
+    void rollsBackWhenAConcurrentSubmissionClaimedTheKey() {
+        Order order = order();
+        when(keyRepository.claim("key", order.getId(), order.getCreatedAt())).thenReturn(0);
+        when(keyRepository.findOrderIds(List.of("key"))).thenReturn(List.of());
+
+        assertThat(deduplicator.saveOnce(order, "key")).isNull();
+        verify(transactionStatus).setRollbackOnly();
+        verify(orderOutbox, never()).append(any(), anyList());
+        assertThat(deduplicator.findAnyExisting(List.of("key"))).isEmpty();
+    }
+
+    @Test
+    void reportsABatchWithAClaimedKeyAsNotSaved() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        assertThat(deduplicator.saveAllOnce(List.of(order(), order()), List.of("a", "b"))).isFalse();
+        when(keyRepository.findAllById(List.of("a"))).thenReturn(List.of());
+        assertThat(deduplicator.findExistingByKey(Set.of("a"))).isEmpty();
+    }
+
+    @Test
+    void forgetsAKeySoTheOrderCanBeSubmittedAgain() {
+        Order order = order();
+        when(keyRepository.claim("key", order.getId(), order.getCreatedAt())).thenReturn(1);
+        deduplicator.saveOnce(order, "key");
+        when(keyRepository.findOrderIds(List.of("key"))).thenReturn(List.of());
+
+        deduplicator.forget("key");
+
+        verify(keyRepository).deleteById("key");
+        assertThat(deduplicator.findAnyExisting(List.of("key"))).isEmpty();
+    }
+
+    private Order order() {
+        return Order.builder().id(UUID.randomUUID()).createdAt(LocalDateTime.now()).build();
+    }
+
+    private OrderRequest request(OrderItemRequest... items) {
+        OrderRequest request = new OrderRequest();
+        request.setCustomerId(customerId);
+        request.setItems(List.of(items));
+        return request;
+    }
+
+    private OrderItemRequest item(UUID productId, int quantity) {
+        OrderItemRequest item = new OrderItemRequest();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        return item;
+    }
+}
@@ -0,0 +1,103 @@
+package com.sj.order_service.outbox;
+
+import com.sj.order_service.entity.OrderOutboxEvent;
+import com.sj.order_service.repository.OrderOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderOutboxRelayTest {
+
+    private final OrderOutboxRepository outboxRepository = mock(OrderOutboxRepository.class);
+    private final OrderEventPublisher publisher = mock(OrderEventPublisher.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private OrderOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OrderOutboxRelay(outboxRepository, publisher, transactionTemplate, jdbcTemplate);
+        ReflectionTestUtils.setField(relay, "enabled", true);
+        ReflectionTestUtils.setField(relay, "batchSize", 3);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(mock(TransactionStatus.class)));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), any())).thenReturn(true);
+    }
+
+    @Test
+    void deletesOnlyTheEventsTheBrokerAcknowledged() {
+        List<OrderOutboxEvent> batch = List.of(event(1), event(2), event(3));
+        when(outboxRepository.findNext(any(Pageable.class))).thenReturn(batch);
+        when(publisher.publish(batch)).thenReturn(2);
+
+        relay.relay();
+
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(publisher, times(1)).publish(anyList());
+    }
+
+    @Test
+    void keepsRelayingWhileBatchesComeBackFull() {
+        List<OrderOutboxEvent> full = List.of(event(1), event(2), event(3));
+        List<OrderOutboxEvent> rest = List.of(event(4));
+        when(outboxRepository.findNext(any(Pageable.class))).thenReturn(full, rest);
+        when(publisher.publish(full)).thenReturn(3);
+        when(publisher.publish(rest)).thenReturn(1);
+
+        relay.relay();
+
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L, 2L, 3L));
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(4L));
+    }
+
+    @Test
+    void deletesNothingWhenTheBrokerAcknowledgedNothing() {
+        List<OrderOutboxEvent> batch = List.of(event(1));
+        when(outboxRepository.findNext(any(Pageable.class))).thenReturn(batch);
+        when(publisher.publish(batch)).thenReturn(0);
+
+        relay.relay();
+
+        verify(outboxRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void leavesTheOutboxToTheInstanceHoldingTheLock() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), any())).thenReturn(false);
+
+        relay.relay();
+
+        verify(outboxRepository, never()).findNext(any());
+        verify(publisher, never()).publish(anyList());
+    }
+
+    private OrderOutboxEvent event(long id) {
+        return OrderOutboxEvent.builder()
+                .id(id)
+                .orderId(UUID.randomUUID())
+                .eventType(OrderEventType.ORDER_CREATED.name())
+                .payload("{}")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,42 @@
+package com.sj.order_service.partition;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderIdsTest {
+
+    @Test
+    void idsCarryTheirCreationTime() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 3, 31, 23, 59, 59, 123_000_000);
+
+        UUID id = OrderIds.generate(createdAt);
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(OrderIds.createdFrom(id)).isBefore(createdAt);
+        assertThat(OrderIds.createdTo(id)).isAfter(createdAt);
+        assertThat(OrderIds.createdTo(id)).isBefore(createdAt.plusMonths(1));
+    }
+
+    @Test
+    void idsCreatedLaterSortLater() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+        UUID earlier = OrderIds.generate(createdAt);
+        UUID later = OrderIds.generate(createdAt.plusNanos(1_000_000));
+
+        assertThat(later.getMostSignificantBits() >>> 16).isGreaterThan(earlier.getMostSignificantBits() >>> 16);
+    }
+
+    @Test
+    void randomIdsAreNotBounded() {
+        UUID legacy = UUID.randomUUID();
+
+        assertThat(OrderIds.createdFrom(legacy)).isBefore(LocalDateTime.of(2000, 1, 1, 0, 0));
+        assertThat(OrderIds.createdTo(legacy)).isAfter(LocalDateTime.of(3000, 1, 1, 0, 0));
+    }
+}
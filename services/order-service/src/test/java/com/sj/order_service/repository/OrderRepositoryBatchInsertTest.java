@@ -0,0 +1,79 @@
+package com.sj.order_service.repository;
+
+import com.sj.order_service.entity.Order;
+import com.sj.order_service.entity.OrderItem;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("postgres-test")
+class OrderRepositoryBatchInsertTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void ordersWithManyItemsAreInsertedInBatches() {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        orderRepository.save(order(50));
+        entityManager.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(51);
+        // One statement for the order and one batch for its items, instead of one statement per row
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void severalOrdersShareTheirBatches() {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        orderRepository.saveAll(IntStream.range(0, 20).mapToObj(i -> order(2)).collect(Collectors.toList()));
+        entityManager.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(60);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    private Order order(int lines) {
+        LocalDateTime now = LocalDateTime.now();
+        Order order = Order.builder()
+                .customerId(UUID.randomUUID())
+                .sellerId(UUID.randomUUID())
+                .orderStatus("PENDING")
+                .totalPrice(BigDecimal.TEN.multiply(BigDecimal.valueOf(lines)))
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        List<OrderItem> items = IntStream.range(0, lines)
+                .mapToObj(i -> OrderItem.builder()
+                        .productId(UUID.randomUUID())
+                        .quantity(1)
+                        .price(BigDecimal.TEN)
+                        .build())
+                .collect(Collectors.toList());
+        order.setItems(items);
+        return order;
+    }
+}
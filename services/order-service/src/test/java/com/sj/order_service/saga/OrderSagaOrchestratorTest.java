@@ -0,0 +1,178 @@
+package com.sj.order_service.saga;
+
+import com.sj.order_service.dto.OrderStatusResponse;
+import com.sj.order_service.entity.Order;
+import com.sj.order_service.entity.OrderSaga;
+import com.sj.order_service.entity.OrderStatus;
+import com.sj.order_service.exception.InventoryUnavailableException;
+import com.sj.order_service.exception.PaymentDeclinedException;
+import com.sj.order_service.intake.OrderStatusNotifier;
+import com.sj.order_service.outbox.OrderOutbox;
+import com.sj.order_service.repository.OrderRepository;
+import com.sj.order_service.repository.OrderSagaRepository;
+import com.sj.order_service.security.ServiceTokenProvider;
+import com.sj.order_service.split.SubOrderAggregator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderSagaOrchestratorTest {
+
+    private final OrderSagaRepository sagaRepository = mock(OrderSagaRepository.class);
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderOutbox orderOutbox = mock(OrderOutbox.class);
+    private final OrderStatusNotifier statusNotifier = mock(OrderStatusNotifier.class);
+    private final ReserveStockStep reserve = mock(ReserveStockStep.class);
+    private final AuthorizePaymentStep authorize = mock(AuthorizePaymentStep.class);
+    private final ConfirmOrderStep confirm = mock(ConfirmOrderStep.class);
+
+    private OrderSagaOrchestrator orchestrator;
+    private OrderSaga saga;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        orchestrator = new OrderSagaOrchestrator(sagaRepository, orderRepository, orderOutbox,
+                mock(ServiceTokenProvider.class), statusNotifier, mock(SubOrderAggregator.class),
+                mock(ThreadPoolTaskExecutor.class), reserve, authorize, confirm);
+        ReflectionTestUtils.setField(orchestrator, "maxAttempts", 3);
+        ReflectionTestUtils.setField(orchestrator, "maxCompensationAttempts", 2);
+        ReflectionTestUtils.setField(orchestrator, "backoffBase", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(orchestrator, "backoffMax", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(orchestrator, "lease", Duration.ofMinutes(2));
+
+        order = Order.builder().id(UUID.randomUUID()).items(List.of()).build();
+        saga = OrderSaga.builder()
+                .id(UUID.randomUUID())
+                .orderId(order.getId())
+                .status(OrderSaga.Status.RUNNING)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+        when(sagaRepository.acquireLease(eq(saga.getId()), any(), any())).thenReturn(1);
+        when(sagaRepository.findById(saga.getId())).thenAnswer(invocation -> Optional.of(saga));
+        when(sagaRepository.save(any(OrderSaga.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(orderRepository.findWithItemsById(order.getId())).thenReturn(Optional.of(order));
+
+        when(reserve.name()).thenReturn("RESERVE_STOCK");
+        when(reserve.compensable()).thenReturn(true);
+        when(authorize.name()).thenReturn("AUTHORIZE_PAYMENT");
+        when(authorize.compensable()).thenReturn(true);
+        when(confirm.name()).thenReturn("CONFIRM_ORDER");
+    }
+
+    @Test
+    void runsEveryStepInOrderAndCompletes() {
+        orchestrator.run(saga.getId());
+
+        InOrder steps = inOrder(reserve, authorize, confirm);
+        steps.verify(reserve).execute(any());
+        steps.verify(authorize).execute(any());
+        steps.verify(confirm).execute(any());
+        assertThat(saga.getStatus()).isEqualTo(OrderSaga.Status.COMPLETED);
+        assertThat(saga.getCurrentStep()).isEqualTo(3);
+        assertThat(publishedStatus().getOrderStatus()).isEqualTo("PAID");
+        verify(sagaRepository).releaseLease(saga.getId());
+    }
+
+    @Test
+    void leavesASagaLeasedByAnotherInstanceAlone() {
+        when(sagaRepository.acquireLease(eq(saga.getId()), any(), any())).thenReturn(0);
+
+        orchestrator.run(saga.getId());
+
+        verify(reserve, never()).execute(any());
+        verify(sagaRepository, never()).releaseLease(any());
+    }
+
+    @Test
+    void retriesATransientFailureLaterWithoutCompensating() {
+        doThrow(new InventoryUnavailableException("down", null)).when(authorize).execute(any());
+
+        orchestrator.run(saga.getId());
+
+        assertThat(saga.getStatus()).isEqualTo(OrderSaga.Status.RUNNING);
+        assertThat(saga.getCurrentStep()).isEqualTo(1);
+        assertThat(saga.getAttempt()).isEqualTo(1);
+        assertThat(saga.getNextAttemptAt()).isAfter(LocalDateTime.now());
+        assertThat(saga.getLastError()).startsWith("AUTHORIZE_PAYMENT");
+        verify(reserve, never()).compensate(any());
+    }
+
+    @Test
+    void compensatesCompletedStepsInReverseOnABusinessFailure() {
+        doThrow(new PaymentDeclinedException("Card declined")).when(authorize).execute(any());
+
+        orchestrator.run(saga.getId());
+
+        InOrder compensations = inOrder(authorize, reserve);
+        compensations.verify(authorize).compensate(any());
+        compensations.verify(reserve).compensate(any());
+        verify(confirm, never()).execute(any());
+        assertThat(saga.getStatus()).isEqualTo(OrderSaga.Status.COMPENSATED);
+        verify(orderOutbox).transition(eq(order.getId()), eq(OrderStatus.CANCELLED), eq("Card declined"), any());
+        assertThat(publishedStatus().getOrderStatus()).isEqualTo("CANCELLED");
+    }
+
+    @Test
+    void compensatesOnceTransientFailuresRunOutOfAttempts() {
+        ReflectionTestUtils.setField(orchestrator, "maxAttempts", 1);
+        doThrow(new InventoryUnavailableException("down", null)).when(reserve).execute(any());
+
+        orchestrator.run(saga.getId());
+
+        verify(reserve).compensate(any());
+        assertThat(saga.getStatus()).isEqualTo(OrderSaga.Status.COMPENSATED);
+        assertThat(saga.getFailureReason()).contains("RESERVE_STOCK");
+    }
+
+    @Test
+    void failsWithoutCompensatingWhenThePivotStepFails() {
+        doThrow(new PaymentDeclinedException("Capture refused")).when(confirm).execute(any());
+
+        orchestrator.run(saga.getId());
+
+        assertThat(saga.getStatus()).isEqualTo(OrderSaga.Status.FAILED);
+        verify(authorize, never()).compensate(any());
+        verify(reserve, never()).compensate(any());
+        verify(statusNotifier, never()).publish(any());
+    }
+
+    @Test
+    void failsWhenCompensationKeepsFailing() {
+        saga.setStatus(OrderSaga.Status.COMPENSATING);
+        doThrow(new InventoryUnavailableException("down", null)).when(reserve).compensate(any());
+
+        orchestrator.run(saga.getId());
+        assertThat(saga.getStatus()).isEqualTo(OrderSaga.Status.COMPENSATING);
+        assertThat(saga.getAttempt()).isEqualTo(1);
+
+        saga.setNextAttemptAt(LocalDateTime.now());
+        orchestrator.run(saga.getId());
+        assertThat(saga.getStatus()).isEqualTo(OrderSaga.Status.FAILED);
+    }
+
+    private OrderStatusResponse publishedStatus() {
+        ArgumentCaptor<OrderStatusResponse> status = ArgumentCaptor.forClass(OrderStatusResponse.class);
+        verify(statusNotifier).publish(status.capture());
+        return status.getValue();
+    }
+}
@@ -0,0 +1,62 @@
+package com.sj.order_service.saga;
+
+import com.sj.order_service.client.InventoryClient;
+import com.sj.order_service.entity.Order;
+import com.sj.order_service.entity.OrderItem;
+import com.sj.order_service.entity.OrderSaga;
+import com.sj.order_service.exception.InsufficientStockException;
+import com.sj.order_service.outbox.OrderOutbox;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReserveStockStepTest {
+
+    private final InventoryClient inventoryClient = mock(InventoryClient.class);
+    private final ReserveStockStep step = new ReserveStockStep(inventoryClient, mock(OrderOutbox.class));
+
+    private OrderItem reserved;
+    private OrderItem refused;
+    private OrderSagaContext context;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(inventoryClient, "maxConcurrency", 4);
+        when(inventoryClient.forEach(any(), any())).thenCallRealMethod();
+        reserved = OrderItem.builder().id(UUID.randomUUID()).productId(UUID.randomUUID()).quantity(2).build();
+        refused = OrderItem.builder().id(UUID.randomUUID()).productId(UUID.randomUUID()).quantity(1).build();
+        Order order = Order.builder().id(UUID.randomUUID()).items(List.of(reserved, refused)).build();
+        context = new OrderSagaContext(OrderSaga.builder().id(UUID.randomUUID()).build(), order, "token");
+        when(inventoryClient.reserveStock(anyString(), eq(reserved.getProductId()), anyInt(), anyString(), anyString()))
+                .thenReturn(Mono.empty());
+        when(inventoryClient.reserveStock(anyString(), eq(refused.getProductId()), anyInt(), anyString(), anyString()))
+                .thenReturn(Mono.error(new InsufficientStockException("out of stock")));
+        when(inventoryClient.releaseStock(anyString(), any(), anyInt(), anyString(), anyString()))
+                .thenReturn(Mono.empty());
+    }
+
+    @Test
+    void compensationReleasesOnlyLinesThatCouldBeReserved() {
+        step.compensate(context);
+
+        verify(inventoryClient).reserveStock("token", reserved.getProductId(), 2, context.reference(),
+                context.idempotencyKey(reserved, "reserve"));
+        verify(inventoryClient).releaseStock("token", reserved.getProductId(), 2, context.reference(),
+                context.idempotencyKey(reserved, "release"));
+        verify(inventoryClient, never()).releaseStock(anyString(), eq(refused.getProductId()), anyInt(),
+                anyString(), anyString());
+    }
+}
@@ -0,0 +1,115 @@
+package com.sj.product_service.alert;
+
+import com.sj.product_service.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Debounces reorder-level crossings per product and publishes one alert per seller per window.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LowStockAlertCoalescer {
+
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<UUID, PendingCrossing> pending = new ConcurrentHashMap<>();
+
+    @Value("${inventory.low-stock.debounce:30s}")
+    private Duration debounce;
+
+    // Upper bound for a product whose stock keeps flapping around its reorder level
+    @Value("${inventory.low-stock.max-delay:5m}")
+    private Duration maxDelay;
+
+    public void onStockChanged(UUID productId, boolean wasLow, boolean isLow, int totalQuantity, int reorderLevel) {
+        if (wasLow == isLow) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(productId, wasLow, isLow, totalQuantity, reorderLevel);
+                }
+            });
+        } else {
+            record(productId, wasLow, isLow, totalQuantity, reorderLevel);
+        }
+    }
+
+    private void record(UUID productId, boolean wasLow, boolean isLow, int totalQuantity, int reorderLevel) {
+        LocalDateTime now = LocalDateTime.now();
+        PendingCrossing crossing = new PendingCrossing(wasLow, isLow, totalQuantity, reorderLevel, now, now);
+        pending.merge(productId, crossing, (previous, next) -> new PendingCrossing(previous.initiallyLow(),
+                next.lowStock(), next.totalQuantity(), next.reorderLevel(), previous.firstChangedAt(), next.lastChangedAt()));
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.low-stock.window-ms:60000}")
+    public void flush() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime quietSince = now.minus(debounce);
+        LocalDateTime overdueSince = now.minus(maxDelay);
+
+        List<LowStockAlertEvent.ProductStockAlert> settled = new ArrayList<>();
+        for (Map.Entry<UUID, PendingCrossing> entry : pending.entrySet()) {
+            PendingCrossing crossing = entry.getValue();
+            boolean ready = !crossing.lastChangedAt().isAfter(quietSince)
+                    || !crossing.firstChangedAt().isAfter(overdueSince);
+            // Conditional remove: a crossing recorded since we read the entry stays pending
+            if (!ready || !pending.remove(entry.getKey(), crossing)) {
+                continue;
+            }
+            if (crossing.lowStock() != crossing.initiallyLow()) {
+                settled.add(LowStockAlertEvent.ProductStockAlert.builder()
+                        .productId(entry.getKey())
+                        .lowStock(crossing.lowStock())
+                        .totalQuantity(crossing.totalQuantity())
+                        .reorderLevel(crossing.reorderLevel())
+                        .changedAt(crossing.lastChangedAt())
+                        .build());
+            }
+        }
+        if (settled.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, UUID> sellers = productRepository.findSellersByIds(settled.stream()
+                        .map(LowStockAlertEvent.ProductStockAlert::getProductId)
+                        .collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(ProductRepository.ProductSeller::getProductId,
+                        ProductRepository.ProductSeller::getSellerId));
+        Map<UUID, List<LowStockAlertEvent.ProductStockAlert>> bySeller = settled.stream()
+                .filter(alert -> sellers.containsKey(alert.getProductId()))
+                .collect(Collectors.groupingBy(alert -> sellers.get(alert.getProductId())));
+
+        bySeller.forEach((sellerId, alerts) -> eventPublisher.publishEvent(LowStockAlertEvent.builder()
+                .sellerId(sellerId)
+                .products(alerts)
+                .publishedAt(now)
+                .build()));
+        log.debug("Published low-stock alerts for {} products across {} sellers", settled.size(), bySeller.size());
+    }
+
+    private record PendingCrossing(boolean initiallyLow, boolean lowStock, int totalQuantity, int reorderLevel,
+                                   LocalDateTime firstChangedAt, LocalDateTime lastChangedAt) {
+    }
+}
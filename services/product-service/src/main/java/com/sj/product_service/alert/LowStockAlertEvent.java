@@ -0,0 +1,27 @@
+package com.sj.product_service.alert;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Value
+@Builder
+public class LowStockAlertEvent {
+
+    UUID sellerId;
+    List<ProductStockAlert> products;
+    LocalDateTime publishedAt;
+
+    @Value
+    @Builder
+    public static class ProductStockAlert {
+        UUID productId;
+        boolean lowStock;
+        int totalQuantity;
+        int reorderLevel;
+        LocalDateTime changedAt;
+    }
+}
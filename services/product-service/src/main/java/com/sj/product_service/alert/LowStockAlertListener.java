@@ -0,0 +1,17 @@
+package com.sj.product_service.alert;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+public class LowStockAlertListener {
+
+    @EventListener
+    public void onLowStockAlert(LowStockAlertEvent event) {
+        long low = event.getProducts().stream().filter(LowStockAlertEvent.ProductStockAlert::isLowStock).count();
+        log.info("Low-stock alert for seller {}: {} products at or below reorder level, {} restocked",
+                event.getSellerId(), low, event.getProducts().size() - low);
+    }
+}
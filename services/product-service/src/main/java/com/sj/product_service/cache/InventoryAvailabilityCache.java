@@ -0,0 +1,86 @@
+package com.sj.product_service.cache;
+
+import com.sj.product_service.dto.InventoryAvailabilityResponse;
+import com.sj.product_service.entity.Inventory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class InventoryAvailabilityCache {
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    @Value("${inventory.availability-cache.ttl:30s}")
+    private Duration ttl;
+
+    @Value("${inventory.availability-cache.max-entries:100000}")
+    private int maxEntries;
+
+    public Map<UUID, InventoryAvailabilityResponse> getAll(Collection<UUID> productIds) {
+        long now = System.nanoTime();
+        Map<UUID, InventoryAvailabilityResponse> hits = new HashMap<>();
+        for (UUID productId : productIds) {
+            Entry entry = entries.get(productId);
+            if (entry != null && entry.expiresAt() - now > 0) {
+                hits.put(productId, entry.availability());
+            }
+        }
+        return hits;
+    }
+
+    public void put(InventoryAvailabilityResponse availability, long version) {
+        if (entries.size() >= maxEntries) {
+            evictExpired();
+        }
+        Entry candidate = new Entry(availability, version, System.nanoTime() + ttl.toNanos());
+        entries.merge(availability.getProductId(), candidate,
+                (current, next) -> next.version() >= current.version() ? next : current);
+    }
+
+    public void update(UUID productId, Inventory inventory) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    // Read here rather than at registration: the version is only bumped on flush
+                    put(toAvailability(productId, inventory), inventory.getVersion());
+                }
+            });
+        } else {
+            put(toAvailability(productId, inventory), inventory.getVersion());
+        }
+    }
+
+    public void evict(UUID productId) {
+        entries.remove(productId);
+    }
+
+    public static InventoryAvailabilityResponse toAvailability(UUID productId, Inventory inventory) {
+        return InventoryAvailabilityResponse.of(productId, inventory.getTotalQuantity(),
+                inventory.getReservedQuantity(), inventory.getReorderLevel());
+    }
+
+    private void evictExpired() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> entry.expiresAt() - now <= 0);
+        // Still full of live entries: drop an arbitrary slice rather than grow without bound
+        Iterator<UUID> iterator = entries.keySet().iterator();
+        for (int i = maxEntries / 10; entries.size() >= maxEntries && i > 0 && iterator.hasNext(); i--) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private record Entry(InventoryAvailabilityResponse availability, long version, long expiresAt) {
+    }
+}
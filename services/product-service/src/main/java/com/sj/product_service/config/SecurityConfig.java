@@ -4,6 +4,7 @@ import com.sj.product_service.security.JwtAuthFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -32,6 +33,9 @@ public class SecurityConfig {
                         .requestMatchers("/api/v1/products/featured").permitAll()
                         .requestMatchers("/api/v1/products/search").permitAll()
                         .requestMatchers("/api/v1/products/check/**").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/api/inventory/availability").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/api/inventory/sync").hasAnyRole("ADMIN", "SERVICE")
+                        .requestMatchers(HttpMethod.GET, "/api/v1/products/prices/changes").hasAnyRole("ADMIN", "SERVICE")
                         .requestMatchers("POST","/api/v1/categories").hasRole("ADMIN")
                         .requestMatchers("POST", "/api/v1/products").hasAnyRole("SELLER", "ADMIN")
                         .requestMatchers("PUT", "/api/v1/products/**").hasAnyRole("SELLER", "ADMIN")
@@ -1,20 +1,50 @@
 package com.sj.product_service.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sj.product_service.dto.InventoryAdjustmentRequest;
+import com.sj.product_service.dto.InventoryAvailabilityRequest;
+import com.sj.product_service.dto.InventoryAvailabilityResponse;
+import com.sj.product_service.dto.InventoryLevelResponse;
+import com.sj.product_service.dto.StockSyncItem;
+import com.sj.product_service.dto.StockSyncRequest;
+import com.sj.product_service.dto.StockSyncResponse;
 import com.sj.product_service.entity.Inventory;
+import com.sj.product_service.entity.InventoryMovement;
+import com.sj.product_service.exception.InsufficientStockException;
+import com.sj.product_service.service.InventoryIdempotencyService;
+import com.sj.product_service.service.InventoryLedgerService;
 import com.sj.product_service.service.InventoryService;
+import com.sj.product_service.service.StockSyncService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/inventory")
 @RequiredArgsConstructor
 public class InventoryController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int MAX_MOVEMENTS_LIMIT = 1000;
+
     private final InventoryService inventoryService;
+    private final InventoryLedgerService inventoryLedgerService;
+    private final InventoryIdempotencyService inventoryIdempotencyService;
+    private final StockSyncService stockSyncService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/{productId}")
     public ResponseEntity<Inventory> getInventory(@PathVariable UUID productId) {
@@ -22,32 +52,108 @@ public class InventoryController {
         return ResponseEntity.ok(inventory);
     }
 
+    @PostMapping("/availability")
+    public ResponseEntity<List<InventoryAvailabilityResponse>> getAvailability(
+            @Valid @RequestBody InventoryAvailabilityRequest request) {
+        List<InventoryAvailabilityResponse> availability = inventoryService.getAvailability(request.getProductIds());
+        return ResponseEntity.ok(availability);
+    }
+
+    @PostMapping(value = "/sync", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StockSyncResponse> syncStock(@Valid @RequestBody StockSyncRequest request,
+                                                       @RequestParam(required = false) String reference,
+                                                       @RequestParam(defaultValue = "false") boolean failuresOnly) {
+        StockSyncResponse response = stockSyncService.sync(request.getItems().iterator(), reference, failuresOnly);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping(value = "/sync", consumes = NDJSON)
+    public ResponseEntity<StockSyncResponse> syncStockStream(InputStream body,
+                                                             @RequestParam(required = false) String reference,
+                                                             @RequestParam(defaultValue = "false") boolean failuresOnly)
+            throws IOException {
+        try (MappingIterator<StockSyncItem> items = objectMapper.readerFor(StockSyncItem.class).readValues(body)) {
+            StockSyncResponse response = stockSyncService.sync(items, reference, failuresOnly);
+            return ResponseEntity.ok(response);
+        }
+    }
+
     @PostMapping("/{productId}/adjust")
     public ResponseEntity<Inventory> adjustStock(@PathVariable UUID productId,
-                                                 @RequestBody InventoryAdjustmentRequest request) {
-        Inventory inventory = inventoryService.adjustStock(productId, request.getQuantityDelta());
+                                                 @RequestBody InventoryAdjustmentRequest request,
+                                                 @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        Inventory inventory = idempotent(idempotencyKey, "ADJUST", productId, request.getQuantityDelta(),
+                request.getReason(), request.getReference(),
+                () -> inventoryService.adjustStock(productId, request.getQuantityDelta(),
+                        request.getReason(), request.getReference()));
         return ResponseEntity.ok(inventory);
     }
 
     @PostMapping("/{productId}/reserve")
     public ResponseEntity<Inventory> reserveStock(@PathVariable UUID productId,
-                                                  @RequestParam int quantity) {
-        Inventory inventory = inventoryService.reserveStock(productId, quantity);
+                                                  @RequestParam int quantity,
+                                                  @RequestParam(required = false) String reason,
+                                                  @RequestParam(required = false) String reference,
+                                                  @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        Inventory inventory = idempotent(idempotencyKey, "RESERVE", productId, quantity, reason, reference,
+                () -> inventoryService.reserveStock(productId, quantity, reason, reference));
         return ResponseEntity.ok(inventory);
     }
 
     @PostMapping("/{productId}/release")
     public ResponseEntity<Inventory> releaseReservedStock(@PathVariable UUID productId,
-                                                          @RequestParam int quantity) {
-        Inventory inventory = inventoryService.releaseReservedStock(productId, quantity);
+                                                          @RequestParam int quantity,
+                                                          @RequestParam(required = false) String reason,
+                                                          @RequestParam(required = false) String reference,
+                                                          @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        Inventory inventory = idempotent(idempotencyKey, "RELEASE", productId, quantity, reason, reference,
+                () -> inventoryService.releaseReservedStock(productId, quantity, reason, reference));
         return ResponseEntity.ok(inventory);
     }
 
     @PostMapping("/{productId}/fulfill")
     public ResponseEntity<Inventory> fulfillOrder(@PathVariable UUID productId,
-                                                  @RequestParam int quantity) {
-        Inventory inventory = inventoryService.fulfillOrder(productId, quantity);
+                                                  @RequestParam int quantity,
+                                                  @RequestParam(required = false) String reason,
+                                                  @RequestParam(required = false) String reference,
+                                                  @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        Inventory inventory = idempotent(idempotencyKey, "FULFILL", productId, quantity, reason, reference,
+                () -> inventoryService.fulfillOrder(productId, quantity, reason, reference));
         return ResponseEntity.ok(inventory);
     }
 
+    @GetMapping("/{productId}/movements")
+    public ResponseEntity<List<InventoryMovement>> getMovements(
+            @PathVariable UUID productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "100") int limit) {
+        List<InventoryMovement> movements = inventoryLedgerService.getMovements(productId, from, to,
+                Math.max(1, Math.min(limit, MAX_MOVEMENTS_LIMIT)));
+        return ResponseEntity.ok(movements);
+    }
+
+    @GetMapping("/{productId}/level")
+    public ResponseEntity<InventoryLevelResponse> getLevelAt(
+            @PathVariable UUID productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        InventoryLevelResponse level = inventoryLedgerService.getLevelAt(productId,
+                asOf != null ? asOf : LocalDateTime.now());
+        return ResponseEntity.ok(level);
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<String> handleInsufficientStock(InsufficientStockException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
+    private Inventory idempotent(String idempotencyKey, String operation, UUID productId, int quantity,
+                                 String reason, String reference, Supplier<Inventory> mutation) {
+        if (idempotencyKey == null) {
+            return mutation.get();
+        }
+        return inventoryIdempotencyService.execute(idempotencyKey, operation, productId, quantity,
+                reason, reference, mutation);
+    }
+
 }
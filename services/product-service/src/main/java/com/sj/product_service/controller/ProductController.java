@@ -1,5 +1,7 @@
 package com.sj.product_service.controller;
 
+import com.sj.product_service.dto.ProductPriceRequest;
+import com.sj.product_service.dto.ProductPriceResponse;
 import com.sj.product_service.dto.ProductRequestDto;
 import com.sj.product_service.dto.ProductResponseDto;
 import com.sj.product_service.entity.Product;
@@ -14,6 +16,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -24,6 +27,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -108,6 +112,24 @@ public class ProductController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/prices")
+    @Operation(summary = "Get product prices", description = "Current price, seller and status for up to 500 products")
+    public ResponseEntity<List<ProductPriceResponse>> getPrices(@Valid @RequestBody ProductPriceRequest request) {
+        return ResponseEntity.ok(productService.getPrices(request.getProductIds()));
+    }
+
+    @GetMapping("/prices/changes")
+    @Operation(summary = "Get product price changes",
+            description = "Products changed after the given position, oldest first, for services that keep a local price copy")
+    public ResponseEntity<List<ProductPriceResponse>> getPriceChanges(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) UUID afterId,
+            @RequestParam(defaultValue = "500") int limit) {
+        LocalDateTime from = since != null ? since : LocalDateTime.of(1970, 1, 1, 0, 0);
+        UUID after = afterId != null ? afterId : new UUID(0L, 0L);
+        return ResponseEntity.ok(productService.getPriceChanges(from, after, Math.min(Math.max(limit, 1), 1000)));
+    }
+
     @GetMapping("/available")
     @Operation(summary = "Get available products", description = "Retrieves all active products")
     public ResponseEntity<List<ProductResponseDto>> getAvailableProducts() {
@@ -5,4 +5,6 @@ import lombok.Data;
 @Data
 public class InventoryAdjustmentRequest {
     private int quantityDelta;
+    private String reason;
+    private String reference;
 }
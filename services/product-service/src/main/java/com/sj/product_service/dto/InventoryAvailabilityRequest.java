@@ -0,0 +1,16 @@
+package com.sj.product_service.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class InventoryAvailabilityRequest {
+
+    @NotEmpty(message = "At least one product ID is required")
+    @Size(max = 200, message = "At most 200 products can be looked up at once")
+    private List<UUID> productIds;
+}
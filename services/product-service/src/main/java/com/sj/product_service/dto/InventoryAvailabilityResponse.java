@@ -0,0 +1,31 @@
+package com.sj.product_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryAvailabilityResponse {
+    private UUID productId;
+    private int availableQuantity;
+    private boolean inStock;
+    private boolean lowStock;
+
+    // Low stock compares the total with the reorder level, the same as Inventory.lowStockAlert and the alerts
+    public static InventoryAvailabilityResponse of(UUID productId, int totalQuantity, int reservedQuantity,
+                                                   int reorderLevel) {
+        int availableQuantity = totalQuantity - reservedQuantity;
+        return InventoryAvailabilityResponse.builder()
+                .productId(productId)
+                .availableQuantity(availableQuantity)
+                .inStock(availableQuantity > 0)
+                .lowStock(totalQuantity <= reorderLevel)
+                .build();
+    }
+}
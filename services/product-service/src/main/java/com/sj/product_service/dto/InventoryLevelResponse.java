@@ -0,0 +1,21 @@
+package com.sj.product_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryLevelResponse {
+    private UUID productId;
+    private int totalQuantity;
+    private int reservedQuantity;
+    private int availableQuantity;
+    private LocalDateTime asOf;
+}
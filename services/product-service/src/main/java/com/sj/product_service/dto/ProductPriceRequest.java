@@ -0,0 +1,16 @@
+package com.sj.product_service.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class ProductPriceRequest {
+
+    @NotEmpty(message = "At least one product ID is required")
+    @Size(max = 500, message = "At most 500 products can be looked up at once")
+    private List<UUID> productIds;
+}
@@ -0,0 +1,24 @@
+package com.sj.product_service.dto;
+
+import com.sj.product_service.entity.Product;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPriceResponse {
+    private UUID productId;
+    private UUID sellerId;
+    private BigDecimal price;
+    private String currency;
+    private Product.ProductStatus status;
+    private LocalDateTime updatedAt;
+}
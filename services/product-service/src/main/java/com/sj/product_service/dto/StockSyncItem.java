@@ -0,0 +1,16 @@
+package com.sj.product_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockSyncItem {
+    private UUID productId;
+    private Integer delta;
+    private Integer absolute;
+}
@@ -0,0 +1,13 @@
+package com.sj.product_service.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class StockSyncRequest {
+
+    @NotEmpty(message = "At least one stock record is required")
+    private List<StockSyncItem> items;
+}
@@ -0,0 +1,21 @@
+package com.sj.product_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockSyncResponse {
+    private int received;
+    private int products;
+    private Map<StockSyncResult.Status, Integer> outcomes;
+    private long durationMs;
+    private List<StockSyncResult> results;
+}
@@ -0,0 +1,26 @@
+package com.sj.product_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StockSyncResult {
+    private UUID productId;
+    private int records;
+    private Status status;
+    private Integer totalQuantity;
+    private String message;
+
+    public enum Status {
+        APPLIED, NOT_FOUND, REJECTED, CONFLICT, INVALID
+    }
+}
@@ -0,0 +1,14 @@
+package com.sj.product_service.engine;
+
+import java.util.UUID;
+
+/**
+ * An idempotency key the engine has applied, with the level its command produced.
+ */
+record AppliedKey(String key, StockCommand.Operation operation, UUID productId, int quantity, StockLevel result) {
+
+    boolean matches(StockCommand command) {
+        return operation == command.operation() && productId.equals(command.productId())
+                && quantity == command.quantity();
+    }
+}
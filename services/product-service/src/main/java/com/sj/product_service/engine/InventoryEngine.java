@@ -0,0 +1,279 @@
+package com.sj.product_service.engine;
+
+import com.sj.product_service.alert.LowStockAlertCoalescer;
+import com.sj.product_service.entity.Inventory;
+import com.sj.product_service.repository.InventoryIdempotencyKeyRepository;
+import com.sj.product_service.repository.InventoryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+/**
+ * Optional in-memory inventory for hot products, enabled with {@code inventory.engine.enabled}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryEngine {
+
+    private static final String FLUSH_SQL = "UPDATE inventories SET total_quantity = ?, reserved_quantity = ?, " +
+            "low_stock_alert = ?, updated_at = ?, version = GREATEST(version + 1, ?) WHERE product_id = ?";
+    private static final String MOVEMENT_SQL = "INSERT INTO inventory_movements " +
+            "(id, product_id, movement_type, total_delta, reserved_delta, reason, reference, created_at) " +
+            "VALUES (nextval('inventory_movements_seq'), ?, ?, ?, ?, ?, ?, ?)";
+    private static final String OFFSET_SQL = "INSERT INTO inventory_engine_offsets (partition_id, flushed_sequence) " +
+            "VALUES (?, ?) ON CONFLICT (partition_id) DO UPDATE SET flushed_sequence = " +
+            "GREATEST(inventory_engine_offsets.flushed_sequence, EXCLUDED.flushed_sequence)";
+    // An expired row left behind by the cleanup job is taken over, a live one is never overwritten
+    private static final String KEY_SQL = "INSERT INTO inventory_idempotency_keys (idempotency_key, operation, " +
+            "product_id, quantity, inventory_id, total_quantity, reserved_quantity, reorder_level, low_stock_alert, " +
+            "inventory_version, created_at, expires_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (idempotency_key) DO UPDATE SET operation = EXCLUDED.operation, " +
+            "product_id = EXCLUDED.product_id, quantity = EXCLUDED.quantity, inventory_id = EXCLUDED.inventory_id, " +
+            "total_quantity = EXCLUDED.total_quantity, reserved_quantity = EXCLUDED.reserved_quantity, " +
+            "reorder_level = EXCLUDED.reorder_level, low_stock_alert = EXCLUDED.low_stock_alert, " +
+            "inventory_version = EXCLUDED.inventory_version, created_at = EXCLUDED.created_at, " +
+            "expires_at = EXCLUDED.expires_at WHERE inventory_idempotency_keys.expires_at <= EXCLUDED.created_at";
+    private static final int DEFAULT_REORDER_LEVEL = 10;
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryIdempotencyKeyRepository idempotencyKeyRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LowStockAlertCoalescer lowStockAlerts;
+
+    @Value("${inventory.engine.enabled:false}")
+    private boolean enabled;
+    @Value("${inventory.engine.partitions:4}")
+    private int partitionCount;
+    @Value("${inventory.engine.ring-buffer-size:8192}")
+    private int ringBufferSize;
+    @Value("${inventory.engine.batch-size:256}")
+    private int batchSize;
+    @Value("${inventory.engine.max-products-per-partition:100000}")
+    private int maxProducts;
+    @Value("${inventory.engine.journal-dir:./data/inventory-journal}")
+    private String journalDir;
+    @Value("${inventory.engine.fsync:true}")
+    private boolean fsync;
+    @Value("${inventory.engine.products:}")
+    private String products;
+    @Value("${inventory.idempotency.ttl:24h}")
+    private Duration idempotencyTtl;
+
+    private InventoryPartition[] partitions;
+    private Set<UUID> hotProducts;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        hotProducts = Arrays.stream(products.split(","))
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .map(UUID::fromString)
+                .collect(Collectors.toUnmodifiableSet());
+
+        Map<Integer, Long> flushed = new HashMap<>();
+        jdbcTemplate.query("SELECT partition_id, flushed_sequence FROM inventory_engine_offsets",
+                row -> { flushed.put(row.getInt("partition_id"), row.getLong("flushed_sequence")); });
+        partitions = new InventoryPartition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            InventoryJournal journal = new InventoryJournal(Path.of(journalDir), i, fsync);
+            partitions[i] = new InventoryPartition(i, ringBufferSize, batchSize, maxProducts, journal, this::load,
+                    this::loadKey, this::onStockChanged);
+            partitions[i].start(flushed.getOrDefault(i, 0L));
+        }
+        log.info("Inventory engine started with {} partitions, {} hot products",
+                partitionCount, hotProducts.isEmpty() ? "all" : hotProducts.size());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (!enabled) {
+            return;
+        }
+        for (InventoryPartition partition : partitions) {
+            partition.stop();
+            partition.snapshot();
+        }
+        flush();
+        for (InventoryPartition partition : partitions) {
+            partition.close();
+        }
+    }
+
+    public boolean owns(UUID productId) {
+        return enabled && (hotProducts.isEmpty() || hotProducts.contains(productId));
+    }
+
+    public Inventory read(UUID productId) {
+        return execute(StockCommand.Operation.READ, productId, 0, null, null, null);
+    }
+
+    public Inventory adjust(UUID productId, int quantityDelta, String reason, String reference) {
+        return execute(StockCommand.Operation.ADJUST, productId, quantityDelta, reason, reference, null);
+    }
+
+    public Inventory set(UUID productId, int totalQuantity, String reason, String reference) {
+        return execute(StockCommand.Operation.SET, productId, totalQuantity, reason, reference, null);
+    }
+
+    public Inventory reserve(UUID productId, int quantity, String reason, String reference) {
+        return execute(StockCommand.Operation.RESERVE, productId, quantity, reason, reference, null);
+    }
+
+    public Inventory release(UUID productId, int quantity, String reason, String reference) {
+        return execute(StockCommand.Operation.RELEASE, productId, quantity, reason, reference, null);
+    }
+
+    public Inventory fulfill(UUID productId, int quantity, String reason, String reference) {
+        return execute(StockCommand.Operation.FULFILL, productId, quantity, reason, reference, null);
+    }
+
+    // The key is journaled with the change it guards and reaches the database in the same flush
+    public Inventory idempotent(String idempotencyKey, String operation, UUID productId, int quantity,
+                                String reason, String reference) {
+        return execute(StockCommand.Operation.valueOf(operation), productId, quantity, reason, reference,
+                idempotencyKey);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.engine.flush-interval-ms:200}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        for (int i = 0; i < partitions.length; i++) {
+            InventoryPartition partition = partitions[i];
+            int partitionId = i;
+            InventoryPartition.Changes changes = partition.call(partition::drainChanges).join();
+            if (changes.isEmpty()) {
+                continue;
+            }
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> rows = changes.levels().stream()
+                    .map(level -> new Object[]{level.totalQuantity(), level.reservedQuantity(),
+                            level.lowStock(), now, level.version(), level.productId()})
+                    .collect(Collectors.toList());
+            List<Object[]> movements = changes.movements().stream()
+                    .map(movement -> new Object[]{movement.getProductId(), movement.getMovementType().name(),
+                            movement.getTotalDelta(), movement.getReservedDelta(), movement.getReason(),
+                            movement.getReference(), Timestamp.valueOf(movement.getCreatedAt())})
+                    .collect(Collectors.toList());
+            Timestamp expiresAt = Timestamp.valueOf(now.toLocalDateTime().plus(idempotencyTtl));
+            List<Object[]> keys = changes.keys().stream()
+                    .map(key -> {
+                        StockLevel result = key.result();
+                        return new Object[]{key.key(), key.operation().name(), key.productId(), key.quantity(),
+                                result.inventoryId(), result.totalQuantity(), result.reservedQuantity(),
+                                result.reorderLevel(), result.lowStock(), result.version(), now, expiresAt};
+                    })
+                    .collect(Collectors.toList());
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.batchUpdate(FLUSH_SQL, rows);
+                    jdbcTemplate.batchUpdate(MOVEMENT_SQL, movements);
+                    jdbcTemplate.batchUpdate(KEY_SQL, keys);
+                    // Movements journaled up to this sequence are in the ledger and need no replay
+                    jdbcTemplate.update(OFFSET_SQL, partitionId, changes.sequence());
+                });
+                partition.call(() -> {
+                    partition.flushed(changes);
+                    return null;
+                });
+            } catch (DataAccessException e) {
+                log.error("Inventory write-behind flush failed, retrying {} products later", rows.size(), e);
+                partition.call(() -> {
+                    partition.requeue(changes);
+                    return null;
+                });
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.engine.snapshot-interval-ms:60000}")
+    public void snapshot() {
+        if (!enabled) {
+            return;
+        }
+        for (InventoryPartition partition : partitions) {
+            partition.call(() -> {
+                partition.snapshot();
+                return null;
+            }).join();
+        }
+    }
+
+    private Inventory execute(StockCommand.Operation operation, UUID productId, int quantity,
+                              String reason, String reference, String idempotencyKey) {
+        CompletableFuture<StockLevel> result = new CompletableFuture<>();
+        partitionFor(productId).submit(new StockCommand(operation, productId, quantity, reason, reference,
+                idempotencyKey, result));
+        try {
+            return result.join().toInventory();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private InventoryPartition partitionFor(UUID productId) {
+        return partitions[Math.floorMod(productId.hashCode(), partitions.length)];
+    }
+
+    private void onStockChanged(StockLevel before, StockLevel after) {
+        lowStockAlerts.onStockChanged(after.productId(), before.lowStock(), after.lowStock(),
+                after.totalQuantity(), after.reorderLevel());
+    }
+
+    private AppliedKey loadKey(String idempotencyKey) {
+        return idempotencyKeyRepository.findById(idempotencyKey)
+                .filter(key -> key.getExpiresAt().isAfter(LocalDateTime.now()) && key.getTotalQuantity() != null)
+                .map(key -> new AppliedKey(key.getIdempotencyKey(), StockCommand.Operation.valueOf(key.getOperation()),
+                        key.getProductId(), key.getQuantity(), new StockLevel(key.getProductId(), key.getInventoryId(),
+                        key.getTotalQuantity(), key.getReservedQuantity(), key.getReorderLevel(),
+                        key.getInventoryVersion())))
+                .orElse(null);
+    }
+
+    private StockLevel load(UUID productId) {
+        Inventory inventory = inventoryRepository.findByProductId(productId).orElseGet(() -> {
+            try {
+                inventoryRepository.insertIfMissing(productId, DEFAULT_REORDER_LEVEL);
+            } catch (DataIntegrityViolationException e) {
+                throw new EntityNotFoundException("Product not found");
+            }
+            return inventoryRepository.findByProductId(productId)
+                    .orElseThrow(() -> new RuntimeException("Inventory not found for product: " + productId));
+        });
+        return new StockLevel(productId, inventory.getId(), inventory.getTotalQuantity(),
+                inventory.getReservedQuantity(), inventory.getReorderLevel(), inventory.getVersion());
+    }
+}
@@ -0,0 +1,212 @@
+package com.sj.product_service.engine;
+
+import com.sj.product_service.entity.InventoryMovement;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Slf4j
+class InventoryJournal implements Closeable {
+
+    private static final int JOURNAL_FIELDS = 16;
+
+    private final Path journalPath;
+    private final Path snapshotPath;
+    private final boolean fsync;
+    private FileChannel channel;
+    private final StringBuilder pending = new StringBuilder();
+
+    InventoryJournal(Path directory, int partition, boolean fsync) throws IOException {
+        Files.createDirectories(directory);
+        this.journalPath = directory.resolve("partition-" + partition + ".journal");
+        this.snapshotPath = directory.resolve("partition-" + partition + ".snapshot");
+        this.fsync = fsync;
+        this.channel = open();
+    }
+
+    // Levels come from the snapshot and later entries; movements from entries not yet flushed to the ledger
+    long recover(Map<UUID, StockLevel> levels, long flushedSequence, List<InventoryMovement> movements,
+                 List<AppliedKey> keys) throws IOException {
+        long snapshotSequence = 0;
+        if (Files.exists(snapshotPath)) {
+            try (BufferedReader reader = Files.newBufferedReader(snapshotPath, StandardCharsets.UTF_8)) {
+                String header = reader.readLine();
+                snapshotSequence = header == null ? 0 : Long.parseLong(header);
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    StockLevel level = StockLevel.fromRecord(line.split("\\|"), 0);
+                    levels.put(level.productId(), level);
+                }
+            }
+        }
+
+        long lastSequence = snapshotSequence;
+        try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split("\\|", -1);
+                if (parts.length != JOURNAL_FIELDS) {
+                    log.warn("Ignoring torn journal tail in {}", journalPath);
+                    break;
+                }
+                long sequence;
+                StockLevel level;
+                InventoryMovement movement;
+                AppliedKey key;
+                try {
+                    sequence = Long.parseLong(parts[0]);
+                    level = StockLevel.fromRecord(parts, 1);
+                    movement = movementFromRecord(level.productId(), parts, 7);
+                    key = keyFromRecord(level, parts, 13);
+                } catch (IllegalArgumentException | DateTimeException e) {
+                    log.warn("Ignoring torn journal tail in {}", journalPath);
+                    break;
+                }
+                if (sequence > flushedSequence) {
+                    movements.add(movement);
+                    if (key != null) {
+                        keys.add(key);
+                    }
+                }
+                if (sequence > snapshotSequence) {
+                    levels.put(level.productId(), level);
+                }
+                lastSequence = Math.max(lastSequence, sequence);
+            }
+        }
+        return lastSequence;
+    }
+
+    void append(long sequence, StockLevel level, InventoryMovement movement, AppliedKey key) {
+        pending.append(sequence).append('|').append(level.toRecord()).append('|')
+                .append(movement.getMovementType()).append('|')
+                .append(movement.getTotalDelta()).append('|')
+                .append(movement.getReservedDelta()).append('|')
+                .append(encode(movement.getReason())).append('|')
+                .append(encode(movement.getReference())).append('|')
+                .append(movement.getCreatedAt()).append('|')
+                .append(key != null ? encode(key.key()) : "").append('|')
+                .append(key != null ? key.operation().name() : "").append('|')
+                .append(key != null ? Integer.toString(key.quantity()) : "").append('\n');
+    }
+
+    // On failure the file is cut back so it never holds unacknowledged entries.
+    void commit() throws IOException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        long position = channel.size();
+        ByteBuffer buffer = ByteBuffer.wrap(pending.toString().getBytes(StandardCharsets.UTF_8));
+        pending.setLength(0);
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            channel.truncate(position);
+            throw e;
+        }
+    }
+
+    void discardPending() {
+        pending.setLength(0);
+    }
+
+    void snapshot(long sequence, Collection<StockLevel> levels, long flushedSequence) throws IOException {
+        Path temp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write(Long.toString(sequence));
+            writer.newLine();
+            for (StockLevel level : levels) {
+                writer.write(level.toRecord());
+                writer.newLine();
+            }
+        }
+        try (FileChannel snapshotChannel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            snapshotChannel.force(true);
+        }
+        Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        retainAfter(flushedSequence);
+    }
+
+    // Entries whose movements have not reached the ledger yet must survive the snapshot
+    private void retainAfter(long flushedSequence) throws IOException {
+        Path temp = journalPath.resolveSibling(journalPath.getFileName() + ".tmp");
+        try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8);
+             BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int end = line.indexOf('|');
+                if (end > 0 && Long.parseLong(line.substring(0, end)) > flushedSequence) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            }
+        }
+        try (FileChannel journalChannel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            journalChannel.force(true);
+        }
+        channel.close();
+        Files.move(temp, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = open();
+    }
+
+    private FileChannel open() throws IOException {
+        return FileChannel.open(journalPath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static InventoryMovement movementFromRecord(UUID productId, String[] parts, int offset) {
+        return InventoryMovement.builder()
+                .productId(productId)
+                .movementType(InventoryMovement.MovementType.valueOf(parts[offset]))
+                .totalDelta(Integer.parseInt(parts[offset + 1]))
+                .reservedDelta(Integer.parseInt(parts[offset + 2]))
+                .reason(decode(parts[offset + 3]))
+                .reference(decode(parts[offset + 4]))
+                .createdAt(LocalDateTime.parse(parts[offset + 5]))
+                .build();
+    }
+
+    private static AppliedKey keyFromRecord(StockLevel level, String[] parts, int offset) {
+        if (parts[offset].isEmpty()) {
+            return null;
+        }
+        return new AppliedKey(decode(parts[offset]), StockCommand.Operation.valueOf(parts[offset + 1]),
+                level.productId(), Integer.parseInt(parts[offset + 2]), level);
+    }
+
+    private static String encode(String value) {
+        return value == null ? "" : URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String decode(String value) {
+        return value.isEmpty() ? null : URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,368 @@
+package com.sj.product_service.engine;
+
+import com.sj.product_service.entity.InventoryMovement;
+import com.sj.product_service.exception.InsufficientStockException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * One shard of the in-memory inventory: a single writer thread applies queued commands and fsyncs
+ * each batch before acknowledging it.
+ */
+@Slf4j
+class InventoryPartition implements Runnable {
+
+    private static final long POLL_MS = 20;
+    private static final long OFFER_TIMEOUT_MS = 1000;
+
+    private final int index;
+    private final BlockingQueue<StockCommand> ringBuffer;
+    private final Queue<Runnable> controlTasks = new ConcurrentLinkedQueue<>();
+    // Access ordered, so eviction drops the products least recently used
+    private final Map<UUID, StockLevel> levels = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<UUID> dirty = new HashSet<>();
+    private final Set<UUID> inFlight = new HashSet<>();
+    private final List<InventoryMovement> pendingMovements = new ArrayList<>();
+    // Keys stay here until the database holds them, so a retry is answered even before the flush
+    private final Map<String, AppliedKey> unflushedKeys = new HashMap<>();
+    private final List<AppliedKey> pendingKeys = new ArrayList<>();
+    private final InventoryJournal journal;
+    private final Function<UUID, StockLevel> loader;
+    private final Function<String, AppliedKey> keyLoader;
+    private final BiConsumer<StockLevel, StockLevel> changeListener;
+    private final int batchSize;
+    private final int maxProducts;
+    private final List<StockCommand> batch;
+
+    private long sequence;
+    private long flushedSequence;
+    private volatile boolean running;
+    private Thread writer;
+
+    InventoryPartition(int index, int ringBufferSize, int batchSize, int maxProducts, InventoryJournal journal,
+                       Function<UUID, StockLevel> loader, Function<String, AppliedKey> keyLoader,
+                       BiConsumer<StockLevel, StockLevel> changeListener) {
+        this.index = index;
+        this.ringBuffer = new ArrayBlockingQueue<>(ringBufferSize);
+        this.batchSize = batchSize;
+        this.maxProducts = maxProducts;
+        this.batch = new ArrayList<>(batchSize);
+        this.journal = journal;
+        this.loader = loader;
+        this.keyLoader = keyLoader;
+        this.changeListener = changeListener;
+    }
+
+    void start(long flushedSequence) throws IOException {
+        this.flushedSequence = flushedSequence;
+        sequence = Math.max(journal.recover(levels, flushedSequence, pendingMovements, pendingKeys), flushedSequence);
+        for (AppliedKey key : pendingKeys) {
+            unflushedKeys.put(key.key(), key);
+        }
+        // Recovered state may be ahead of the database if the last flush never happened.
+        dirty.addAll(levels.keySet());
+        log.info("Inventory partition {} recovered {} products up to sequence {}", index, levels.size(), sequence);
+
+        running = true;
+        writer = new Thread(this, "inventory-writer-" + index);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join();
+        }
+    }
+
+    void submit(StockCommand command) {
+        boolean accepted;
+        try {
+            accepted = running && ringBuffer.offer(command, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (!accepted) {
+            command.result().completeExceptionally(
+                    new IllegalStateException("Inventory partition " + index + " is not accepting commands"));
+        }
+    }
+
+    <T> CompletableFuture<T> call(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (!running) {
+            future.complete(task.get());
+            return future;
+        }
+        controlTasks.add(() -> {
+            try {
+                future.complete(task.get());
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    Changes drainChanges() {
+        List<StockLevel> changed = new ArrayList<>(dirty.size());
+        for (UUID productId : dirty) {
+            changed.add(levels.get(productId));
+        }
+        inFlight.addAll(dirty);
+        dirty.clear();
+        List<InventoryMovement> movements = new ArrayList<>(pendingMovements);
+        pendingMovements.clear();
+        List<AppliedKey> keys = new ArrayList<>(pendingKeys);
+        pendingKeys.clear();
+        return new Changes(changed, movements, keys, sequence);
+    }
+
+    void flushed(Changes changes) {
+        flushedSequence = Math.max(flushedSequence, changes.sequence());
+        for (StockLevel level : changes.levels()) {
+            inFlight.remove(level.productId());
+        }
+        for (AppliedKey key : changes.keys()) {
+            unflushedKeys.remove(key.key());
+        }
+        evict();
+    }
+
+    void requeue(Changes changes) {
+        for (StockLevel level : changes.levels()) {
+            inFlight.remove(level.productId());
+            dirty.add(level.productId());
+        }
+        pendingMovements.addAll(0, changes.movements());
+        pendingKeys.addAll(0, changes.keys());
+    }
+
+    void snapshot() {
+        try {
+            journal.snapshot(sequence, levels.values(), flushedSequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to snapshot inventory partition " + index, e);
+        }
+    }
+
+    void close() throws IOException {
+        journal.close();
+    }
+
+    record Changes(List<StockLevel> levels, List<InventoryMovement> movements, List<AppliedKey> keys, long sequence) {
+
+        boolean isEmpty() {
+            return levels.isEmpty() && movements.isEmpty() && keys.isEmpty();
+        }
+    }
+
+    @Override
+    public void run() {
+        while (running || !ringBuffer.isEmpty()) {
+            runControlTasks();
+            StockCommand first;
+            try {
+                first = ringBuffer.poll(POLL_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            ringBuffer.drainTo(batch, batchSize - 1);
+            try {
+                processBatch();
+            } finally {
+                batch.clear();
+            }
+        }
+        runControlTasks();
+    }
+
+    private void runControlTasks() {
+        Runnable task;
+        while ((task = controlTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private void processBatch() {
+        StockLevel[] befores = new StockLevel[batch.size()];
+        StockLevel[] outcomes = new StockLevel[batch.size()];
+        RuntimeException[] failures = new RuntimeException[batch.size()];
+        boolean[] replayed = new boolean[batch.size()];
+        Map<UUID, StockLevel> undo = new HashMap<>();
+        int movementMark = pendingMovements.size();
+        int keyMark = pendingKeys.size();
+
+        for (int i = 0; i < batch.size(); i++) {
+            StockCommand command = batch.get(i);
+            try {
+                AppliedKey applied = command.idempotencyKey() != null ? appliedKey(command.idempotencyKey()) : null;
+                if (applied != null) {
+                    if (!applied.matches(command)) {
+                        throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                                "Idempotency-Key was already used for a different request");
+                    }
+                    outcomes[i] = applied.result();
+                    replayed[i] = true;
+                    continue;
+                }
+                StockLevel current = levels.computeIfAbsent(command.productId(), loader);
+                StockLevel next = apply(command, current);
+                befores[i] = current;
+                if (command.mutates()) {
+                    undo.putIfAbsent(command.productId(), current);
+                    levels.put(command.productId(), next);
+                    dirty.add(command.productId());
+                    InventoryMovement movement = toMovement(command, current, next);
+                    AppliedKey key = command.idempotencyKey() != null ? new AppliedKey(command.idempotencyKey(),
+                            command.operation(), command.productId(), command.quantity(), next) : null;
+                    journal.append(++sequence, next, movement, key);
+                    pendingMovements.add(movement);
+                    if (key != null) {
+                        unflushedKeys.put(key.key(), key);
+                        pendingKeys.add(key);
+                    }
+                }
+                outcomes[i] = next;
+            } catch (RuntimeException e) {
+                failures[i] = e;
+            }
+        }
+
+        try {
+            journal.commit();
+        } catch (IOException e) {
+            log.error("Inventory journal commit failed on partition {}", index, e);
+            journal.discardPending();
+            levels.putAll(undo);
+            pendingMovements.subList(movementMark, pendingMovements.size()).clear();
+            List<AppliedKey> added = pendingKeys.subList(keyMark, pendingKeys.size());
+            for (AppliedKey key : added) {
+                unflushedKeys.remove(key.key());
+            }
+            added.clear();
+            UncheckedIOException failure = new UncheckedIOException("Inventory journal commit failed", e);
+            for (int i = 0; i < batch.size(); i++) {
+                if (batch.get(i).mutates() && failures[i] == null) {
+                    failures[i] = failure;
+                }
+            }
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            CompletableFuture<StockLevel> result = batch.get(i).result();
+            if (failures[i] != null) {
+                result.completeExceptionally(failures[i]);
+            } else {
+                result.complete(outcomes[i]);
+                if (batch.get(i).mutates() && !replayed[i]) {
+                    notifyChange(befores[i], outcomes[i]);
+                }
+            }
+        }
+        evict();
+    }
+
+    private AppliedKey appliedKey(String key) {
+        AppliedKey applied = unflushedKeys.get(key);
+        return applied != null ? applied : keyLoader.apply(key);
+    }
+
+    // Only products whose last change reached the database can be dropped; they are loaded again on next use
+    private void evict() {
+        Iterator<UUID> eldest = levels.keySet().iterator();
+        while (levels.size() > maxProducts && eldest.hasNext()) {
+            UUID productId = eldest.next();
+            if (!dirty.contains(productId) && !inFlight.contains(productId)) {
+                eldest.remove();
+            }
+        }
+    }
+
+    private void notifyChange(StockLevel before, StockLevel after) {
+        try {
+            changeListener.accept(before, after);
+        } catch (RuntimeException e) {
+            // Listeners are best effort and must never stall the writer thread
+            log.warn("Inventory change listener failed on partition {}", index, e);
+        }
+    }
+
+    private InventoryMovement toMovement(StockCommand command, StockLevel before, StockLevel after) {
+        return InventoryMovement.builder()
+                .productId(command.productId())
+                .movementType(command.operation() == StockCommand.Operation.SET
+                        ? InventoryMovement.MovementType.ADJUST
+                        : InventoryMovement.MovementType.valueOf(command.operation().name()))
+                .totalDelta(after.totalQuantity() - before.totalQuantity())
+                .reservedDelta(after.reservedQuantity() - before.reservedQuantity())
+                .reason(command.reason())
+                .reference(command.reference())
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private StockLevel apply(StockCommand command, StockLevel current) {
+        int quantity = command.quantity();
+        switch (command.operation()) {
+            case READ:
+                return current;
+            case ADJUST: {
+                int newTotal = current.totalQuantity() + quantity;
+                if (newTotal < 0) throw new RuntimeException("Stock cannot be negative");
+                if (newTotal < current.reservedQuantity()) throw new RuntimeException(belowReserved(current));
+                return current.withQuantities(newTotal, current.reservedQuantity());
+            }
+            case SET:
+                if (quantity < 0) throw new RuntimeException("Stock cannot be negative");
+                if (quantity < current.reservedQuantity()) throw new RuntimeException(belowReserved(current));
+                return current.withQuantities(quantity, current.reservedQuantity());
+            case RESERVE:
+                if (quantity > current.availableQuantity()) throw new InsufficientStockException("Insufficient stock");
+                return current.withQuantities(current.totalQuantity(), current.reservedQuantity() + quantity);
+            case RELEASE:
+                return current.withQuantities(current.totalQuantity(),
+                        Math.max(0, current.reservedQuantity() - quantity));
+            case FULFILL:
+                if (quantity > current.reservedQuantity()) throw new InsufficientStockException("Insufficient reserved stock to fulfill");
+                return current.withQuantities(current.totalQuantity() - quantity,
+                        current.reservedQuantity() - quantity);
+            default:
+                throw new IllegalArgumentException("Unsupported operation: " + command.operation());
+        }
+    }
+
+    private static String belowReserved(StockLevel current) {
+        return "Stock cannot fall below the " + current.reservedQuantity() + " units reserved for orders";
+    }
+}
@@ -0,0 +1,16 @@
+package com.sj.product_service.engine;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+record StockCommand(Operation operation, UUID productId, int quantity, String reason, String reference,
+                    String idempotencyKey, CompletableFuture<StockLevel> result) {
+
+    enum Operation {
+        READ, ADJUST, SET, RESERVE, RELEASE, FULFILL
+    }
+
+    boolean mutates() {
+        return operation != Operation.READ;
+    }
+}
@@ -0,0 +1,51 @@
+package com.sj.product_service.engine;
+
+import com.sj.product_service.entity.Inventory;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record StockLevel(UUID productId, UUID inventoryId, int totalQuantity, int reservedQuantity,
+                         int reorderLevel, int version) {
+
+    private static final String SEPARATOR = "|";
+
+    public int availableQuantity() {
+        return totalQuantity - reservedQuantity;
+    }
+
+    public boolean lowStock() {
+        return totalQuantity <= reorderLevel;
+    }
+
+    StockLevel withQuantities(int total, int reserved) {
+        return new StockLevel(productId, inventoryId, total, reserved, reorderLevel, version + 1);
+    }
+
+    public Inventory toInventory() {
+        return Inventory.builder()
+                .id(inventoryId)
+                .totalQuantity(totalQuantity)
+                .reservedQuantity(reservedQuantity)
+                .reorderLevel(reorderLevel)
+                .lowStockAlert(lowStock())
+                .version(version)
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    String toRecord() {
+        return productId + SEPARATOR + inventoryId + SEPARATOR + totalQuantity + SEPARATOR
+                + reservedQuantity + SEPARATOR + reorderLevel + SEPARATOR + version;
+    }
+
+    static StockLevel fromRecord(String[] parts, int offset) {
+        return new StockLevel(
+                UUID.fromString(parts[offset]),
+                UUID.fromString(parts[offset + 1]),
+                Integer.parseInt(parts[offset + 2]),
+                Integer.parseInt(parts[offset + 3]),
+                Integer.parseInt(parts[offset + 4]),
+                Integer.parseInt(parts[offset + 5]));
+    }
+}
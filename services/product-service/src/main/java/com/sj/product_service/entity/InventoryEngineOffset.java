@@ -0,0 +1,26 @@
+package com.sj.product_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Last journal sequence per engine partition whose movements reached the ledger.
+ */
+@Entity
+@Table(name = "inventory_engine_offsets")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryEngineOffset {
+
+    @Id
+    @Column(name = "partition_id")
+    private Integer partitionId;
+
+    @Column(name = "flushed_sequence", nullable = false)
+    private long flushedSequence;
+}
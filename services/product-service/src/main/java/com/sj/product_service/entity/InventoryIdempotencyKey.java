@@ -0,0 +1,82 @@
+package com.sj.product_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+@Entity
+@Table(name = "inventory_idempotency_keys",
+        indexes = @Index(name = "idx_inventory_idempotency_keys_expires_at", columnList = "expires_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryIdempotencyKey {
+
+    @Id
+    @Column(name = "idempotency_key", length = 128)
+    private String idempotencyKey;
+
+    @Column(name = "operation", nullable = false, length = 16)
+    private String operation;
+
+    @Column(name = "product_id", nullable = false)
+    private UUID productId;
+
+    @Column(name = "quantity", nullable = false)
+    private int quantity;
+
+    @Column(name = "inventory_id")
+    private UUID inventoryId;
+
+    @Column(name = "total_quantity")
+    private Integer totalQuantity;
+
+    @Column(name = "reserved_quantity")
+    private Integer reservedQuantity;
+
+    @Column(name = "reorder_level")
+    private Integer reorderLevel;
+
+    @Column(name = "low_stock_alert")
+    private Boolean lowStockAlert;
+
+    @Column(name = "inventory_version")
+    private Integer inventoryVersion;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public boolean matches(String operation, UUID productId, int quantity) {
+        return this.operation.equals(operation) && this.productId.equals(productId) && this.quantity == quantity;
+    }
+
+    public void recordResult(Inventory inventory) {
+        inventoryId = inventory.getId();
+        totalQuantity = inventory.getTotalQuantity();
+        reservedQuantity = inventory.getReservedQuantity();
+        reorderLevel = inventory.getReorderLevel();
+        lowStockAlert = inventory.isLowStockAlert();
+        inventoryVersion = inventory.getVersion();
+    }
+
+    public Inventory toInventory() {
+        return Inventory.builder()
+                .id(inventoryId)
+                .totalQuantity(Objects.requireNonNull(totalQuantity))
+                .reservedQuantity(Objects.requireNonNull(reservedQuantity))
+                .reorderLevel(Objects.requireNonNull(reorderLevel))
+                .lowStockAlert(Boolean.TRUE.equals(lowStockAlert))
+                .version(Objects.requireNonNull(inventoryVersion))
+                .build();
+    }
+}
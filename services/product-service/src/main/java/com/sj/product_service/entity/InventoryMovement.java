@@ -0,0 +1,60 @@
+package com.sj.product_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "inventory_movements",
+        indexes = @Index(name = "idx_inventory_movements_product_created", columnList = "product_id, created_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_movements_seq")
+    @SequenceGenerator(name = "inventory_movements_seq", sequenceName = "inventory_movements_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false, updatable = false)
+    private UUID productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "movement_type", nullable = false, updatable = false, length = 20)
+    private MovementType movementType;
+
+    @Column(name = "total_delta", nullable = false, updatable = false)
+    private int totalDelta;
+
+    @Column(name = "reserved_delta", nullable = false, updatable = false)
+    private int reservedDelta;
+
+    @Column(updatable = false)
+    private String reason;
+
+    @Column(updatable = false)
+    private String reference;
+
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+
+    public enum MovementType {
+        ADJUST, RESERVE, RELEASE, FULFILL
+    }
+}
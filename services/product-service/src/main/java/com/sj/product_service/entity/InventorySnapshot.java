@@ -0,0 +1,40 @@
+package com.sj.product_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "inventory_snapshots",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"product_id", "as_of"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventorySnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "product_id", nullable = false, updatable = false)
+    private UUID productId;
+
+    @Column(name = "total_quantity", nullable = false, updatable = false)
+    private int totalQuantity;
+
+    @Column(name = "reserved_quantity", nullable = false, updatable = false)
+    private int reservedQuantity;
+
+    @Column(name = "as_of", nullable = false, updatable = false)
+    private LocalDateTime asOf;
+
+    // Highest movement id folded into this snapshot; null only on rows written before the column existed
+    @Column(name = "last_movement_id", updatable = false)
+    private Long lastMovementId;
+}
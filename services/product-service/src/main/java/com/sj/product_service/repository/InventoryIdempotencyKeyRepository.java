@@ -0,0 +1,34 @@
+package com.sj.product_service.repository;
+
+import com.sj.product_service.entity.InventoryIdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface InventoryIdempotencyKeyRepository extends JpaRepository<InventoryIdempotencyKey, String> {
+
+    // Returns 0 while a live entry exists; an expired one is taken over.
+    @Modifying
+    @Query(value = "INSERT INTO inventory_idempotency_keys " +
+            "(idempotency_key, operation, product_id, quantity, created_at, expires_at) " +
+            "VALUES (:key, :operation, :productId, :quantity, :now, :expiresAt) " +
+            "ON CONFLICT (idempotency_key) DO UPDATE SET operation = EXCLUDED.operation, " +
+            "product_id = EXCLUDED.product_id, quantity = EXCLUDED.quantity, inventory_id = NULL, " +
+            "total_quantity = NULL, reserved_quantity = NULL, reorder_level = NULL, low_stock_alert = NULL, " +
+            "inventory_version = NULL, created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at " +
+            "WHERE inventory_idempotency_keys.expires_at <= :now",
+            nativeQuery = true)
+    int claim(@Param("key") String key, @Param("operation") String operation, @Param("productId") UUID productId,
+              @Param("quantity") int quantity, @Param("now") LocalDateTime now,
+              @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM InventoryIdempotencyKey k WHERE k.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
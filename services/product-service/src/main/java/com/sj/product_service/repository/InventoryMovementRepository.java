@@ -0,0 +1,63 @@
+package com.sj.product_service.repository;
+
+import com.sj.product_service.entity.InventoryMovement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, Long> {
+
+    List<InventoryMovement> findByProductIdAndCreatedAtBetweenOrderByCreatedAtAsc(
+            UUID productId, LocalDateTime from, LocalDateTime to, Pageable pageable);
+
+    // nextval inside the INSERT, so an id is only taken while the table lock compaction waits on is held
+    @Modifying
+    @Query(value = "INSERT INTO inventory_movements " +
+            "(id, product_id, movement_type, total_delta, reserved_delta, reason, reference, created_at) " +
+            "VALUES (nextval('inventory_movements_seq'), :productId, :type, :totalDelta, :reservedDelta, " +
+            ":reason, :reference, :createdAt)", nativeQuery = true)
+    int insert(@Param("productId") UUID productId,
+               @Param("type") String type,
+               @Param("totalDelta") int totalDelta,
+               @Param("reservedDelta") int reservedDelta,
+               @Param("reason") String reason,
+               @Param("reference") String reference,
+               @Param("createdAt") LocalDateTime createdAt);
+
+    @Query("SELECT COALESCE(SUM(m.totalDelta), 0) AS totalDelta, COALESCE(SUM(m.reservedDelta), 0) AS reservedDelta " +
+            "FROM InventoryMovement m WHERE m.productId = :productId AND m.id > :afterId AND m.createdAt <= :until")
+    MovementTotals sumDeltas(@Param("productId") UUID productId,
+                             @Param("afterId") long afterId,
+                             @Param("until") LocalDateTime until);
+
+    @Query("SELECT COALESCE(SUM(m.totalDelta), 0) AS totalDelta, COALESCE(SUM(m.reservedDelta), 0) AS reservedDelta " +
+            "FROM InventoryMovement m WHERE m.productId = :productId AND m.createdAt > :after")
+    MovementTotals sumDeltasAfter(@Param("productId") UUID productId, @Param("after") LocalDateTime after);
+
+    @Query("SELECT m.productId AS productId, SUM(m.totalDelta) AS totalDelta, SUM(m.reservedDelta) AS reservedDelta " +
+            "FROM InventoryMovement m WHERE m.id > :afterId AND m.id <= :untilId GROUP BY m.productId")
+    List<ProductMovementTotals> sumDeltasByProduct(@Param("afterId") long afterId,
+                                                   @Param("untilId") long untilId);
+
+    @Modifying
+    @Query("DELETE FROM InventoryMovement m WHERE m.id <= :id")
+    int deleteIdAtOrBelow(@Param("id") long id);
+
+    interface MovementTotals {
+        long getTotalDelta();
+
+        long getReservedDelta();
+    }
+
+    interface ProductMovementTotals extends MovementTotals {
+        UUID getProductId();
+    }
+}
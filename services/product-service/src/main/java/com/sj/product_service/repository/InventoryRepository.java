@@ -3,10 +3,40 @@ package com.sj.product_service.repository;
 import com.sj.product_service.entity.Inventory;
 import com.sj.product_service.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface InventoryRepository extends JpaRepository<Inventory, UUID> {
     Optional<Inventory> findByProduct(Product product);
+
+    Optional<Inventory> findByProductId(UUID productId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO inventories (id, product_id, total_quantity, reserved_quantity, reorder_level, " +
+            "low_stock_alert, created_at, updated_at, version) " +
+            "VALUES (gen_random_uuid(), :productId, 0, 0, :reorderLevel, true, now(), now(), 0) " +
+            "ON CONFLICT (product_id) DO NOTHING",
+            nativeQuery = true)
+    int insertIfMissing(@Param("productId") UUID productId, @Param("reorderLevel") int reorderLevel);
+
+    @Query("SELECT i.product.id AS productId, i.totalQuantity AS totalQuantity, " +
+            "i.reservedQuantity AS reservedQuantity, i.reorderLevel AS reorderLevel, i.version AS version " +
+            "FROM Inventory i WHERE i.product.id IN :productIds")
+    List<StockLevelView> findStockLevelsByProductIds(@Param("productIds") Collection<UUID> productIds);
+
+    interface StockLevelView {
+        UUID getProductId();
+        int getTotalQuantity();
+        int getReservedQuantity();
+        int getReorderLevel();
+        int getVersion();
+    }
 }
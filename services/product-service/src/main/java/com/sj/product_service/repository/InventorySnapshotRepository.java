@@ -0,0 +1,43 @@
+package com.sj.product_service.repository;
+
+import com.sj.product_service.entity.InventorySnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface InventorySnapshotRepository extends JpaRepository<InventorySnapshot, UUID> {
+
+    Optional<InventorySnapshot> findFirstByProductIdAndAsOfLessThanEqualOrderByAsOfDesc(UUID productId, LocalDateTime asOf);
+
+    @Query("SELECT COALESCE(MAX(s.lastMovementId), 0) FROM InventorySnapshot s")
+    long findLatestMovementId();
+
+    @Query("SELECT COALESCE(MAX(s.lastMovementId), 0) FROM InventorySnapshot s WHERE s.asOf <= :asOf")
+    long findLatestMovementIdAsOf(@Param("asOf") LocalDateTime asOf);
+
+    @Query("SELECT s FROM InventorySnapshot s WHERE s.productId IN :productIds AND s.asOf = " +
+            "(SELECT MAX(s2.asOf) FROM InventorySnapshot s2 WHERE s2.productId = s.productId)")
+    List<InventorySnapshot> findLatestByProductIds(@Param("productIds") Collection<UUID> productIds);
+
+    // Baseline for products without a snapshot: the current row minus all of its movements.
+    @Modifying
+    @Query(value = "INSERT INTO inventory_snapshots " +
+            "(id, product_id, total_quantity, reserved_quantity, as_of, last_movement_id) " +
+            "SELECT gen_random_uuid(), i.product_id, " +
+            "i.total_quantity - COALESCE((SELECT SUM(m.total_delta) FROM inventory_movements m " +
+            "WHERE m.product_id = i.product_id), 0), " +
+            "i.reserved_quantity - COALESCE((SELECT SUM(m.reserved_delta) FROM inventory_movements m " +
+            "WHERE m.product_id = i.product_id), 0), :asOf, 0 FROM inventories i " +
+            "WHERE NOT EXISTS (SELECT 1 FROM inventory_snapshots s WHERE s.product_id = i.product_id)",
+            nativeQuery = true)
+    int seedMissingSnapshots(@Param("asOf") LocalDateTime asOf);
+}
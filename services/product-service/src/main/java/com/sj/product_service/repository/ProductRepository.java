@@ -1,5 +1,6 @@
 package com.sj.product_service.repository;
 
+import com.sj.product_service.dto.ProductPriceResponse;
 import com.sj.product_service.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,6 +10,8 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -46,4 +49,24 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
     @Query("SELECT COUNT(p) FROM Product p WHERE p.sellerId = :sellerId")
     Long countBySellerId(@Param("sellerId") UUID sellerId);
 
+    @Query("SELECT p.id AS productId, p.sellerId AS sellerId FROM Product p WHERE p.id IN :ids")
+    List<ProductSeller> findSellersByIds(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT new com.sj.product_service.dto.ProductPriceResponse(p.id, p.sellerId, p.price, p.currency, " +
+            "p.status, p.updatedAt) FROM Product p WHERE p.id IN :ids")
+    List<ProductPriceResponse> findPricesByIds(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT new com.sj.product_service.dto.ProductPriceResponse(p.id, p.sellerId, p.price, p.currency, " +
+            "p.status, p.updatedAt) FROM Product p " +
+            "WHERE p.updatedAt > :since OR (p.updatedAt = :since AND p.id > :afterId) " +
+            "ORDER BY p.updatedAt, p.id")
+    List<ProductPriceResponse> findPricesChangedAfter(@Param("since") LocalDateTime since,
+                                                      @Param("afterId") UUID afterId,
+                                                      Pageable pageable);
+
+    interface ProductSeller {
+        UUID getProductId();
+        UUID getSellerId();
+    }
+
 }
@@ -0,0 +1,88 @@
+package com.sj.product_service.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Verifies the headers signed by the gateway's {@code InternalAuthHeaders}. order-service has an identical
+ * copy, since the services build separately; change the names or the signed payload in all three together.
+ */
+@Component
+public class GatewayAuthHeaders {
+
+    static final String SUBJECT = "X-Auth-Subject";
+    static final String USER_ID = "X-Auth-User-Id";
+    static final String SELLER_ID = "X-Auth-Seller-Id";
+    static final String ROLE = "X-Auth-Role";
+    static final String TIMESTAMP = "X-Auth-Timestamp";
+    static final String SIGNATURE = "X-Auth-Signature";
+
+    private final SecretKeySpec key;
+
+    @Value("${gateway.internal-auth.max-age:30s}")
+    private Duration maxAge;
+
+    public GatewayAuthHeaders(@Value("${gateway.internal-auth.secret:${jwt.secret}}") String secret) {
+        if (secret == null || secret.trim().isEmpty()) {
+            throw new IllegalStateException("Internal auth secret not set! Please check your environment or config.");
+        }
+        this.key = new SecretKeySpec(Base64.getDecoder().decode(secret), "HmacSHA256");
+    }
+
+    public Optional<Claims> read(HttpServletRequest request) {
+        String signature = request.getHeader(SIGNATURE);
+        String timestamp = request.getHeader(TIMESTAMP);
+        String subject = request.getHeader(SUBJECT);
+        if (signature == null || timestamp == null || subject == null) {
+            return Optional.empty();
+        }
+        long signedAt;
+        try {
+            signedAt = Long.parseLong(timestamp);
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+        if (Math.abs(System.currentTimeMillis() - signedAt) > maxAge.toMillis()) {
+            return Optional.empty();
+        }
+        Claims claims = new Claims(subject, request.getHeader(USER_ID), request.getHeader(SELLER_ID),
+                request.getHeader(ROLE));
+        byte[] expected = sign(claims, timestamp);
+        byte[] actual;
+        try {
+            actual = Base64.getUrlDecoder().decode(signature);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        return MessageDigest.isEqual(expected, actual) ? Optional.of(claims) : Optional.empty();
+    }
+
+    private byte[] sign(Claims claims, String timestamp) {
+        String payload = String.join("\n", nullToEmpty(claims.subject()), nullToEmpty(claims.userId()),
+                nullToEmpty(claims.sellerId()), nullToEmpty(claims.role()), timestamp);
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not verify internal auth headers", e);
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    public record Claims(String subject, String userId, String sellerId, String role) {
+    }
+}
@@ -20,14 +20,25 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
     private final JwtUtil jwtUtil;
+    private final GatewayAuthHeaders gatewayAuthHeaders;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        // Requests through the gateway carry already verified claims; trust those over re-parsing the token
+        Optional<GatewayAuthHeaders.Claims> forwarded = gatewayAuthHeaders.read(request);
+        if (forwarded.isPresent()) {
+            GatewayAuthHeaders.Claims claims = forwarded.get();
+            authenticate(claims.subject(), claims.sellerId(), claims.role());
+            filterChain.doFilter(request, response);
+            return;
+        }
+
         String authHeader = request.getHeader("Authorization");
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -39,26 +50,26 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         if (StringUtils.hasText(token) && jwtUtil.validateToken(token)) {
             Claims claims = jwtUtil.extractClaims(token);
-            String username = claims.getSubject();
-            String sellerId = claims.get("sellerId", String.class);
-            String role = claims.get("role", String.class);
+            authenticate(claims.getSubject(), claims.get("sellerId", String.class), claims.get("role", String.class));
+        }
 
-            List<GrantedAuthority> authorities = Collections.emptyList();
+        filterChain.doFilter(request, response);
+    }
 
-            if (role != null) {
-                authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role));
-            }
+    private void authenticate(String username, String sellerId, String role) {
+        List<GrantedAuthority> authorities = Collections.emptyList();
 
-            if (username != null) {
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(username, null, authorities);
-                Map<String, Object> details = new HashMap<>();
-                details.put("sellerId", sellerId);
-                authentication.setDetails(details);
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-            }
+        if (role != null) {
+            authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role));
         }
 
-        filterChain.doFilter(request, response);
+        if (username != null) {
+            UsernamePasswordAuthenticationToken authentication =
+                    new UsernamePasswordAuthenticationToken(username, null, authorities);
+            Map<String, Object> details = new HashMap<>();
+            details.put("sellerId", sellerId);
+            authentication.setDetails(details);
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,14 @@
+package com.sj.product_service.service;
+
+import com.sj.product_service.entity.Inventory;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+public interface InventoryIdempotencyService {
+
+    Inventory execute(String idempotencyKey, String operation, UUID productId, int quantity,
+                      String reason, String reference, Supplier<Inventory> mutation);
+
+    void deleteExpiredKeys();
+}
@@ -0,0 +1,20 @@
+package com.sj.product_service.service;
+
+import com.sj.product_service.dto.InventoryLevelResponse;
+import com.sj.product_service.entity.InventoryMovement;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface InventoryLedgerService {
+
+    void record(UUID productId, InventoryMovement.MovementType type, int totalDelta, int reservedDelta,
+                String reason, String reference);
+
+    List<InventoryMovement> getMovements(UUID productId, LocalDateTime from, LocalDateTime to, int limit);
+
+    InventoryLevelResponse getLevelAt(UUID productId, LocalDateTime asOf);
+
+    void compact();
+}
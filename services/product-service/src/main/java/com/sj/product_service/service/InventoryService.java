@@ -1,21 +1,25 @@
 package com.sj.product_service.service;
 
+import com.sj.product_service.dto.InventoryAvailabilityResponse;
 import com.sj.product_service.entity.Inventory;
 import com.sj.product_service.entity.Product;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface InventoryService {
 
     Inventory getInventoryByProductId(UUID productId);
 
-    Inventory adjustStock(UUID productId, int quantityDelta);
+    List<InventoryAvailabilityResponse> getAvailability(List<UUID> productIds);
 
-    Inventory reserveStock(UUID productId, int quantity);
+    Inventory adjustStock(UUID productId, int quantityDelta, String reason, String reference);
 
-    Inventory releaseReservedStock(UUID productId, int quantity);
+    Inventory reserveStock(UUID productId, int quantity, String reason, String reference);
 
-    Inventory fulfillOrder(UUID productId, int quantity);
+    Inventory releaseReservedStock(UUID productId, int quantity, String reason, String reference);
+
+    Inventory fulfillOrder(UUID productId, int quantity, String reason, String reference);
 
     Inventory createInventoryForProductWithStock(Product product, int initialStock, int reorderLevel);
 
@@ -1,5 +1,6 @@
 package com.sj.product_service.service;
 
+import com.sj.product_service.dto.ProductPriceResponse;
 import com.sj.product_service.dto.ProductRequestDto;
 import com.sj.product_service.dto.ProductResponseDto;
 import com.sj.product_service.entity.Product;
@@ -8,6 +9,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -21,5 +23,7 @@ public interface ProductService {
     void deleteProduct(UUID id);
     void updateProductStatus(UUID productId, Product.ProductStatus status);
     Product saveProductWithImage(String productDTO, MultipartFile imageFile) throws IOException;
+    List<ProductPriceResponse> getPrices(List<UUID> productIds);
+    List<ProductPriceResponse> getPriceChanges(LocalDateTime since, UUID afterId, int limit);
 
 }
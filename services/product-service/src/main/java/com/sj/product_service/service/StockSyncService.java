@@ -0,0 +1,11 @@
+package com.sj.product_service.service;
+
+import com.sj.product_service.dto.StockSyncItem;
+import com.sj.product_service.dto.StockSyncResponse;
+
+import java.util.Iterator;
+
+public interface StockSyncService {
+
+    StockSyncResponse sync(Iterator<StockSyncItem> items, String reference, boolean failuresOnly);
+}
@@ -0,0 +1,113 @@
+package com.sj.product_service.service.impl;
+
+import com.sj.product_service.cache.InventoryAvailabilityCache;
+import com.sj.product_service.dto.InventoryAvailabilityResponse;
+import com.sj.product_service.engine.InventoryEngine;
+import com.sj.product_service.entity.Inventory;
+import com.sj.product_service.entity.Product;
+import com.sj.product_service.service.InventoryService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+@Primary
+@ConditionalOnProperty(name = "inventory.engine.enabled", havingValue = "true")
+public class InMemoryInventoryServiceImpl implements InventoryService {
+
+    private final InventoryEngine inventoryEngine;
+    private final InventoryService delegate;
+    private final InventoryAvailabilityCache availabilityCache;
+
+    public InMemoryInventoryServiceImpl(InventoryEngine inventoryEngine,
+                                        @Qualifier("inventoryServiceImpl") InventoryService delegate,
+                                        InventoryAvailabilityCache availabilityCache) {
+        this.inventoryEngine = inventoryEngine;
+        this.delegate = delegate;
+        this.availabilityCache = availabilityCache;
+    }
+
+    @Override
+    public Inventory getInventoryByProductId(UUID productId) {
+        if (inventoryEngine.owns(productId)) {
+            return inventoryEngine.read(productId);
+        }
+        return delegate.getInventoryByProductId(productId);
+    }
+
+    @Override
+    public List<InventoryAvailabilityResponse> getAvailability(List<UUID> productIds) {
+        Map<UUID, InventoryAvailabilityResponse> found = new HashMap<>();
+        List<UUID> databaseOwned = new ArrayList<>();
+        for (UUID productId : new LinkedHashSet<>(productIds)) {
+            if (!inventoryEngine.owns(productId)) {
+                databaseOwned.add(productId);
+                continue;
+            }
+            // Engine reads are served from memory and are always current, so they bypass the cache
+            try {
+                found.put(productId, InventoryAvailabilityCache.toAvailability(productId, inventoryEngine.read(productId)));
+            } catch (RuntimeException e) {
+                // Unknown to the engine (no inventory row yet); let the database path answer for it
+                databaseOwned.add(productId);
+            }
+        }
+        if (!databaseOwned.isEmpty()) {
+            for (InventoryAvailabilityResponse availability : delegate.getAvailability(databaseOwned)) {
+                found.put(availability.getProductId(), availability);
+            }
+        }
+        return new LinkedHashSet<>(productIds).stream().map(found::get).collect(Collectors.toList());
+    }
+
+    @Override
+    public Inventory adjustStock(UUID productId, int quantityDelta, String reason, String reference) {
+        if (inventoryEngine.owns(productId)) {
+            return inventoryEngine.adjust(productId, quantityDelta, reason, reference);
+        }
+        return delegate.adjustStock(productId, quantityDelta, reason, reference);
+    }
+
+    @Override
+    public Inventory reserveStock(UUID productId, int quantity, String reason, String reference) {
+        if (inventoryEngine.owns(productId)) {
+            return inventoryEngine.reserve(productId, quantity, reason, reference);
+        }
+        return delegate.reserveStock(productId, quantity, reason, reference);
+    }
+
+    @Override
+    public Inventory releaseReservedStock(UUID productId, int quantity, String reason, String reference) {
+        if (inventoryEngine.owns(productId)) {
+            return inventoryEngine.release(productId, quantity, reason, reference);
+        }
+        return delegate.releaseReservedStock(productId, quantity, reason, reference);
+    }
+
+    @Override
+    public Inventory fulfillOrder(UUID productId, int quantity, String reason, String reference) {
+        if (inventoryEngine.owns(productId)) {
+            return inventoryEngine.fulfill(productId, quantity, reason, reference);
+        }
+        return delegate.fulfillOrder(productId, quantity, reason, reference);
+    }
+
+    @Override
+    public Inventory createInventoryForProductWithStock(Product product, int initialStock, int reorderLevel) {
+        return delegate.createInventoryForProductWithStock(product, initialStock, reorderLevel);
+    }
+
+    @Override
+    public Inventory createInventoryForProduct(Product product) {
+        return delegate.createInventoryForProduct(product);
+    }
+}
@@ -0,0 +1,87 @@
+package com.sj.product_service.service.impl;
+
+import com.sj.product_service.engine.InventoryEngine;
+import com.sj.product_service.entity.Inventory;
+import com.sj.product_service.entity.InventoryIdempotencyKey;
+import com.sj.product_service.repository.InventoryIdempotencyKeyRepository;
+import com.sj.product_service.service.InventoryIdempotencyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryIdempotencyServiceImpl implements InventoryIdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 128;
+
+    private final InventoryIdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryEngine inventoryEngine;
+
+    @Value("${inventory.idempotency.ttl:24h}")
+    private Duration ttl;
+
+    @Override
+    public Inventory execute(String idempotencyKey, String operation, UUID productId, int quantity,
+                             String reason, String reference, Supplier<Inventory> mutation) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        if (inventoryEngine.owns(productId)) {
+            // Engine changes commit to its journal, not to this transaction, so the engine keeps the key itself
+            return inventoryEngine.idempotent(idempotencyKey, operation, productId, quantity, reason, reference);
+        }
+        // The claim, the mutation and the stored result commit or roll back together, so a
+        // failed attempt leaves the key free for the retry.
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (idempotencyKeyRepository.claim(idempotencyKey, operation, productId, quantity, now, now.plus(ttl)) == 0) {
+                return replay(idempotencyKey, operation, productId, quantity);
+            }
+            Inventory result = mutation.get();
+            // Flush so the stored copy carries the version the original caller is about to see
+            idempotencyKeyRepository.flush();
+            InventoryIdempotencyKey key = idempotencyKeyRepository.findById(idempotencyKey)
+                    .orElseThrow(() -> new IllegalStateException("Claimed idempotency key disappeared: " + idempotencyKey));
+            key.recordResult(result);
+            idempotencyKeyRepository.save(key);
+            return result;
+        });
+    }
+
+    private Inventory replay(String idempotencyKey, String operation, UUID productId, int quantity) {
+        InventoryIdempotencyKey key = idempotencyKeyRepository.findById(idempotencyKey)
+                .orElseThrow(() -> new IllegalStateException("Idempotency key vanished: " + idempotencyKey));
+        if (!key.matches(operation, productId, quantity)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used for a different request");
+        }
+        log.debug("Replaying {} for product {} from idempotency key {}", operation, productId, idempotencyKey);
+        return key.toInventory();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${inventory.idempotency.cleanup-interval-ms:3600000}",
+            initialDelayString = "${inventory.idempotency.cleanup-initial-delay-ms:300000}")
+    @Transactional
+    public void deleteExpiredKeys() {
+        int deleted = idempotencyKeyRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired inventory idempotency keys", deleted);
+        }
+    }
+}
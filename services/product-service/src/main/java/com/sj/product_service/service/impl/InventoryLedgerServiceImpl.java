@@ -0,0 +1,182 @@
+package com.sj.product_service.service.impl;
+
+import com.sj.product_service.dto.InventoryLevelResponse;
+import com.sj.product_service.entity.InventoryMovement;
+import com.sj.product_service.entity.Inventory;
+import com.sj.product_service.entity.InventorySnapshot;
+import com.sj.product_service.repository.InventoryRepository;
+import com.sj.product_service.repository.InventoryMovementRepository;
+import com.sj.product_service.repository.InventorySnapshotRepository;
+import com.sj.product_service.service.InventoryLedgerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryLedgerServiceImpl implements InventoryLedgerService {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final InventoryMovementRepository movementRepository;
+    private final InventorySnapshotRepository snapshotRepository;
+    private final InventoryRepository inventoryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${inventory.ledger.compaction-lock-timeout:5s}")
+    private Duration compactionLockTimeout;
+
+    @Value("${inventory.ledger.retention:90d}")
+    private Duration retention;
+
+    @Override
+    @Transactional
+    public void record(UUID productId, InventoryMovement.MovementType type, int totalDelta, int reservedDelta,
+                       String reason, String reference) {
+        if (totalDelta == 0 && reservedDelta == 0) {
+            return;
+        }
+        movementRepository.insert(productId, type.name(), totalDelta, reservedDelta, reason, reference,
+                LocalDateTime.now());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<InventoryMovement> getMovements(UUID productId, LocalDateTime from, LocalDateTime to, int limit) {
+        LocalDateTime retainedFrom = retainedFrom();
+        if (from != null && from.isBefore(retainedFrom)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Movements are only kept since " + retainedFrom);
+        }
+        return movementRepository.findByProductIdAndCreatedAtBetweenOrderByCreatedAtAsc(
+                productId, from != null ? from : retainedFrom, to != null ? to : LocalDateTime.now(),
+                PageRequest.of(0, limit));
+    }
+
+    // Repeatable read so the inventory row and the movements summed against it come from one snapshot
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public InventoryLevelResponse getLevelAt(UUID productId, LocalDateTime asOf) {
+        LocalDateTime retainedFrom = retainedFrom();
+        if (asOf.isBefore(retainedFrom)) {
+            // The movements after the last snapshot before asOf may already be pruned
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Stock levels can only be reconstructed since " + retainedFrom);
+        }
+        InventorySnapshot snapshot = snapshotRepository
+                .findFirstByProductIdAndAsOfLessThanEqualOrderByAsOfDesc(productId, asOf)
+                .orElse(null);
+        int total;
+        int reserved;
+        if (snapshot != null) {
+            InventoryMovementRepository.MovementTotals deltas =
+                    movementRepository.sumDeltas(productId, lastMovementId(snapshot), asOf);
+            total = snapshot.getTotalQuantity() + (int) deltas.getTotalDelta();
+            reserved = snapshot.getReservedQuantity() + (int) deltas.getReservedDelta();
+        } else {
+            // Not compacted yet: walk back from the current row, which also covers stock that predates the ledger
+            Inventory inventory = inventoryRepository.findByProductId(productId).orElse(null);
+            InventoryMovementRepository.MovementTotals later = movementRepository.sumDeltasAfter(productId, asOf);
+            total = (inventory != null ? inventory.getTotalQuantity() : 0) - (int) later.getTotalDelta();
+            reserved = (inventory != null ? inventory.getReservedQuantity() : 0) - (int) later.getReservedDelta();
+        }
+        return InventoryLevelResponse.builder()
+                .productId(productId)
+                .totalQuantity(total)
+                .reservedQuantity(reserved)
+                .availableQuantity(total - reserved)
+                .asOf(asOf)
+                .build();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${inventory.ledger.compaction-interval-ms:900000}",
+            initialDelayString = "${inventory.ledger.compaction-initial-delay-ms:60000}")
+    public void compact() {
+        Long bound;
+        try {
+            bound = transactionTemplate.execute(status -> {
+                // SHARE waits out every open INSERT, so each id up to MAX(id) is committed or gone for good
+                jdbcTemplate.execute("SET LOCAL lock_timeout = '" + compactionLockTimeout.toMillis() + "ms'");
+                jdbcTemplate.execute("LOCK TABLE inventory_movements IN SHARE MODE");
+                return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM inventory_movements", Long.class);
+            });
+        } catch (DataAccessException e) {
+            log.warn("Inventory ledger compaction skipped, movements table is busy: {}", e.getMessage());
+            return;
+        }
+        if (bound == null) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> fold(bound));
+    }
+
+    private void fold(long bound) {
+        long previous = snapshotRepository.findLatestMovementId();
+        if (bound <= previous) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+
+        // Baselines go in first so the movements folded below build on them rather than on zero
+        int seeded = snapshotRepository.seedMissingSnapshots(EPOCH);
+
+        List<InventoryMovementRepository.ProductMovementTotals> totals =
+                movementRepository.sumDeltasByProduct(previous, bound);
+        if (!totals.isEmpty()) {
+            Map<UUID, InventorySnapshot> latest = snapshotRepository.findLatestByProductIds(
+                            totals.stream().map(InventoryMovementRepository.ProductMovementTotals::getProductId)
+                                    .collect(Collectors.toList()))
+                    .stream()
+                    .collect(Collectors.toMap(InventorySnapshot::getProductId, Function.identity()));
+
+            List<InventorySnapshot> snapshots = totals.stream()
+                    .map(delta -> {
+                        InventorySnapshot base = latest.get(delta.getProductId());
+                        return InventorySnapshot.builder()
+                                .productId(delta.getProductId())
+                                .totalQuantity((base != null ? base.getTotalQuantity() : 0) + (int) delta.getTotalDelta())
+                                .reservedQuantity((base != null ? base.getReservedQuantity() : 0) + (int) delta.getReservedDelta())
+                                .asOf(now)
+                                .lastMovementId(bound)
+                                .build();
+                    })
+                    .collect(Collectors.toList());
+            snapshotRepository.saveAll(snapshots);
+        }
+
+        // Only movements already folded into a snapshot from before the retention window may go
+        long pruneBound = snapshotRepository.findLatestMovementIdAsOf(now.minus(retention));
+        int pruned = pruneBound > 0 ? movementRepository.deleteIdAtOrBelow(pruneBound) : 0;
+        log.info("Inventory ledger compacted up to movement {}: {} snapshots, {} seeded, {} movements pruned",
+                bound, totals.size(), seeded, pruned);
+    }
+
+    private static long lastMovementId(InventorySnapshot snapshot) {
+        return snapshot.getLastMovementId() != null ? snapshot.getLastMovementId() : 0L;
+    }
+
+    private LocalDateTime retainedFrom() {
+        return LocalDateTime.now().minus(retention);
+    }
+}
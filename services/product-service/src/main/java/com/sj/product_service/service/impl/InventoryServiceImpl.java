@@ -1,28 +1,85 @@
 package com.sj.product_service.service.impl;
 
+import com.sj.product_service.alert.LowStockAlertCoalescer;
+import com.sj.product_service.cache.InventoryAvailabilityCache;
+import com.sj.product_service.dto.InventoryAvailabilityResponse;
 import com.sj.product_service.entity.Inventory;
+import com.sj.product_service.entity.InventoryMovement;
 import com.sj.product_service.entity.Product;
+import com.sj.product_service.exception.InsufficientStockException;
 import com.sj.product_service.repository.InventoryRepository;
-import com.sj.product_service.repository.ProductRepository;
+import com.sj.product_service.service.InventoryLedgerService;
 import com.sj.product_service.service.InventoryService;
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class InventoryServiceImpl implements InventoryService {
 
+    private static final int DEFAULT_REORDER_LEVEL = 10;
+
     private final InventoryRepository inventoryRepository;
-    private final ProductRepository productRepository;
+    private final InventoryLedgerService inventoryLedgerService;
+    private final InventoryAvailabilityCache availabilityCache;
+    private final LowStockAlertCoalescer lowStockAlerts;
 
     @Override
     public Inventory getInventoryByProductId(UUID productId) {
-        Product product = productRepository.findById(productId).orElseThrow(() -> new RuntimeException("Product not found"));
-        return inventoryRepository.findByProduct(product).orElseGet(() -> createInventoryForProduct(product));
+        return inventoryRepository.findByProductId(productId).orElseGet(() -> createInventoryIfMissing(productId));
+    }
+
+    private Inventory createInventoryIfMissing(UUID productId) {
+        try {
+            inventoryRepository.insertIfMissing(productId, DEFAULT_REORDER_LEVEL);
+        } catch (DataIntegrityViolationException e) {
+            throw new EntityNotFoundException("Product not found");
+        }
+        // Either our insert or a concurrent one won; both leave exactly one row to read back
+        Inventory inventory = inventoryRepository.findByProductId(productId)
+                .orElseThrow(() -> new RuntimeException("Inventory not found for product: " + productId));
+        availabilityCache.update(productId, inventory);
+        return inventory;
+    }
+
+    @Override
+    public List<InventoryAvailabilityResponse> getAvailability(List<UUID> productIds) {
+        Set<UUID> requested = new LinkedHashSet<>(productIds);
+        Map<UUID, InventoryAvailabilityResponse> found = availabilityCache.getAll(requested);
+
+        List<UUID> misses = new ArrayList<>();
+        for (UUID productId : requested) {
+            if (!found.containsKey(productId)) misses.add(productId);
+        }
+        if (!misses.isEmpty()) {
+            Map<UUID, InventoryRepository.StockLevelView> loaded = inventoryRepository.findStockLevelsByProductIds(misses)
+                    .stream()
+                    .collect(Collectors.toMap(InventoryRepository.StockLevelView::getProductId, Function.identity()));
+            for (UUID productId : misses) {
+                InventoryRepository.StockLevelView level = loaded.get(productId);
+                // No inventory row yet reads as out of stock; the row is created lazily on first use
+                InventoryAvailabilityResponse availability = level != null
+                        ? InventoryAvailabilityResponse.of(productId, level.getTotalQuantity(),
+                                level.getReservedQuantity(), level.getReorderLevel())
+                        : InventoryAvailabilityResponse.of(productId, 0, 0, 0);
+                availabilityCache.put(availability, level != null ? level.getVersion() : -1);
+                found.put(productId, availability);
+            }
+        }
+        return requested.stream().map(found::get).collect(Collectors.toList());
     }
 
     @Transactional
@@ -31,12 +88,14 @@ public class InventoryServiceImpl implements InventoryService {
                 .product(product)
                 .totalQuantity(0)
                 .reservedQuantity(0)
-                .reorderLevel(10)
+                .reorderLevel(DEFAULT_REORDER_LEVEL)
                 .lowStockAlert(false)
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .build();
-        return inventoryRepository.save(inventory);
+        Inventory saved = inventoryRepository.save(inventory);
+        availabilityCache.update(product.getId(), saved);
+        return saved;
     }
 
     @Transactional
@@ -50,54 +109,84 @@ public class InventoryServiceImpl implements InventoryService {
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .build();
-        return inventoryRepository.save(inventory);
+        Inventory saved = inventoryRepository.save(inventory);
+        availabilityCache.update(product.getId(), saved);
+        inventoryLedgerService.record(product.getId(), InventoryMovement.MovementType.ADJUST,
+                initialStock, initialStock, "INITIAL_STOCK", null);
+        return saved;
     }
 
     @Override
     @Transactional
-    public Inventory adjustStock(UUID productId, int quantityDelta) {
+    public Inventory adjustStock(UUID productId, int quantityDelta, String reason, String reference) {
         Inventory inventory = getInventoryByProductId(productId);
         int newTotal = inventory.getTotalQuantity() + quantityDelta;
         if (newTotal < 0) throw new RuntimeException("Stock cannot be negative");
+        if (newTotal < inventory.getReservedQuantity()) {
+            throw new RuntimeException("Stock cannot fall below the " + inventory.getReservedQuantity()
+                    + " units reserved for orders");
+        }
+        boolean wasLow = inventory.getTotalQuantity() <= inventory.getReorderLevel();
         inventory.setTotalQuantity(newTotal);
         inventory.setLowStockAlert(newTotal <= inventory.getReorderLevel());
+        lowStockAlerts.onStockChanged(productId, wasLow, inventory.isLowStockAlert(), newTotal, inventory.getReorderLevel());
         inventory.setUpdatedAt(LocalDateTime.now());
-        return inventoryRepository.save(inventory);
+        Inventory saved = inventoryRepository.save(inventory);
+        availabilityCache.update(productId, saved);
+        inventoryLedgerService.record(productId, InventoryMovement.MovementType.ADJUST,
+                quantityDelta, 0, reason, reference);
+        return saved;
     }
 
     @Override
     @Transactional
-    public Inventory reserveStock(UUID productId, int quantity) {
+    public Inventory reserveStock(UUID productId, int quantity, String reason, String reference) {
         Inventory inventory = getInventoryByProductId(productId);
         int available = inventory.getAvailableQuantity();
-        if (quantity > available) throw new RuntimeException("Insufficient stock");
+        if (quantity > available) throw new InsufficientStockException("Insufficient stock");
         inventory.setReservedQuantity(inventory.getReservedQuantity() + quantity);
         inventory.setUpdatedAt(LocalDateTime.now());
-        return inventoryRepository.save(inventory);
+        Inventory saved = inventoryRepository.save(inventory);
+        availabilityCache.update(productId, saved);
+        inventoryLedgerService.record(productId, InventoryMovement.MovementType.RESERVE,
+                0, quantity, reason, reference);
+        return saved;
     }
 
     @Override
     @Transactional
-    public Inventory releaseReservedStock(UUID productId, int quantity) {
+    public Inventory releaseReservedStock(UUID productId, int quantity, String reason, String reference) {
         Inventory inventory = getInventoryByProductId(productId);
-        int newReserved = inventory.getReservedQuantity() - quantity;
+        int previousReserved = inventory.getReservedQuantity();
+        int newReserved = previousReserved - quantity;
         if (newReserved < 0) newReserved = 0;
         inventory.setReservedQuantity(newReserved);
         inventory.setUpdatedAt(LocalDateTime.now());
-        return inventoryRepository.save(inventory);
+        Inventory saved = inventoryRepository.save(inventory);
+        availabilityCache.update(productId, saved);
+        inventoryLedgerService.record(productId, InventoryMovement.MovementType.RELEASE,
+                0, newReserved - previousReserved, reason, reference);
+        return saved;
     }
 
     @Override
     @Transactional
-    public Inventory fulfillOrder(UUID productId, int quantity) {
+    public Inventory fulfillOrder(UUID productId, int quantity, String reason, String reference) {
         Inventory inventory = getInventoryByProductId(productId);
-        int available = inventory.getAvailableQuantity();
-        if (quantity > available) throw new RuntimeException("Insufficient stock to fulfill");
+        // Fulfillment ships stock that was reserved for the order, so it draws on the reservation
+        if (quantity > inventory.getReservedQuantity()) throw new InsufficientStockException("Insufficient reserved stock to fulfill");
+        boolean wasLow = inventory.getTotalQuantity() <= inventory.getReorderLevel();
         inventory.setTotalQuantity(inventory.getTotalQuantity() - quantity);
         inventory.setReservedQuantity(inventory.getReservedQuantity() - quantity);
         inventory.setLowStockAlert(inventory.getTotalQuantity() <= inventory.getReorderLevel());
+        lowStockAlerts.onStockChanged(productId, wasLow, inventory.isLowStockAlert(),
+                inventory.getTotalQuantity(), inventory.getReorderLevel());
         inventory.setUpdatedAt(LocalDateTime.now());
-        return inventoryRepository.save(inventory);
+        Inventory saved = inventoryRepository.save(inventory);
+        availabilityCache.update(productId, saved);
+        inventoryLedgerService.record(productId, InventoryMovement.MovementType.FULFILL,
+                -quantity, -quantity, reason, reference);
+        return saved;
     }
 
 }
@@ -1,5 +1,6 @@
 package com.sj.product_service.service.impl;
 
+import com.sj.product_service.dto.ProductPriceResponse;
 import com.sj.product_service.dto.ProductRequestDto;
 import com.sj.product_service.dto.ProductResponseDto;
 import com.sj.product_service.entity.Category;
@@ -18,12 +19,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -186,4 +189,16 @@ public class ProductServiceImpl implements ProductService {
         return product;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductPriceResponse> getPrices(List<UUID> productIds) {
+        return productRepository.findPricesByIds(new HashSet<>(productIds));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductPriceResponse> getPriceChanges(LocalDateTime since, UUID afterId, int limit) {
+        return productRepository.findPricesChangedAfter(since, afterId, PageRequest.of(0, limit));
+    }
+
 }
@@ -0,0 +1,315 @@
+package com.sj.product_service.service.impl;
+
+import com.sj.product_service.alert.LowStockAlertCoalescer;
+import com.sj.product_service.cache.InventoryAvailabilityCache;
+import com.sj.product_service.dto.InventoryAvailabilityResponse;
+import com.sj.product_service.dto.StockSyncItem;
+import com.sj.product_service.dto.StockSyncResponse;
+import com.sj.product_service.dto.StockSyncResult;
+import com.sj.product_service.engine.InventoryEngine;
+import com.sj.product_service.entity.Inventory;
+import com.sj.product_service.entity.InventoryMovement;
+import com.sj.product_service.service.StockSyncService;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockSyncServiceImpl implements StockSyncService {
+
+    private static final String REASON = "WAREHOUSE_SYNC";
+    private static final int DEFAULT_REORDER_LEVEL = 10;
+
+    private static final String SELECT_SQL = "SELECT product_id, total_quantity, reserved_quantity, reorder_level, " +
+            "version FROM inventories WHERE product_id IN (:productIds)";
+    private static final String CREATE_MISSING_SQL = "INSERT INTO inventories (id, product_id, total_quantity, " +
+            "reserved_quantity, reorder_level, low_stock_alert, created_at, updated_at, version) " +
+            "SELECT gen_random_uuid(), p.id, 0, 0, :reorderLevel, true, now(), now(), 0 FROM products p " +
+            "WHERE p.id IN (:productIds) ON CONFLICT (product_id) DO NOTHING";
+    private static final String UPDATE_SQL = "UPDATE inventories SET total_quantity = ?, low_stock_alert = ?, " +
+            "updated_at = ?, version = version + 1 WHERE product_id = ? AND version = ?";
+    private static final String MOVEMENT_SQL = "INSERT INTO inventory_movements " +
+            "(id, product_id, movement_type, total_delta, reserved_delta, reason, reference, created_at) " +
+            "VALUES (nextval('inventory_movements_seq'), ?, ?, ?, ?, ?, ?, ?)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryEngine inventoryEngine;
+    private final InventoryAvailabilityCache availabilityCache;
+    private final LowStockAlertCoalescer lowStockAlerts;
+
+    @Value("${inventory.sync.chunk-size:1000}")
+    private int chunkSize;
+
+    // Optimistic version check retries for rows changed by live traffic while a chunk was applied
+    @Value("${inventory.sync.max-attempts:3}")
+    private int maxAttempts;
+
+    @Override
+    public StockSyncResponse sync(Iterator<StockSyncItem> items, String reference, boolean failuresOnly) {
+        long started = System.nanoTime();
+        Map<UUID, CoalescedUpdate> updates = new LinkedHashMap<>();
+        SyncResults results = new SyncResults(failuresOnly);
+        int received = 0;
+
+        while (items.hasNext()) {
+            StockSyncItem item = items.next();
+            received++;
+            String problem = validate(item);
+            if (problem != null) {
+                results.add(StockSyncResult.builder()
+                        .productId(item != null ? item.getProductId() : null)
+                        .records(1)
+                        .status(StockSyncResult.Status.INVALID)
+                        .message("Record " + received + ": " + problem)
+                        .build());
+                continue;
+            }
+            updates.computeIfAbsent(item.getProductId(), id -> new CoalescedUpdate()).add(item);
+        }
+
+        List<UUID> databaseOwned = new ArrayList<>();
+        for (Map.Entry<UUID, CoalescedUpdate> entry : updates.entrySet()) {
+            if (inventoryEngine.owns(entry.getKey())) {
+                results.add(applyToEngine(entry.getKey(), entry.getValue(), reference));
+            } else {
+                databaseOwned.add(entry.getKey());
+            }
+        }
+        for (int from = 0; from < databaseOwned.size(); from += chunkSize) {
+            List<UUID> chunk = databaseOwned.subList(from, Math.min(from + chunkSize, databaseOwned.size()));
+            applyChunk(chunk, updates, reference).forEach(results::add);
+        }
+
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("Stock sync {} applied {} records to {} products in {} ms: {}",
+                reference, received, updates.size(), durationMs, results.outcomes);
+        return StockSyncResponse.builder()
+                .received(received)
+                .products(updates.size())
+                .outcomes(results.outcomes)
+                .durationMs(durationMs)
+                .results(results.results)
+                .build();
+    }
+
+    private String validate(StockSyncItem item) {
+        if (item == null || item.getProductId() == null) {
+            return "productId is required";
+        }
+        if ((item.getDelta() == null) == (item.getAbsolute() == null)) {
+            return "exactly one of delta or absolute is required";
+        }
+        if (item.getAbsolute() != null && item.getAbsolute() < 0) {
+            return "absolute quantity cannot be negative";
+        }
+        return null;
+    }
+
+    private StockSyncResult applyToEngine(UUID productId, CoalescedUpdate update, String reference) {
+        try {
+            Inventory inventory = update.absolute != null
+                    ? inventoryEngine.set(productId, Math.toIntExact(update.absolute + update.delta), REASON, reference)
+                    : inventoryEngine.adjust(productId, Math.toIntExact(update.delta), REASON, reference);
+            return outcome(productId, update, StockSyncResult.Status.APPLIED, inventory.getTotalQuantity(), null);
+        } catch (ArithmeticException e) {
+            return outcome(productId, update, StockSyncResult.Status.REJECTED, null, "Stock quantity out of range");
+        } catch (EntityNotFoundException e) {
+            return outcome(productId, update, StockSyncResult.Status.NOT_FOUND, null, e.getMessage());
+        } catch (RuntimeException e) {
+            return outcome(productId, update, StockSyncResult.Status.REJECTED, null, e.getMessage());
+        }
+    }
+
+    private List<StockSyncResult> applyChunk(List<UUID> productIds, Map<UUID, CoalescedUpdate> updates,
+                                             String reference) {
+        List<AppliedChange> applied = new ArrayList<>();
+        List<StockSyncResult> results = transactionTemplate.execute(status -> {
+            List<StockSyncResult> chunkResults = new ArrayList<>(productIds.size());
+            Map<UUID, StockRow> rows = select(productIds);
+            if (rows.size() < productIds.size()) {
+                List<UUID> missing = productIds.stream().filter(id -> !rows.containsKey(id))
+                        .collect(Collectors.toList());
+                jdbcTemplate.update(CREATE_MISSING_SQL, new MapSqlParameterSource("productIds", missing)
+                        .addValue("reorderLevel", DEFAULT_REORDER_LEVEL));
+                rows.putAll(select(missing));
+            }
+
+            List<UUID> pending = new ArrayList<>();
+            for (UUID productId : productIds) {
+                if (rows.containsKey(productId)) {
+                    pending.add(productId);
+                } else {
+                    chunkResults.add(outcome(productId, updates.get(productId), StockSyncResult.Status.NOT_FOUND,
+                            null, "Product not found"));
+                }
+            }
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            for (int attempt = 1; !pending.isEmpty(); attempt++) {
+                List<AppliedChange> candidates = new ArrayList<>(pending.size());
+                for (UUID productId : pending) {
+                    StockRow row = rows.get(productId);
+                    CoalescedUpdate update = updates.get(productId);
+                    long target = update.target(row.totalQuantity());
+                    if (target < 0 || target > Integer.MAX_VALUE) {
+                        chunkResults.add(outcome(productId, update, StockSyncResult.Status.REJECTED, row.totalQuantity(),
+                                target < 0 ? "Stock cannot be negative" : "Stock quantity out of range"));
+                    } else if (target < row.reservedQuantity()) {
+                        // Reservations are stock promised to orders; a count below them needs a person to look
+                        chunkResults.add(outcome(productId, update, StockSyncResult.Status.REJECTED, row.totalQuantity(),
+                                belowReserved(row.reservedQuantity())));
+                    } else if (target == row.totalQuantity()) {
+                        // Nothing to write; most SKUs in a nightly full sync land here
+                        chunkResults.add(outcome(productId, update, StockSyncResult.Status.APPLIED, row.totalQuantity(), null));
+                    } else {
+                        candidates.add(new AppliedChange(row, (int) target));
+                    }
+                }
+                if (candidates.isEmpty()) {
+                    break;
+                }
+
+                List<Object[]> args = new ArrayList<>(candidates.size());
+                for (AppliedChange change : candidates) {
+                    args.add(new Object[]{change.newTotal(), change.lowStock(), now,
+                            change.row().productId(), change.row().version()});
+                }
+                int[] counts = jdbcTemplate.getJdbcTemplate().batchUpdate(UPDATE_SQL, args);
+
+                List<UUID> conflicted = new ArrayList<>();
+                for (int i = 0; i < candidates.size(); i++) {
+                    AppliedChange change = candidates.get(i);
+                    UUID productId = change.row().productId();
+                    if (counts[i] == 0) {
+                        conflicted.add(productId);
+                    } else {
+                        applied.add(change);
+                        chunkResults.add(outcome(productId, updates.get(productId), StockSyncResult.Status.APPLIED,
+                                change.newTotal(), null));
+                    }
+                }
+                if (conflicted.isEmpty()) {
+                    break;
+                }
+                if (attempt >= maxAttempts) {
+                    for (UUID productId : conflicted) {
+                        chunkResults.add(outcome(productId, updates.get(productId), StockSyncResult.Status.CONFLICT,
+                                null, "Inventory changed concurrently, retry the record"));
+                    }
+                    break;
+                }
+                rows.putAll(select(conflicted));
+                pending = conflicted;
+            }
+
+            List<Object[]> movements = new ArrayList<>(applied.size());
+            for (AppliedChange change : applied) {
+                movements.add(new Object[]{change.row().productId(), InventoryMovement.MovementType.ADJUST.name(),
+                        change.newTotal() - change.row().totalQuantity(), 0, REASON, reference, now});
+            }
+            jdbcTemplate.getJdbcTemplate().batchUpdate(MOVEMENT_SQL, movements);
+            return chunkResults;
+        });
+
+        for (AppliedChange change : applied) {
+            StockRow row = change.row();
+            availabilityCache.put(InventoryAvailabilityResponse.of(row.productId(), change.newTotal(),
+                    row.reservedQuantity(), row.reorderLevel()), row.version() + 1L);
+            lowStockAlerts.onStockChanged(row.productId(), row.totalQuantity() <= row.reorderLevel(),
+                    change.lowStock(), change.newTotal(), row.reorderLevel());
+        }
+        return results;
+    }
+
+    private static String belowReserved(int reservedQuantity) {
+        return "Stock cannot fall below the " + reservedQuantity + " units reserved for orders";
+    }
+
+    private Map<UUID, StockRow> select(List<UUID> productIds) {
+        Map<UUID, StockRow> rows = new HashMap<>();
+        jdbcTemplate.query(SELECT_SQL, new MapSqlParameterSource("productIds", productIds), rs -> {
+            UUID productId = rs.getObject("product_id", UUID.class);
+            rows.put(productId, new StockRow(productId, rs.getInt("total_quantity"), rs.getInt("reserved_quantity"),
+                    rs.getInt("reorder_level"), rs.getInt("version")));
+        });
+        return rows;
+    }
+
+    private StockSyncResult outcome(UUID productId, CoalescedUpdate update, StockSyncResult.Status status,
+                                    Integer totalQuantity, String message) {
+        return StockSyncResult.builder()
+                .productId(productId)
+                .records(update.records)
+                .status(status)
+                .totalQuantity(totalQuantity)
+                .message(message)
+                .build();
+    }
+
+    private static final class SyncResults {
+        private final Map<StockSyncResult.Status, Integer> outcomes = new EnumMap<>(StockSyncResult.Status.class);
+        private final List<StockSyncResult> results = new ArrayList<>();
+        private final boolean failuresOnly;
+
+        SyncResults(boolean failuresOnly) {
+            this.failuresOnly = failuresOnly;
+        }
+
+        void add(StockSyncResult result) {
+            outcomes.merge(result.getStatus(), 1, Integer::sum);
+            if (!failuresOnly || result.getStatus() != StockSyncResult.Status.APPLIED) {
+                results.add(result);
+            }
+        }
+    }
+
+    private static final class CoalescedUpdate {
+        private Long absolute;
+        private long delta;
+        private int records;
+
+        void add(StockSyncItem item) {
+            if (item.getAbsolute() != null) {
+                absolute = (long) item.getAbsolute();
+                delta = 0;
+            } else {
+                delta += item.getDelta();
+            }
+            records++;
+        }
+
+        long target(int currentTotal) {
+            return (absolute != null ? absolute : currentTotal) + delta;
+        }
+    }
+
+    private record StockRow(UUID productId, int totalQuantity, int reservedQuantity, int reorderLevel, int version) {
+    }
+
+    private record AppliedChange(StockRow row, int newTotal) {
+
+        boolean lowStock() {
+            return newTotal <= row.reorderLevel();
+        }
+    }
+}
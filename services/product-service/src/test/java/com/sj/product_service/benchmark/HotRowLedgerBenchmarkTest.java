@@ -0,0 +1,113 @@
+package com.sj.product_service.benchmark;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Cost of the ledger INSERT next to the hot-row UPDATE; run with ./gradlew benchmark, excluded from the regular test task.
+@Tag("benchmark")
+@Testcontainers
+class HotRowLedgerBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotRowLedgerBenchmarkTest.class);
+
+    private static final int WRITERS = 32;
+    private static final Duration WARM_UP = Duration.ofSeconds(3);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(10);
+    private static final String UPDATE_SQL = "UPDATE inventories SET reserved_quantity = reserved_quantity + 1, " +
+            "version = version + 1 WHERE product_id = ?";
+    private static final String MOVEMENT_SQL = "INSERT INTO inventory_movements (id, product_id, total_delta, " +
+            "reserved_delta, created_at) VALUES (nextval('inventory_movements_seq'), ?, 0, 1, now())";
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private final UUID productId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS inventories, inventory_movements");
+            statement.execute("DROP SEQUENCE IF EXISTS inventory_movements_seq");
+            statement.execute("CREATE TABLE inventories (product_id uuid PRIMARY KEY, " +
+                    "reserved_quantity int NOT NULL, version bigint NOT NULL)");
+            statement.execute("CREATE SEQUENCE inventory_movements_seq INCREMENT BY 50");
+            statement.execute("CREATE TABLE inventory_movements (id bigint PRIMARY KEY, product_id uuid NOT NULL, " +
+                    "total_delta int NOT NULL, reserved_delta int NOT NULL, created_at timestamp NOT NULL)");
+            statement.execute("CREATE INDEX ON inventory_movements (product_id, created_at)");
+            statement.execute("INSERT INTO inventories VALUES ('" + productId + "', 0, 0)");
+        }
+    }
+
+    @Test
+    void ledgerInsertAddsLittleToTheHotRowUpdate() throws Exception {
+        measure(false, WARM_UP);
+        double hotRowOnly = measure(false, MEASUREMENT);
+        measure(true, WARM_UP);
+        double withLedger = measure(true, MEASUREMENT);
+
+        logger.info("{} writers on one inventory row", WRITERS);
+        logger.info("  UPDATE only:          {} commits/s", String.format("%,.0f", hotRowOnly));
+        logger.info("  UPDATE + ledger row:  {} commits/s ({})", String.format("%,.0f", withLedger),
+                String.format("%.2fx", withLedger / hotRowOnly));
+
+        // Writers queue on the row lock either way; the append-only insert runs while the lock is held
+        assertThat(withLedger).isGreaterThan(hotRowOnly * 0.5);
+    }
+
+    private double measure(boolean withLedger, Duration duration) throws InterruptedException {
+        LongAdder committed = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService writers = Executors.newFixedThreadPool(WRITERS);
+        for (int i = 0; i < WRITERS; i++) {
+            writers.execute(() -> {
+                try (Connection connection = connect();
+                     PreparedStatement update = connection.prepareStatement(UPDATE_SQL);
+                     PreparedStatement movement = connection.prepareStatement(MOVEMENT_SQL)) {
+                    connection.setAutoCommit(false);
+                    update.setObject(1, productId);
+                    movement.setObject(1, productId);
+                    while (running.get()) {
+                        update.executeUpdate();
+                        if (withLedger) {
+                            movement.executeUpdate();
+                        }
+                        connection.commit();
+                        committed.increment();
+                    }
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+        Thread.sleep(duration.toMillis());
+        running.set(false);
+        writers.shutdown();
+        assertThat(writers.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        return committed.sum() / (duration.toMillis() / 1000.0);
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    }
+}
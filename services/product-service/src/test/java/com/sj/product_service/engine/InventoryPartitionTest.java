@@ -0,0 +1,273 @@
+package com.sj.product_service.engine;
+
+import com.sj.product_service.exception.InsufficientStockException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InventoryPartitionTest {
+
+    @TempDir
+    Path journalDir;
+
+    private final UUID productId = UUID.randomUUID();
+    private final Map<String, AppliedKey> storedKeys = new HashMap<>();
+    private InventoryPartition partition;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        InventoryJournal journal = new InventoryJournal(journalDir, 0, false);
+        partition = new InventoryPartition(0, 64, 16, 1000, journal,
+                id -> new StockLevel(id, UUID.randomUUID(), 1, 0, 0, 0), storedKeys::get, (before, after) -> {
+                });
+        partition.start(0);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        partition.stop();
+        partition.close();
+    }
+
+    @Test
+    void fulfillsTheLastReservedUnit() {
+        execute(StockCommand.Operation.RESERVE, 1);
+        StockLevel fulfilled = execute(StockCommand.Operation.FULFILL, 1);
+
+        assertThat(fulfilled.totalQuantity()).isZero();
+        assertThat(fulfilled.reservedQuantity()).isZero();
+    }
+
+    @Test
+    void refusesToFulfillWithoutAReservation() {
+        assertThatThrownBy(() -> execute(StockCommand.Operation.FULFILL, 1))
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(InsufficientStockException.class)
+                .hasMessageContaining("reserved");
+        assertThat(execute(StockCommand.Operation.READ, 0).totalQuantity()).isEqualTo(1);
+    }
+
+    @Test
+    void refusesToCountStockBelowWhatIsReserved() {
+        execute(StockCommand.Operation.RESERVE, 1);
+
+        assertThatThrownBy(() -> execute(StockCommand.Operation.SET, 0))
+                .isInstanceOf(CompletionException.class)
+                .hasMessageContaining("reserved");
+        StockLevel level = execute(StockCommand.Operation.READ, 0);
+        assertThat(level.totalQuantity()).isEqualTo(1);
+        assertThat(level.reservedQuantity()).isEqualTo(1);
+    }
+
+    @Test
+    void neverOversellsUnderConcurrentReservations() throws Exception {
+        execute(StockCommand.Operation.ADJUST, 99);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> attempts = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            attempts.add(callers.submit(() -> {
+                try {
+                    execute(StockCommand.Operation.RESERVE, 1);
+                    return true;
+                } catch (CompletionException e) {
+                    return false;
+                }
+            }));
+        }
+        int reserved = 0;
+        for (Future<Boolean> attempt : attempts) {
+            reserved += attempt.get() ? 1 : 0;
+        }
+        callers.shutdown();
+
+        assertThat(reserved).isEqualTo(100);
+        assertThat(execute(StockCommand.Operation.READ, 0).reservedQuantity()).isEqualTo(100);
+    }
+
+    @Test
+    void recoversCountersFromTheSnapshotAndJournalAfterARestart() throws Exception {
+        execute(StockCommand.Operation.ADJUST, 9);
+        partition.call(() -> {
+            partition.snapshot();
+            return null;
+        }).join();
+        execute(StockCommand.Operation.RESERVE, 3);
+        partition.stop();
+        partition.close();
+
+        partition = new InventoryPartition(0, 64, 16, 1000, new InventoryJournal(journalDir, 0, false),
+                id -> {
+                    throw new IllegalStateException("Recovered products must not be loaded again");
+                }, key -> null, (before, after) -> {
+                });
+        partition.start(0);
+
+        StockLevel level = execute(StockCommand.Operation.READ, 0);
+        assertThat(level.totalQuantity()).isEqualTo(10);
+        assertThat(level.reservedQuantity()).isEqualTo(3);
+    }
+
+    @Test
+    void replaysOnlyMovementsJournaledAfterTheLastFlush() throws Exception {
+        execute(StockCommand.Operation.ADJUST, 9);
+        execute(StockCommand.Operation.RESERVE, 3);
+        InventoryPartition.Changes changes = partition.call(partition::drainChanges).join();
+        partition.call(() -> {
+            partition.flushed(changes);
+            return null;
+        }).join();
+        execute(StockCommand.Operation.RELEASE, 1);
+        partition.call(() -> {
+            partition.snapshot();
+            return null;
+        }).join();
+        partition.stop();
+        partition.close();
+
+        partition = new InventoryPartition(0, 64, 16, 1000, new InventoryJournal(journalDir, 0, false),
+                id -> {
+                    throw new IllegalStateException("Recovered products must not be loaded again");
+                }, key -> null, (before, after) -> {
+                });
+        partition.start(changes.sequence());
+
+        InventoryPartition.Changes recovered = partition.call(partition::drainChanges).join();
+        assertThat(recovered.levels()).singleElement()
+                .satisfies(level -> assertThat(level.reservedQuantity()).isEqualTo(2));
+        assertThat(recovered.movements()).singleElement()
+                .satisfies(movement -> {
+                    assertThat(movement.getReservedDelta()).isEqualTo(-1);
+                    assertThat(movement.getReference()).isEqualTo("order-1");
+                });
+    }
+
+    @Test
+    void handsBackChangesThatFailedToFlush() {
+        execute(StockCommand.Operation.RESERVE, 1);
+
+        InventoryPartition.Changes changes = partition.call(partition::drainChanges).join();
+        assertThat(changes.levels()).hasSize(1);
+        assertThat(changes.movements()).singleElement()
+                .satisfies(movement -> assertThat(movement.getReservedDelta()).isEqualTo(1));
+        assertThat(partition.call(partition::drainChanges).join().isEmpty()).isTrue();
+
+        partition.call(() -> {
+            partition.requeue(changes);
+            return null;
+        }).join();
+        assertThat(partition.call(partition::drainChanges).join().movements()).hasSize(1);
+    }
+
+    @Test
+    void appliesAnIdempotencyKeyOnceAndReplaysItsResult() {
+        execute(productId, StockCommand.Operation.ADJUST, 4, "restock");
+        execute(productId, StockCommand.Operation.RESERVE, 2, "key");
+        StockLevel retried = execute(productId, StockCommand.Operation.RESERVE, 2, "key");
+
+        assertThat(retried.reservedQuantity()).isEqualTo(2);
+        assertThat(execute(StockCommand.Operation.READ, 0).reservedQuantity()).isEqualTo(2);
+        assertThatThrownBy(() -> execute(productId, StockCommand.Operation.RESERVE, 3, "key"))
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(ResponseStatusException.class);
+        assertThat(partition.call(partition::drainChanges).join().keys())
+                .extracting(AppliedKey::key)
+                .containsExactly("restock", "key");
+    }
+
+    @Test
+    void looksUpKeysInTheDatabaseOnceTheyAreFlushed() {
+        execute(productId, StockCommand.Operation.RESERVE, 1, "key");
+        InventoryPartition.Changes changes = partition.call(partition::drainChanges).join();
+        partition.call(() -> {
+            partition.flushed(changes);
+            return null;
+        }).join();
+        // Flushed keys are only in the database now; without it the retry would reserve again
+        assertThatThrownBy(() -> execute(productId, StockCommand.Operation.RESERVE, 1, "key"))
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(InsufficientStockException.class);
+
+        storedKeys.put("key", changes.keys().get(0));
+        assertThat(execute(productId, StockCommand.Operation.RESERVE, 1, "key").reservedQuantity()).isEqualTo(1);
+    }
+
+    @Test
+    void recoversUnflushedIdempotencyKeysFromTheJournal() throws Exception {
+        execute(productId, StockCommand.Operation.RESERVE, 1, "key");
+        partition.stop();
+        partition.close();
+
+        partition = new InventoryPartition(0, 64, 16, 1000, new InventoryJournal(journalDir, 0, false),
+                id -> new StockLevel(id, UUID.randomUUID(), 1, 0, 0, 0), key -> null, (before, after) -> {
+                });
+        partition.start(0);
+
+        assertThat(execute(productId, StockCommand.Operation.RESERVE, 1, "key").reservedQuantity()).isEqualTo(1);
+        assertThat(partition.call(partition::drainChanges).join().keys()).singleElement()
+                .satisfies(key -> assertThat(key.operation()).isEqualTo(StockCommand.Operation.RESERVE));
+    }
+
+    @Test
+    void evictsOnlyProductsWhoseChangesWereFlushed() throws Exception {
+        partition.stop();
+        partition.close();
+        AtomicInteger loads = new AtomicInteger();
+        partition = new InventoryPartition(0, 64, 16, 1, new InventoryJournal(journalDir.resolve("bounded"), 0, false),
+                id -> {
+                    loads.incrementAndGet();
+                    return new StockLevel(id, UUID.randomUUID(), 5, 0, 0, 0);
+                }, key -> null, (before, after) -> {
+                });
+        partition.start(0);
+        UUID otherProductId = UUID.randomUUID();
+
+        execute(StockCommand.Operation.RESERVE, 1);
+        execute(otherProductId, StockCommand.Operation.READ, 0);
+        execute(otherProductId, StockCommand.Operation.READ, 0);
+        // The unflushed reservation is kept; the clean product is dropped and loaded again
+        assertThat(execute(StockCommand.Operation.READ, 0).reservedQuantity()).isEqualTo(1);
+        assertThat(loads).hasValue(3);
+
+        InventoryPartition.Changes changes = partition.call(partition::drainChanges).join();
+        partition.call(() -> {
+            partition.flushed(changes);
+            return null;
+        }).join();
+        execute(otherProductId, StockCommand.Operation.READ, 0);
+        execute(StockCommand.Operation.READ, 0);
+
+        assertThat(loads).hasValue(5);
+    }
+
+    private StockLevel execute(StockCommand.Operation operation, int quantity) {
+        return execute(productId, operation, quantity);
+    }
+
+    private StockLevel execute(UUID productId, StockCommand.Operation operation, int quantity) {
+        return execute(productId, operation, quantity, null);
+    }
+
+    private StockLevel execute(UUID productId, StockCommand.Operation operation, int quantity, String idempotencyKey) {
+        CompletableFuture<StockLevel> result = new CompletableFuture<>();
+        partition.submit(new StockCommand(operation, productId, quantity, "ORDER", "order-1", idempotencyKey, result));
+        return result.join();
+    }
+}
@@ -0,0 +1,133 @@
+package com.sj.product_service.service.impl;
+
+import com.sj.product_service.engine.InventoryEngine;
+import com.sj.product_service.entity.Inventory;
+import com.sj.product_service.entity.InventoryIdempotencyKey;
+import com.sj.product_service.repository.InventoryIdempotencyKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InventoryIdempotencyServiceImplTest {
+
+    private final UUID productId = UUID.randomUUID();
+    private final InventoryIdempotencyKeyRepository keyRepository = mock(InventoryIdempotencyKeyRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final InventoryEngine inventoryEngine = mock(InventoryEngine.class);
+    private final AtomicInteger mutations = new AtomicInteger();
+    private final Supplier<Inventory> mutation = () -> {
+        mutations.incrementAndGet();
+        return Inventory.builder().id(UUID.randomUUID()).totalQuantity(10).reservedQuantity(2).version(3).build();
+    };
+
+    private InventoryIdempotencyServiceImpl idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new InventoryIdempotencyServiceImpl(keyRepository, transactionTemplate, inventoryEngine);
+        ReflectionTestUtils.setField(idempotencyService, "ttl", Duration.ofHours(24));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(mock(TransactionStatus.class)));
+    }
+
+    @Test
+    void runsTheMutationAndStoresItsResultForTheFirstClaim() {
+        InventoryIdempotencyKey key = key("RESERVE", 2);
+        when(keyRepository.claim(eq("key"), eq("RESERVE"), eq(productId), eq(2), any(), any())).thenReturn(1);
+        when(keyRepository.findById("key")).thenReturn(Optional.of(key));
+
+        Inventory result = idempotencyService.execute("key", "RESERVE", productId, 2, "ORDER", "order-1", mutation);
+
+        assertThat(mutations).hasValue(1);
+        assertThat(key.getTotalQuantity()).isEqualTo(10);
+        assertThat(key.getInventoryVersion()).isEqualTo(3);
+        assertThat(key.toInventory().getReservedQuantity()).isEqualTo(result.getReservedQuantity());
+        verify(keyRepository).save(key);
+    }
+
+    @Test
+    void replaysTheStoredResultWithoutMutatingAgain() {
+        InventoryIdempotencyKey key = key("RESERVE", 2);
+        key.recordResult(Inventory.builder().totalQuantity(10).reservedQuantity(2).version(3).build());
+        when(keyRepository.claim(anyString(), anyString(), any(), anyInt(), any(), any())).thenReturn(0);
+        when(keyRepository.findById("key")).thenReturn(Optional.of(key));
+
+        Inventory replayed = idempotencyService.execute("key", "RESERVE", productId, 2, "ORDER", "order-1", mutation);
+
+        assertThat(mutations).hasValue(0);
+        assertThat(replayed.getReservedQuantity()).isEqualTo(2);
+        assertThat(replayed.getVersion()).isEqualTo(3);
+        verify(keyRepository, never()).save(any());
+    }
+
+    @Test
+    void rejectsAKeyReusedForADifferentRequest() {
+        when(keyRepository.claim(anyString(), anyString(), any(), anyInt(), any(), any())).thenReturn(0);
+        when(keyRepository.findById("key")).thenReturn(Optional.of(key("RESERVE", 2)));
+
+        assertThatThrownBy(() -> idempotencyService.execute("key", "RESERVE", productId, 3, "ORDER", "order-1",
+                mutation))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY));
+        assertThat(mutations).hasValue(0);
+    }
+
+    @Test
+    void leavesKeysForEngineOwnedProductsToTheEngine() {
+        Inventory applied = Inventory.builder().totalQuantity(10).reservedQuantity(2).version(3).build();
+        when(inventoryEngine.owns(productId)).thenReturn(true);
+        when(inventoryEngine.idempotent("key", "RESERVE", productId, 2, "ORDER", "order-1")).thenReturn(applied);
+
+        Inventory result = idempotencyService.execute("key", "RESERVE", productId, 2, "ORDER", "order-1", mutation);
+
+        assertThat(result).isSameAs(applied);
+        assertThat(mutations).hasValue(0);
+        verify(transactionTemplate, never()).execute(any());
+    }
+
+    @Test
+    void rejectsBlankAndOverlongKeysBeforeClaiming() {
+        assertThatThrownBy(() -> idempotencyService.execute(" ", "RESERVE", productId, 1, "ORDER", "order-1",
+                mutation))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> idempotencyService.execute("k".repeat(129), "RESERVE", productId, 1,
+                "ORDER", "order-1", mutation))
+                .isInstanceOf(ResponseStatusException.class);
+        verify(keyRepository, never()).claim(anyString(), anyString(), any(), anyInt(), any(), any());
+    }
+
+    private InventoryIdempotencyKey key(String operation, int quantity) {
+        LocalDateTime now = LocalDateTime.now();
+        return InventoryIdempotencyKey.builder()
+                .idempotencyKey("key")
+                .operation(operation)
+                .productId(productId)
+                .quantity(quantity)
+                .createdAt(now)
+                .expiresAt(now.plusHours(24))
+                .build();
+    }
+}
@@ -0,0 +1,204 @@
+package com.sj.product_service.service.impl;
+
+import com.sj.product_service.dto.InventoryLevelResponse;
+import com.sj.product_service.entity.Inventory;
+import com.sj.product_service.entity.InventoryMovement;
+import com.sj.product_service.entity.InventorySnapshot;
+import com.sj.product_service.repository.InventoryMovementRepository;
+import com.sj.product_service.repository.InventoryRepository;
+import com.sj.product_service.repository.InventorySnapshotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InventoryLedgerServiceImplTest {
+
+    private final UUID productId = UUID.randomUUID();
+    private final InventoryMovementRepository movementRepository = mock(InventoryMovementRepository.class);
+    private final InventorySnapshotRepository snapshotRepository = mock(InventorySnapshotRepository.class);
+    private final InventoryRepository inventoryRepository = mock(InventoryRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+    private InventoryLedgerServiceImpl ledgerService;
+
+    @BeforeEach
+    void setUp() {
+        ledgerService = new InventoryLedgerServiceImpl(movementRepository, snapshotRepository, inventoryRepository,
+                jdbcTemplate, transactionTemplate);
+        ReflectionTestUtils.setField(ledgerService, "compactionLockTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(ledgerService, "retention", Duration.ofDays(90));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(mock(TransactionStatus.class)));
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(120L);
+    }
+
+    @Test
+    void seedsBaselinesBeforeFoldingMovementsOntoTheLatestSnapshot() {
+        when(snapshotRepository.findLatestMovementId()).thenReturn(100L);
+        when(movementRepository.sumDeltasByProduct(100L, 120L))
+                .thenReturn(List.of(new Totals(productId, -3, 2)));
+        when(snapshotRepository.findLatestByProductIds(anyList())).thenReturn(List.of(InventorySnapshot.builder()
+                .productId(productId).totalQuantity(10).reservedQuantity(1).build()));
+
+        ledgerService.compact();
+
+        InOrder order = inOrder(snapshotRepository, movementRepository);
+        order.verify(snapshotRepository).seedMissingSnapshots(any());
+        order.verify(movementRepository).sumDeltasByProduct(100L, 120L);
+        InventorySnapshot folded = savedSnapshots().get(0);
+        assertThat(folded.getTotalQuantity()).isEqualTo(7);
+        assertThat(folded.getReservedQuantity()).isEqualTo(3);
+        assertThat(folded.getLastMovementId()).isEqualTo(120L);
+    }
+
+    @Test
+    void boundsTheFoldByTheHighestIdSeenUnderTheTableLock() {
+        ledgerService.compact();
+
+        InOrder order = inOrder(jdbcTemplate, movementRepository);
+        order.verify(jdbcTemplate).execute("LOCK TABLE inventory_movements IN SHARE MODE");
+        order.verify(jdbcTemplate).queryForObject(anyString(), eq(Long.class));
+        order.verify(movementRepository).sumDeltasByProduct(0L, 120L);
+    }
+
+    @Test
+    void skipsCompactionWhenNoMovementWasAddedSinceTheLastSnapshot() {
+        when(snapshotRepository.findLatestMovementId()).thenReturn(120L);
+
+        ledgerService.compact();
+
+        verify(snapshotRepository, never()).seedMissingSnapshots(any());
+        verify(movementRepository, never()).deleteIdAtOrBelow(anyLong());
+    }
+
+    @Test
+    void skipsCompactionWhenTheTableLockTimesOut() {
+        doThrow(new CannotAcquireLockException("lock timeout")).when(jdbcTemplate)
+                .execute("LOCK TABLE inventory_movements IN SHARE MODE");
+
+        ledgerService.compact();
+
+        verify(transactionTemplate, never()).executeWithoutResult(any());
+    }
+
+    @Test
+    void prunesOnlyMovementsFoldedIntoASnapshotOlderThanTheRetentionWindow() {
+        when(movementRepository.sumDeltasByProduct(anyLong(), anyLong())).thenReturn(List.of());
+        when(snapshotRepository.findLatestMovementIdAsOf(any())).thenReturn(40L);
+
+        ledgerService.compact();
+
+        ArgumentCaptor<LocalDateTime> asOf = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(snapshotRepository).findLatestMovementIdAsOf(asOf.capture());
+        assertThat(asOf.getValue()).isBefore(LocalDateTime.now().minusDays(89));
+        verify(movementRepository).deleteIdAtOrBelow(40L);
+    }
+
+    @Test
+    void rebuildsALevelFromTheSnapshotAndLaterMovements() {
+        LocalDateTime asOf = LocalDateTime.now().minusDays(1);
+        InventorySnapshot snapshot = InventorySnapshot.builder()
+                .productId(productId).totalQuantity(10).reservedQuantity(2).asOf(asOf.minusDays(1))
+                .lastMovementId(70L).build();
+        when(snapshotRepository.findFirstByProductIdAndAsOfLessThanEqualOrderByAsOfDesc(productId, asOf))
+                .thenReturn(Optional.of(snapshot));
+        when(movementRepository.sumDeltas(productId, 70L, asOf)).thenReturn(new Totals(productId, 5, 1));
+
+        InventoryLevelResponse level = ledgerService.getLevelAt(productId, asOf);
+
+        assertThat(level.getTotalQuantity()).isEqualTo(15);
+        assertThat(level.getAvailableQuantity()).isEqualTo(12);
+    }
+
+    @Test
+    void walksBackFromTheCurrentRowBeforeTheFirstSnapshot() {
+        LocalDateTime asOf = LocalDateTime.now().minusDays(1);
+        when(snapshotRepository.findFirstByProductIdAndAsOfLessThanEqualOrderByAsOfDesc(productId, asOf))
+                .thenReturn(Optional.empty());
+        when(inventoryRepository.findByProductId(productId)).thenReturn(Optional.of(Inventory.builder()
+                .totalQuantity(20).reservedQuantity(4).build()));
+        when(movementRepository.sumDeltasAfter(eq(productId), eq(asOf))).thenReturn(new Totals(productId, 8, 3));
+
+        InventoryLevelResponse level = ledgerService.getLevelAt(productId, asOf);
+
+        assertThat(level.getTotalQuantity()).isEqualTo(12);
+        assertThat(level.getReservedQuantity()).isEqualTo(1);
+    }
+
+    @Test
+    void refusesToReconstructLevelsOlderThanTheRetentionWindow() {
+        assertThatThrownBy(() -> ledgerService.getLevelAt(productId, LocalDateTime.now().minusDays(91)))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> ledgerService.getMovements(productId, LocalDateTime.now().minusDays(91), null, 10))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void recordsNothingForAMovementThatChangesNothing() {
+        ledgerService.record(productId, InventoryMovement.MovementType.ADJUST, 0, 0, "noop", null);
+
+        verify(movementRepository, never()).insert(any(), any(), anyInt(), anyInt(), any(), any(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<InventorySnapshot> savedSnapshots() {
+        ArgumentCaptor<List<InventorySnapshot>> saved = ArgumentCaptor.forClass(List.class);
+        verify(snapshotRepository).saveAll(saved.capture());
+        return saved.getValue();
+    }
+
+    private record Totals(UUID productId, long totalDelta, long reservedDelta)
+            implements InventoryMovementRepository.ProductMovementTotals {
+
+        @Override
+        public UUID getProductId() {
+            return productId;
+        }
+
+        @Override
+        public long getTotalDelta() {
+            return totalDelta;
+        }
+
+        @Override
+        public long getReservedDelta() {
+            return reservedDelta;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.sj.product_service.service.impl;
+
+import com.sj.product_service.alert.LowStockAlertCoalescer;
+import com.sj.product_service.cache.InventoryAvailabilityCache;
+import com.sj.product_service.entity.Inventory;
+import com.sj.product_service.exception.InsufficientStockException;
+import com.sj.product_service.repository.InventoryRepository;
+import com.sj.product_service.service.InventoryLedgerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InventoryServiceImplTest {
+
+    private final UUID productId = UUID.randomUUID();
+    private final InventoryRepository inventoryRepository = mock(InventoryRepository.class);
+    private InventoryServiceImpl inventoryService;
+    private Inventory inventory;
+
+    @BeforeEach
+    void setUp() {
+        inventoryService = new InventoryServiceImpl(inventoryRepository, mock(InventoryLedgerService.class),
+                mock(InventoryAvailabilityCache.class), mock(LowStockAlertCoalescer.class));
+        when(inventoryRepository.findByProductId(productId)).thenAnswer(invocation -> Optional.of(inventory));
+        when(inventoryRepository.save(any(Inventory.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void fulfillsTheLastReservedUnit() {
+        inventory = inventory(1, 0);
+
+        inventoryService.reserveStock(productId, 1, "ORDER", "order-1");
+        Inventory fulfilled = inventoryService.fulfillOrder(productId, 1, "ORDER", "order-1");
+
+        assertThat(fulfilled.getTotalQuantity()).isZero();
+        assertThat(fulfilled.getReservedQuantity()).isZero();
+    }
+
+    @Test
+    void fulfillsReservationsLargerThanTheFreeStock() {
+        inventory = inventory(10, 0);
+
+        inventoryService.reserveStock(productId, 8, "ORDER", "order-1");
+        Inventory fulfilled = inventoryService.fulfillOrder(productId, 8, "ORDER", "order-1");
+
+        assertThat(fulfilled.getTotalQuantity()).isEqualTo(2);
+        assertThat(fulfilled.getReservedQuantity()).isZero();
+    }
+
+    @Test
+    void refusesToFulfillMoreThanIsReserved() {
+        inventory = inventory(10, 2);
+
+        assertThatThrownBy(() -> inventoryService.fulfillOrder(productId, 3, "ORDER", "order-1"))
+                .isInstanceOf(InsufficientStockException.class)
+                .hasMessageContaining("reserved");
+        assertThat(inventory.getTotalQuantity()).isEqualTo(10);
+    }
+
+    private Inventory inventory(int total, int reserved) {
+        return Inventory.builder()
+                .id(UUID.randomUUID())
+                .totalQuantity(total)
+                .reservedQuantity(reserved)
+                .reorderLevel(0)
+                .build();
+    }
+}
@@ -0,0 +1,218 @@
+package com.sj.product_service.service.impl;
+
+import com.sj.product_service.alert.LowStockAlertCoalescer;
+import com.sj.product_service.cache.InventoryAvailabilityCache;
+import com.sj.product_service.dto.StockSyncItem;
+import com.sj.product_service.dto.StockSyncResponse;
+import com.sj.product_service.dto.StockSyncResult;
+import com.sj.product_service.engine.InventoryEngine;
+import com.sj.product_service.entity.Inventory;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StockSyncServiceImplTest {
+
+    private final UUID productA = UUID.randomUUID();
+    private final UUID productB = UUID.randomUUID();
+    private final NamedParameterJdbcTemplate namedJdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final InventoryEngine inventoryEngine = mock(InventoryEngine.class);
+    // product id -> total, reserved, reorder level, version
+    private final Map<UUID, int[]> table = new HashMap<>();
+    private final List<Object[]> movements = new ArrayList<>();
+
+    private StockSyncServiceImpl stockSyncService;
+    private boolean concurrentWriter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stockSyncService = new StockSyncServiceImpl(namedJdbcTemplate, transactionTemplate, inventoryEngine,
+                mock(InventoryAvailabilityCache.class), mock(LowStockAlertCoalescer.class));
+        ReflectionTestUtils.setField(stockSyncService, "chunkSize", 1000);
+        ReflectionTestUtils.setField(stockSyncService, "maxAttempts", 2);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(mock(TransactionStatus.class)));
+        when(namedJdbcTemplate.getJdbcTemplate()).thenReturn(jdbcTemplate);
+
+        doAnswer(invocation -> {
+            List<?> ids = (List<?>) invocation.<MapSqlParameterSource>getArgument(1).getValue("productIds");
+            RowCallbackHandler handler = invocation.getArgument(2);
+            for (Object id : ids) {
+                int[] row = table.get(id);
+                if (row != null) {
+                    handler.processRow(resultSet((UUID) id, row));
+                }
+            }
+            return null;
+        }).when(namedJdbcTemplate).query(startsWith("SELECT"), any(SqlParameterSource.class), any(RowCallbackHandler.class));
+
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList())).thenAnswer(invocation -> {
+            List<Object[]> args = invocation.getArgument(1);
+            int[] counts = new int[args.size()];
+            for (int i = 0; i < args.size(); i++) {
+                int[] row = table.get((UUID) args.get(i)[3]);
+                if (concurrentWriter) {
+                    row[3]++;
+                }
+                if (row[3] == (int) args.get(i)[4]) {
+                    row[0] = (int) args.get(i)[0];
+                    row[3]++;
+                    counts[i] = 1;
+                }
+            }
+            return counts;
+        });
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyList())).thenAnswer(invocation -> {
+            movements.addAll(invocation.getArgument(1));
+            return new int[0];
+        });
+    }
+
+    @Test
+    void foldsEveryRecordForAProductIntoOneUpdate() {
+        table.put(productA, new int[]{5, 0, 2, 0});
+
+        StockSyncResponse response = stockSyncService.sync(List.of(
+                new StockSyncItem(productA, 4, null),
+                new StockSyncItem(productA, null, 10),
+                new StockSyncItem(productA, 2, null),
+                new StockSyncItem(productA, -1, null)).iterator(), "sync-1", false);
+
+        assertThat(table.get(productA)[0]).isEqualTo(11);
+        assertThat(response.getProducts()).isEqualTo(1);
+        assertThat(response.getResults()).singleElement().satisfies(result -> {
+            assertThat(result.getStatus()).isEqualTo(StockSyncResult.Status.APPLIED);
+            assertThat(result.getRecords()).isEqualTo(4);
+        });
+        assertThat(movements).singleElement().satisfies(movement -> assertThat(movement[2]).isEqualTo(6));
+    }
+
+    @Test
+    void refusesToCountStockBelowWhatIsReserved() {
+        table.put(productA, new int[]{10, 4, 2, 0});
+
+        StockSyncResponse response = stockSyncService.sync(List.of(new StockSyncItem(productA, null, 3)).iterator(),
+                "sync-1", false);
+
+        assertThat(table.get(productA)[0]).isEqualTo(10);
+        assertThat(response.getResults().get(0).getStatus()).isEqualTo(StockSyncResult.Status.REJECTED);
+        assertThat(response.getResults().get(0).getMessage()).contains("4 units reserved");
+    }
+
+    @Test
+    void reportsInvalidAndUnknownRecordsWithoutStoppingTheRun() {
+        table.put(productA, new int[]{5, 0, 2, 0});
+
+        StockSyncResponse response = stockSyncService.sync(List.of(
+                new StockSyncItem(productA, 1, 7),
+                new StockSyncItem(productB, 1, null),
+                new StockSyncItem(productA, 1, null)).iterator(), "sync-1", false);
+
+        assertThat(response.getReceived()).isEqualTo(3);
+        assertThat(response.getOutcomes())
+                .containsEntry(StockSyncResult.Status.INVALID, 1)
+                .containsEntry(StockSyncResult.Status.NOT_FOUND, 1)
+                .containsEntry(StockSyncResult.Status.APPLIED, 1);
+        assertThat(table.get(productA)[0]).isEqualTo(6);
+    }
+
+    @Test
+    void reportsAConflictOnceLiveTrafficKeepsWinning() {
+        table.put(productA, new int[]{5, 0, 2, 0});
+        concurrentWriter = true;
+
+        StockSyncResponse response = stockSyncService.sync(List.of(new StockSyncItem(productA, 1, null)).iterator(),
+                "sync-1", false);
+
+        assertThat(response.getResults().get(0).getStatus()).isEqualTo(StockSyncResult.Status.CONFLICT);
+        assertThat(movements).isEmpty();
+    }
+
+    @Test
+    void keepsOnlyFailuresWhenAskedButCountsEveryOutcome() {
+        table.put(productA, new int[]{5, 0, 2, 0});
+        table.put(productB, new int[]{5, 0, 2, 0});
+
+        StockSyncResponse response = stockSyncService.sync(List.of(
+                new StockSyncItem(productA, null, 5),
+                new StockSyncItem(productB, -6, null)).iterator(), "sync-1", true);
+
+        assertThat(response.getOutcomes())
+                .containsEntry(StockSyncResult.Status.APPLIED, 1)
+                .containsEntry(StockSyncResult.Status.REJECTED, 1);
+        assertThat(response.getResults()).singleElement()
+                .satisfies(result -> assertThat(result.getProductId()).isEqualTo(productB));
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("UPDATE"), anyList());
+    }
+
+    @Test
+    void sendsProductsOwnedByTheEngineToTheEngine() {
+        when(inventoryEngine.owns(productA)).thenReturn(true);
+        when(inventoryEngine.adjust(eq(productA), eq(3), anyString(), eq("sync-1")))
+                .thenReturn(Inventory.builder().totalQuantity(8).build());
+
+        StockSyncResponse response = stockSyncService.sync(List.of(new StockSyncItem(productA, 3, null)).iterator(),
+                "sync-1", false);
+
+        assertThat(response.getResults().get(0).getTotalQuantity()).isEqualTo(8);
+        verify(transactionTemplate, never()).execute(any());
+    }
+
+    @Test
+    void reportsProductsTheEngineCannotFindAsNotFound() {
+        when(inventoryEngine.owns(productA)).thenReturn(true);
+        when(inventoryEngine.adjust(eq(productA), eq(3), anyString(), eq("sync-1")))
+                .thenThrow(new EntityNotFoundException("Product not found"));
+        when(inventoryEngine.owns(productB)).thenReturn(true);
+        when(inventoryEngine.adjust(eq(productB), eq(-9), anyString(), eq("sync-1")))
+                .thenThrow(new RuntimeException("Stock cannot be negative"));
+
+        StockSyncResponse response = stockSyncService.sync(List.of(
+                new StockSyncItem(productA, 3, null),
+                new StockSyncItem(productB, -9, null)).iterator(), "sync-1", false);
+
+        assertThat(response.getOutcomes())
+                .containsEntry(StockSyncResult.Status.NOT_FOUND, 1)
+                .containsEntry(StockSyncResult.Status.REJECTED, 1);
+    }
+
+    private ResultSet resultSet(UUID productId, int[] row) throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getObject("product_id", UUID.class)).thenReturn(productId);
+        when(resultSet.getInt("total_quantity")).thenReturn(row[0]);
+        when(resultSet.getInt("reserved_quantity")).thenReturn(row[1]);
+        when(resultSet.getInt("reorder_level")).thenReturn(row[2]);
+        when(resultSet.getInt("version")).thenReturn(row[3]);
+        return resultSet;
+    }
+}